@@ -5,7 +5,9 @@ import newOs.component.cpu.Interrupt.InterruptRequestLine;
 import newOs.component.cpu.X86CPUSimulator;
 import newOs.component.device.Disk;
 import newOs.component.memory.protected1.PCB;
+import newOs.component.memory.protected1.Program;
 import newOs.component.memory.protected1.ProtectedMemory;
+import newOs.component.timer.SimulationClock;
 import newOs.kernel.device.DeviceDriver;
 import newOs.kernel.device.DeviceImpl.DeviceDriverImpl;
 import newOs.kernel.device.DeviceImpl.DiskDriverImpl;
@@ -33,6 +35,7 @@ public class bootLoader implements ApplicationRunner {
     private final ProcessScheduler processScheduler;
     private final ProcessManageServiceImpl processManageServiceImpl;
     private final Disk disk;
+    private final SimulationClock clock;
 
     //注入初始化组件
     private final X86IDTableCreate x86IDTableCreate;
@@ -46,7 +49,8 @@ public class bootLoader implements ApplicationRunner {
                       ProcessManageServiceImpl processManageServiceImpl,
                       X86IDTableCreate x86IDTableCreate,
                       InterruptController interruptController,
-                      Disk disk){
+                      Disk disk,
+                      SimulationClock clock){
         this.x86CPUSimulator = x86CPUSimulator;
         this.protectedMemory = protectedMemory;
         this.processScheduler = processScheduler;
@@ -54,6 +58,7 @@ public class bootLoader implements ApplicationRunner {
         this.x86IDTableCreate = x86IDTableCreate;
         this.interruptController = interruptController;
         this.disk = disk;
+        this.clock = clock;
     }
 
 
@@ -66,10 +71,13 @@ public class bootLoader implements ApplicationRunner {
         CountDownLatch latch = new CountDownLatch(4);
         // 初始化逻辑
         for(int t = 1; t<=4; t++) {
+            int coreId = t;
             for (int i = 0; i < 1; i++) {
                 executors[t].submit(() -> {
                     long threadId = Thread.currentThread().getId();
-                    protectedMemory.getIrlTable().put(threadId, new InterruptRequestLine("TIMER_INTERRUPT"));
+                    InterruptRequestLine irl = new InterruptRequestLine("TIMER_INTERRUPT");
+                    protectedMemory.getIrlTable().put(threadId, irl);
+                    x86CPUSimulator.setCoreInterruptLine(coreId, irl);
                     try {
                         Thread.sleep(10);
                         System.out.println("initializing" + Thread.currentThread().getId());
@@ -163,6 +171,7 @@ public class bootLoader implements ApplicationRunner {
                 "A 10240",
                 "Q"
         };
+        Program program3 = Program.compile(inst3);
         int pid1 = getPid("process1");
         int pid2 = getPid("process2");
         int pid3 = getPid("process3");
@@ -172,11 +181,11 @@ public class bootLoader implements ApplicationRunner {
 
 
 
-        PCB pcb1 = new PCB(pid1, "process1", 0, -1,CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,3, inst3,-1,-1,-1,-1);
-        PCB pcb2 = new PCB(pid2, "process2", 0, -1,CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,3, inst3,-1,-1,-1,-1);
-        PCB pcb3 = new PCB(pid3, "process3", 0, -1,CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,3, inst3,-1,-1,-1,-1);
-        PCB pcb4 = new PCB(pid4, "process4", 0, -1,CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,3, inst3,-1,-1,-1,-1);
-        PCB pcb5 = new PCB(pid5, "process5", 0, -1,CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,3, inst3,-1,-1,-1,-1);
+        PCB pcb1 = new PCB(pid1, "process1", 0, program3.getMemorySize(),CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,0,3, program3,-1,-1,-1,-1,0,0,-1);
+        PCB pcb2 = new PCB(pid2, "process2", 0, program3.getMemorySize(),CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,0,3, program3,-1,-1,-1,-1,0,0,-1);
+        PCB pcb3 = new PCB(pid3, "process3", 0, program3.getMemorySize(),CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,0,3, program3,-1,-1,-1,-1,0,0,-1);
+        PCB pcb4 = new PCB(pid4, "process4", 0, program3.getMemorySize(),CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,0,3, program3,-1,-1,-1,-1,0,0,-1);
+        PCB pcb5 = new PCB(pid5, "process5", 0, program3.getMemorySize(),CREATED,-1 ,-1 ,-1, 3, -1,-1,-1,0,3, program3,-1,-1,-1,-1,0,0,-1);
 
 
         //放置process到PCB表中
@@ -187,9 +196,9 @@ public class bootLoader implements ApplicationRunner {
         protectedMemory.getPcbTable().put(pid5, pcb5);
 
 
-        DeviceDriver deviceDriver1 = new DiskDriverImpl("disk1", null,interruptController,disk);
+        DeviceDriver deviceDriver1 = new DiskDriverImpl("disk1", null,interruptController,disk,clock);
 
-        protectedMemory.getDeviceQueue().add(deviceDriver1);
+        protectedMemory.getDeviceTable().register(deviceDriver1);
 
 
 
@@ -24,6 +24,7 @@ public enum InterruptType {
     STACK_SEGMENT_FAULT(12),
     GENERAL_PROTECTION_FAULT(13),
     PAGE_FAULT(14),
+    MISS_TLB(15),   // TLB 未命中（软件管理的 TLB，使用 x86 保留的向量 15）
 
     /** 硬件中断（IRQ） **/
     TIMER(32),
@@ -37,6 +38,9 @@ public enum InterruptType {
     /**IO中断**/
     IO_INTERRUPT(40),
 
+    /** 核间中断：要求目标核心让出当前进程重新调度（抢占式调度） **/
+    RESCHEDULE(48),
+
 
     /** 软件中断（系统调用） **/
     SYSTEM_CALL(0x80);
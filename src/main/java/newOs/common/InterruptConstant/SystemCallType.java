@@ -15,7 +15,8 @@ public enum SystemCallType {
     ALLOCATE_MEMORY(6), // 分配内存
     DEALLOCATE_MEMORY(7), // 释放内存
     OPEN_FILE(8), // 打开文件
-    CLOSE_FILE(9); // 关闭文件
+    CLOSE_FILE(9), // 关闭文件
+    SWITCH_STRATEGY(10); // 切换调度策略
 
 
     private final int syscallNumber;
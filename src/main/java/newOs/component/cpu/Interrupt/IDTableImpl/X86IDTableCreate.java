@@ -8,6 +8,7 @@ import newOs.component.memory.protected1.ProtectedMemory;
 import newOs.component.timer.timer;
 import newOs.kernel.interrupt.ISR;
 import newOs.kernel.interrupt.hardwareHandler.IOInterruptHandler;
+import newOs.kernel.interrupt.memoryHandler.MissTLBHandler;
 import newOs.kernel.interrupt.memoryHandler.PageFaultHandler;
 import newOs.kernel.interrupt.sysCallHandler.SystemCallHandler;
 import newOs.kernel.interrupt.timerHandler.TimerHandler;
@@ -29,20 +30,20 @@ public class X86IDTableCreate implements IDTableCreate{
     private final TimerHandler timerHandler;
     private final PageFaultHandler pageFaultHandler;
 
-    !private final MissTLBHandler missTLBHandler;
+    private final MissTLBHandler missTLBHandler;
 
     @Autowired
     public X86IDTableCreate(ProtectedMemory protectedMemory, SystemCallHandler systemCallHandler,
                             IOInterruptHandler IOInterruptHandler,
                             TimerHandler timerHandler,
-                           ! PageFaultHandler PageFaultHandler,
-                           ! MissTLBHandler missTLBHandler) {
+                            PageFaultHandler PageFaultHandler,
+                            MissTLBHandler missTLBHandler) {
         this.IDT = protectedMemory.getIDT();
         this.systemCallHandler = systemCallHandler;
         this.iOInterruptHandler = IOInterruptHandler;
         this.timerHandler = timerHandler;
-        !this.pageFaultHandler = PageFaultHandler;
-        !this.missTLBHandler = missTLBHandler;
+        this.pageFaultHandler = PageFaultHandler;
+        this.missTLBHandler = missTLBHandler;
     }
 
     @Override
@@ -52,7 +53,7 @@ public class X86IDTableCreate implements IDTableCreate{
         IDT.put(InterruptType.SYSTEM_CALL, systemCallHandler);
         IDT.put(InterruptType.IO_INTERRUPT, iOInterruptHandler);
         IDT.put(InterruptType.TIMER,timerHandler);
-      !  IDT.put(InterruptType.PAGE_FAULT,pageFaultHandler);
-      !  IDT.put(InterruptType.MISS_TLB,missTLBHandler);
+        IDT.put(InterruptType.PAGE_FAULT,pageFaultHandler);
+        IDT.put(InterruptType.MISS_TLB,missTLBHandler);
     }
 }
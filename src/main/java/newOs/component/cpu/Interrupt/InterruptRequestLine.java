@@ -1,27 +1,77 @@
 package newOs.component.cpu.Interrupt;
 
 import lombok.extern.slf4j.Slf4j;
+import newOs.common.InterruptConstant.InterruptType;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 硬件信号是存储在irl 物理线路上的，和内存无关
+ *
+ * 每个核心一条中断请求线，待处理中断用一个 64 位掩码表示，第 n 位对应向量号 n 的中断。
+ * 同一中断在被响应前重复发出只记一次；发出、查询、响应都是一次原子操作。
+ * 只有 CPU 异常和硬件中断（向量号 0~63）经过中断请求线，系统调用不经过。
  */
 @Slf4j
-public class InterruptRequestLine extends ConcurrentLinkedQueue<String> {
+public class InterruptRequestLine {
     public final String irlName;
+    // 待处理中断的掩码
+    private final AtomicLong pending = new AtomicLong();
+
     public InterruptRequestLine(String irlName) {
-        super();
         this.irlName = irlName;
     }
 
-    @Override
-    public boolean offer(String item) {
-        if (!item.equals("TIMER_INTERRUPT") || !this.contains("TIMER_INTERRUPT")) {
-            return super.offer(item);
+    /**
+     * 发出中断请求
+     * @return 该中断此前是否未挂起（false 表示与尚未响应的同一中断合并）
+     */
+    public boolean raise(InterruptType type) {
+        long bit = bit(type);
+        return (pending.getAndUpdate(mask -> mask | bit) & bit) == 0;
+    }
+
+    /**
+     * 是否有待处理的中断，执行每条指令后检查，只需一次 volatile 读
+     */
+    public boolean hasPending() {
+        return pending.get() != 0;
+    }
+
+    public boolean isPending(InterruptType type) {
+        return (pending.get() & bit(type)) != 0;
+    }
+
+    /**
+     * 响应指定中断，清除其挂起位
+     * @return 该中断是否处于挂起状态
+     */
+    public boolean acknowledge(InterruptType type) {
+        long bit = bit(type);
+        return (pending.getAndUpdate(mask -> mask & ~bit) & bit) != 0;
+    }
+
+    /**
+     * 响应全部待处理中断
+     * @return 响应前的挂起掩码，第 n 位对应向量号 n
+     */
+    public long acknowledgeAll() {
+        return pending.getAndSet(0);
+    }
+
+    /**
+     * 中断在挂起掩码中对应的位
+     */
+    public static long bit(InterruptType type) {
+        int vector = type.getVector();
+        if (vector < 0 || vector >= Long.SIZE) {
+            throw new IllegalArgumentException("中断 " + type + " 的向量号 " + vector + " 不经过中断请求线");
         }
-        return false;
+        return 1L << vector;
+    }
+
+    @Override
+    public String toString() {
+        return irlName + "[pending=0x" + Long.toHexString(pending.get()) + "]";
     }
-    //poll 是从队列中取出一个元素
-    //peek 是查看队列头部的元素
 }
@@ -1,11 +1,101 @@
 package newOs.component.cpu.MMU;
 
 
+import newOs.component.memory.protected1.PCB;
+import newOs.dto.req.Info.InfoImplDTO.InterruptMissTLBInfo;
+import newOs.kernel.interrupt.InterruptController;
+import newOs.kernel.memory.service.TLBService;
+import newOs.kernel.memory.service.VirtualMemoryService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+/**
+ * 内存管理单元：按进程的段表和页表把逻辑地址转换为物理地址。
+ * 先查进程所在核心的 TLB，未命中时发出 TLB 未命中中断，由处理程序遍历页表并填入 TLB
+ */
 @Component
 public class MMU {
 
-    public MMU() {
+    private final VirtualMemoryService virtualMemoryService;
+    private final TLBService tlbService;
+    private final InterruptController interruptController;
+
+    // 各核心的 TLB 未命中中断信息（下标0不用），重复使用
+    private InterruptMissTLBInfo[] missTLBInfos = new InterruptMissTLBInfo[0];
+
+    @Autowired
+    public MMU(VirtualMemoryService virtualMemoryService, TLBService tlbService, InterruptController interruptController) {
+        this.virtualMemoryService = virtualMemoryService;
+        this.tlbService = tlbService;
+        this.interruptController = interruptController;
+    }
+
+    /**
+     * 为每个核心创建 TLB，由 CPU 在创建核心时调用
+     */
+    public void createTLBs(int cores) {
+        InterruptMissTLBInfo[] infos = new InterruptMissTLBInfo[cores];
+        for (int coreId = 1; coreId < cores; coreId++) {
+            infos[coreId] = new InterruptMissTLBInfo().setCoreId(coreId);
+        }
+        missTLBInfos = infos;
+        tlbService.createTLBs(cores);
+    }
+
+    /**
+     * 地址转换
+     * @param write 是否为写访问
+     * @return 物理地址
+     */
+    public int translate(PCB pcb, int logicalAddress, boolean write) {
+        //访存次数，用于计算缺页率
+        pcb.setMemoryAccessCount(pcb.getMemoryAccessCount() + 1);
+        int coreId = pcb.getCoreId();
+        int physicalAddress = tlbService.lookup(coreId, pcb.getAsid(), logicalAddress, write);
+        if (physicalAddress >= 0) {
+            return physicalAddress;
+        }
+        if (coreId <= 0 || coreId >= missTLBInfos.length) {
+            //不在核心上执行（没有 TLB），直接遍历页表
+            return virtualMemoryService.translate(pcb, logicalAddress, write);
+        }
+        InterruptMissTLBInfo info = missTLBInfos[coreId]
+                .setPcb(pcb)
+                .setLogicalAddress(logicalAddress)
+                .setWrite(write);
+        return interruptController.triggerMissTLB(info).getPhysicalAddress();
+    }
+
+    /**
+     * 读一个字节；转换和读取之间页面被换出时重新转换
+     */
+    public byte read(PCB pcb, int logicalAddress) {
+        for (;;) {
+            long stamp = virtualMemoryService.beginAccess();
+            byte value = virtualMemoryService.getPhysicalMemory().readByte(translate(pcb, logicalAddress, false));
+            if (virtualMemoryService.validateAccess(stamp)) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * 写一个字节；写入时持有帧锁的读锁，不会写进已经分给其他页面的帧
+     */
+    public void write(PCB pcb, int logicalAddress, byte value) {
+        for (;;) {
+            long stamp = virtualMemoryService.beginAccess();
+            int physicalAddress = translate(pcb, logicalAddress, true);
+            stamp = virtualMemoryService.lockAccess(stamp);
+            if (stamp == 0) {
+                continue;
+            }
+            try {
+                virtualMemoryService.getPhysicalMemory().writeByte(physicalAddress, value);
+                return;
+            } finally {
+                virtualMemoryService.unlockAccess(stamp);
+            }
+        }
     }
 }
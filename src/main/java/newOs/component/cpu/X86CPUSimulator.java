@@ -9,15 +9,25 @@ import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.lang.reflect.Method;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import newOs.common.InterruptConstant.InterruptType;
 import newOs.common.cpuConstant.RegisterType;
+import newOs.component.cpu.Interrupt.InterruptRequestLine;
 import newOs.component.cpu.ALU.ALU;
 import newOs.component.cpu.MMU.MMU;
 import newOs.component.cpu.Registers.AbstractRegister;
 import newOs.component.cpu.Registers.AbstractRegisterFactory;
+import newOs.component.memory.protected1.ProtectedMemory;
+import newOs.component.timer.SimulationClock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Scope;
 import org.springframework.data.relational.core.sql.In;
 import org.springframework.stereotype.Component;
@@ -27,32 +37,141 @@ import org.springframework.stereotype.Component;
 
 @Component
 @Data
+@Slf4j
 public class X86CPUSimulator {
     private final ExecutorService[] executors;
     private final List<AtomicInteger> executorServiceReady = Collections.synchronizedList(new ArrayList<>());
 
+    /**
+     * 进程执行模式：
+     * pool    每个核心一个单线程线程池，进程在核心线程上执行（默认）
+     * virtual 每个进程任务一个轻量线程（运行时支持虚拟线程时使用虚拟线程，否则退化为可伸缩的线程池），
+     *         由每个核心一个许可的信号量保证同一核心同时只运行一个进程
+     */
+    private final String executionMode;
+    private final ExecutorService processExecutor;
+    private final Semaphore[] coreSemaphores;
+    // 各核心的中断请求线（下标0不用），virtual 模式下进程线程执行期间登记到 irlTable
+    private final InterruptRequestLine[] coreInterruptLines;
+    private final ConcurrentHashMap<Long, InterruptRequestLine> irlTable;
+
+    // 已执行完的进程任务数，用于比较两种模式的吞吐量
+    private final AtomicLong completedTasks = new AtomicLong();
+    // 模拟时钟，virtual 时钟模式下按正在执行的进程任务数决定何时推进虚拟时间
+    private final SimulationClock clock;
+
 
     private MMU mmu;
     //private Map<RegisterType, AbstractRegister> registers = new HashMap<>();
     //private ALU alu; 暂时没实现
 
     @Autowired
-    public X86CPUSimulator(MMU mmu, AbstractRegisterFactory registerFactory) {
+    public X86CPUSimulator(MMU mmu, AbstractRegisterFactory registerFactory, ProtectedMemory protectedMemory,
+                           SimulationClock clock,
+                           @Value("${cpu.execution-mode:pool}") String executionMode) {
         this.mmu = mmu;
         //this.alu = alu;
         //创建寄存器组
         //registers = registerFactory.GenerateBaseConfig();
 
         this.executors = new ExecutorService[5];
+        this.coreSemaphores = new Semaphore[5];
+        this.coreInterruptLines = new InterruptRequestLine[5];
+        this.irlTable = protectedMemory.getIrlTable();
+        this.clock = clock;
 
         //模拟N核
         for(int i= 0; i <=4; i++) {
             this.executors[i] = Executors.newFixedThreadPool(1);        //实际上0不会被用到
             executorServiceReady.add(new AtomicInteger(0));         //添加计数
+            this.coreSemaphores[i] = new Semaphore(1);
         }
+        //每个核心一个 TLB
+        mmu.createTLBs(executors.length);
 
+        this.executionMode = "virtual".equalsIgnoreCase(executionMode) ? "virtual" : "pool";
+        this.processExecutor = this.executionMode.equals("virtual") ? newLightweightExecutor() : null;
+        log.info("进程执行模式: {}", this.executionMode);
     }
     public ExecutorService[] getExecutors() {
         return executors;
     }
+
+    /**
+     * 登记核心的中断请求线（由 bootLoader 在核心线程初始化时调用）
+     */
+    public void setCoreInterruptLine(int coreId, InterruptRequestLine irl) {
+        coreInterruptLines[coreId] = irl;
+    }
+
+    /**
+     * 向指定核心的中断请求线发出中断，核心执行完当前指令后响应
+     * @return 中断请求线尚未登记时返回 false
+     */
+    public boolean raiseInterrupt(int coreId, InterruptType type) {
+        InterruptRequestLine irl = coreInterruptLines[coreId];
+        if (irl == null) {
+            return false;
+        }
+        irl.raise(type);
+        return true;
+    }
+
+    /**
+     * 在指定核心上执行进程任务
+     */
+    public void submit(int coreId, Runnable task) {
+        // 提交时即计入正在执行的任务，上一个任务在退出前提交下一个，虚拟时间不会在交接时被推进
+        clock.taskStarted();
+        if (processExecutor == null) {
+            executors[coreId].submit(() -> runAndCount(task));
+            return;
+        }
+        processExecutor.submit(() -> {
+            Semaphore core = coreSemaphores[coreId];
+            core.acquireUninterruptibly();
+            // 定时器按线程id投递中断，执行期间把本线程登记到核心的中断请求线上
+            long threadId = Thread.currentThread().getId();
+            InterruptRequestLine irl = coreInterruptLines[coreId];
+            if (irl != null) {
+                irlTable.put(threadId, irl);
+            }
+            try {
+                runAndCount(task);
+            } finally {
+                irlTable.remove(threadId);
+                core.release();
+            }
+        });
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks.get();
+    }
+
+    private void runAndCount(Runnable task) {
+        try {
+            task.run();
+        } finally {
+            completedTasks.incrementAndGet();
+            clock.taskFinished();
+        }
+    }
+
+    // JDK 21 起有虚拟线程；项目按 JDK 17 编译，这里通过反射获取，不支持时使用可伸缩的守护线程池
+    private static ExecutorService newLightweightExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            log.info("virtual 模式使用虚拟线程");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("当前运行时不支持虚拟线程，virtual 模式退化为可伸缩的线程池");
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "process-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
 }
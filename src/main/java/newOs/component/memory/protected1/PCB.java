@@ -41,20 +41,30 @@ public class PCB {
     private long remainingTime;
     // 预期运行时间
     private long expectedTime;
+    // 已执行的计算时间，SRJF 按 expectedTime - executedTime 排序
+    private long executedTime;
     // 进程优先级
     private int priority;
-    // 指令集
-    private String[] instructions;
+    // 编译后的程序
+    private Program program;
 
 
 
-    //LRU算法执行换入换出时间
+    //页面置换统计：换入次数、换出次数、缺页率（每千次访存的缺页次数）
     private int swapInTime;
 
     private int swapOutTime;
 
     private int pageFaultRate;
 
+    //访存次数和缺页次数，用于计算缺页率
+    private long memoryAccessCount;
+
+    private long pageFaultCount;
+
     //上一次的核心id
     private Integer coreId;
+
+    // 地址空间号，分配内存时由 VirtualMemoryService 分配，释放内存后回收；-1 表示尚未分配内存
+    private int asid;
 }
@@ -0,0 +1,154 @@
+package newOs.component.memory.protected1;
+
+import static newOs.common.processConstant.InstructionConstant.*;
+
+/**
+ * 编译后的进程程序。
+ * 创建进程时把指令文本解析一次，得到操作码数组和操作数数组，执行时按下标取值，
+ * 不再对每条指令做 split 和 parseInt。
+ */
+public final class Program {
+
+    // 操作码
+    public static final int OP_NOP = 0;       // 未实现的指令（D、Y 等），执行时跳过
+    public static final int OP_MEMORY = 1;    // M block   内存需求声明，操作数为字节数
+    public static final int OP_ACCESS = 2;    // A address 访问内存，操作数为逻辑地址
+    public static final int OP_COMPUTE = 3;   // C time    计算，操作数为时长（ms）
+    public static final int OP_OPEN = 4;      // OPEN device
+    public static final int OP_READ = 5;      // READ device
+    public static final int OP_WRITE = 6;     // WRITE device content
+    public static final int OP_CLOSE = 7;     // CLOSE device
+    public static final int OP_QUIT = 8;      // Q
+
+    private final byte[] opcodes;
+    private final int[] operands;
+    // 设备类指令的设备名、WRITE 指令的写入内容，其他指令为 null
+    private final String[] devices;
+    private final String[] contents;
+    // 原始指令文本，只用于日志
+    private final String[] source;
+
+    // M 指令声明的内存总量（字节）
+    private final int memorySize;
+    // 计算指令的总时长（ms）
+    private final long expectedTime;
+
+    private Program(byte[] opcodes, int[] operands, String[] devices, String[] contents, String[] source,
+                    int memorySize, long expectedTime) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.devices = devices;
+        this.contents = contents;
+        this.source = source;
+        this.memorySize = memorySize;
+        this.expectedTime = expectedTime;
+    }
+
+    /**
+     * 编译指令文本
+     * @param instructions 每个元素一条指令，如 "C 1000"、"M 10"、"READ disk1"
+     * @throws IllegalArgumentException 指令缺少操作数或操作数不是数字
+     */
+    public static Program compile(String[] instructions) {
+        int n = instructions.length;
+        byte[] opcodes = new byte[n];
+        int[] operands = new int[n];
+        String[] devices = new String[n];
+        String[] contents = new String[n];
+        String[] source = new String[n];
+        int memorySize = 0;
+        long expectedTime = 0;
+
+        for (int i = 0; i < n; i++) {
+            String line = instructions[i].trim();
+            source[i] = line;
+            String[] parts = line.split("\\s+", 3);
+            String command = parts[0];
+            int opcode;
+            if (command.equals(M)) {
+                opcode = OP_MEMORY;
+                // M 的操作数以 KB 为单位
+                operands[i] = Math.multiplyExact(intOperand(parts, line), 1024);
+                memorySize = Math.addExact(memorySize, operands[i]);
+            } else if (command.equals(A)) {
+                opcode = OP_ACCESS;
+                operands[i] = intOperand(parts, line);
+            } else if (command.equals(C)) {
+                opcode = OP_COMPUTE;
+                operands[i] = intOperand(parts, line);
+                expectedTime += operands[i];
+            } else if (command.equals(OPEN)) {
+                opcode = OP_OPEN;
+                devices[i] = stringOperand(parts, 1, line);
+            } else if (command.equals(READ)) {
+                opcode = OP_READ;
+                devices[i] = stringOperand(parts, 1, line);
+            } else if (command.equals(WRITE)) {
+                opcode = OP_WRITE;
+                devices[i] = stringOperand(parts, 1, line);
+                contents[i] = stringOperand(parts, 2, line);
+            } else if (command.equals(CLOSE)) {
+                opcode = OP_CLOSE;
+                devices[i] = stringOperand(parts, 1, line);
+            } else if (command.equals(Q)) {
+                opcode = OP_QUIT;
+            } else {
+                opcode = OP_NOP;
+            }
+            opcodes[i] = (byte) opcode;
+        }
+        return new Program(opcodes, operands, devices, contents, source, memorySize, expectedTime);
+    }
+
+    public int length() {
+        return opcodes.length;
+    }
+
+    public int opcode(int ir) {
+        return opcodes[ir];
+    }
+
+    public int operand(int ir) {
+        return operands[ir];
+    }
+
+    public String device(int ir) {
+        return devices[ir];
+    }
+
+    public String content(int ir) {
+        return contents[ir];
+    }
+
+    public String source(int ir) {
+        return source[ir];
+    }
+
+    public int getMemorySize() {
+        return memorySize;
+    }
+
+    public long getExpectedTime() {
+        return expectedTime;
+    }
+
+    private static int intOperand(String[] parts, String line) {
+        String operand = stringOperand(parts, 1, line);
+        try {
+            int value = Integer.parseInt(operand);
+            if (value < 0) {
+                throw new IllegalArgumentException("指令操作数不能为负数: " + line);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("指令操作数不是整数: " + line);
+        }
+    }
+
+    private static String stringOperand(String[] parts, int index, String line) {
+        if (parts.length <= index) {
+            throw new IllegalArgumentException("指令缺少操作数: " + line);
+        }
+        return parts[index];
+    }
+}
@@ -4,14 +4,16 @@ package newOs.component.memory.protected1;
 import lombok.Data;
 import newOs.common.InterruptConstant.InterruptType;
 import newOs.component.cpu.Interrupt.InterruptRequestLine;
-import newOs.kernel.device.DeviceDriver;
+import newOs.kernel.device.DeviceRegistry;
 import newOs.kernel.interrupt.ISR;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.PriorityBlockingQueue;
 
 
 /**
@@ -31,26 +33,15 @@ public class ProtectedMemory {
 //    private HashMap<FileNode, FileInfoo> fileInfoTable;
     private  ConcurrentHashMap<InterruptType, ISR> IDT;
 
-    // 运行队列  --目前正在执行的pcb
-    private  ConcurrentLinkedQueue<PCB> runningQueue;
-    // 就绪队列  --低级调度就绪队列
-    private  ConcurrentLinkedQueue<PCB> readyQueue;
+    // 运行表  --目前正在执行的pcb，增删为 O(1)；pid 可能重复，按对象身份区分
+    private  Set<PCB> runningTable;
+    // 等待表 --内存阻塞的pcb
+    private Set<PCB> waitingTable;
 
+    // 就绪队列由 SideScheduler 按当前调度策略（SchedulingPolicy）创建和管理
 
-
-    // 等待队列 --内存阻塞队列
-    private ConcurrentLinkedQueue<PCB> waitingQueue;
-
-    //sjf队列
-    private final PriorityBlockingQueue<PCB> readySJFQueue;
-
-
-    private final ConcurrentLinkedQueue<PCB> highPriorityQueue;
-    private final ConcurrentLinkedQueue<PCB> mediumPriorityQueue;
-    private final ConcurrentLinkedQueue<PCB> lowPriorityQueue;
-
-    //设备队列
-    private final ConcurrentLinkedQueue<DeviceDriver> deviceQueue;
+    //设备表，按设备名、设备号索引
+    private final DeviceRegistry deviceTable;
 
 
 
@@ -69,27 +60,13 @@ public class ProtectedMemory {
         IDT = new ConcurrentHashMap<>();
         irlTable = new ConcurrentHashMap<>();
 
-        runningQueue = new ConcurrentLinkedQueue<>();
-        readyQueue = new ConcurrentLinkedQueue<>();
-        waitingQueue = new ConcurrentLinkedQueue<>();
-
-        readySJFQueue = new PriorityBlockingQueue<>(10, (o1, o2) -> {
-            if (o1.getExpectedTime() > o2.getExpectedTime()) {
-                return 1;
-            } else if (o1.getExpectedTime() < o2.getExpectedTime()) {
-                return -1;
-            } else {
-                return 0;
-            }
-        });
-
-        highPriorityQueue = new ConcurrentLinkedQueue<>();
-        mediumPriorityQueue = new ConcurrentLinkedQueue<>();
-        lowPriorityQueue = new ConcurrentLinkedQueue<>();
+        runningTable = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        waitingTable = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
         irlIO = new ConcurrentLinkedQueue<>();
 
         
-        deviceQueue = new ConcurrentLinkedQueue<>();
+        deviceTable = new DeviceRegistry();
 
     }
 }
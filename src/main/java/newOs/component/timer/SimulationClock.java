@@ -0,0 +1,179 @@
+package newOs.component.timer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 模拟时钟，进程执行、设备访问、定时中断和优先级提升都通过它计时。
+ *
+ * wall    墙上时间模式（默认）：sleep 即 Thread.sleep，周期任务由 @Scheduled 驱动。
+ * virtual 离散事件模式：时间是一个虚拟的毫秒计数。sleep 只登记一个唤醒事件；
+ *         当所有正在执行的进程任务都在 sleep 中等待时，时钟直接跳到最早的事件并触发它，
+ *         周期任务（定时中断、优先级提升）也作为事件按虚拟时间触发。
+ *         因此工作负载的执行速度与模拟时长无关；没有进程任务在执行时时钟停止。
+ */
+@Slf4j
+@Component
+public class SimulationClock {
+
+    private final boolean virtual;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 以下字段只在 virtual 模式下使用，由 lock 保护
+    private long now;
+    private long nextSeq;
+    // 按触发时间排序，时间相同按登记顺序
+    private final PriorityQueue<Event> events = new PriorityQueue<>(
+            (a, b) -> a.time != b.time ? Long.compare(a.time, b.time) : Long.compare(a.seq, b.seq));
+    // 正在执行的进程任务数、其中在 sleep 中等待的数目
+    private int active;
+    private int sleeping;
+
+    @Autowired
+    public SimulationClock(@Value("${clock.mode:wall}") String mode) {
+        this.virtual = "virtual".equalsIgnoreCase(mode);
+        log.info("模拟时钟模式: {}", virtual ? "virtual" : "wall");
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * 当前时间（毫秒）：wall 模式为系统时间，virtual 模式为从 0 开始的虚拟时间
+     */
+    public long now() {
+        if (!virtual) {
+            return System.currentTimeMillis();
+        }
+        lock.lock();
+        try {
+            return now;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 模拟耗时 millis 毫秒
+     */
+    public void sleep(long millis) throws InterruptedException {
+        if (!virtual) {
+            Thread.sleep(millis);
+            return;
+        }
+        lock.lock();
+        try {
+            Event wakeUp = new Event(now + Math.max(0, millis), nextSeq++, null, 0);
+            wakeUp.condition = lock.newCondition();
+            events.add(wakeUp);
+            sleeping++;
+            advanceIfIdle();
+            try {
+                while (!wakeUp.fired) {
+                    wakeUp.condition.await();
+                }
+            } catch (InterruptedException e) {
+                if (!wakeUp.fired) {
+                    events.remove(wakeUp);
+                    sleeping--;
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 登记周期任务，virtual 模式下按虚拟时间每隔 periodMillis 执行一次；
+     * wall 模式下不做任何事，由调用方的 @Scheduled 方法驱动
+     */
+    public void schedulePeriodic(long periodMillis, Runnable action) {
+        if (!virtual) {
+            return;
+        }
+        lock.lock();
+        try {
+            events.add(new Event(now + periodMillis, nextSeq++, action, periodMillis));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 进程任务提交到核心时调用，必须在上一个任务的 taskFinished 之前调用，时钟才不会提前前进
+     */
+    public void taskStarted() {
+        if (!virtual) {
+            return;
+        }
+        lock.lock();
+        try {
+            active++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 进程任务执行结束时调用
+     */
+    public void taskFinished() {
+        if (!virtual) {
+            return;
+        }
+        lock.lock();
+        try {
+            active--;
+            advanceIfIdle();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 所有进程任务都在等待时钟时，按时间顺序触发事件，直到有任务被唤醒；调用方需持有锁
+    private void advanceIfIdle() {
+        while (active > 0 && sleeping >= active && !events.isEmpty()) {
+            Event event = events.poll();
+            now = Math.max(now, event.time);
+            if (event.condition != null) {
+                event.fired = true;
+                sleeping--;
+                event.condition.signal();
+            } else {
+                try {
+                    event.action.run();
+                } catch (RuntimeException e) {
+                    log.error("周期任务执行失败: " + e.getMessage());
+                }
+                events.add(new Event(now + event.period, nextSeq++, event.action, event.period));
+            }
+        }
+    }
+
+    /**
+     * 时钟事件：线程唤醒（condition 不为 null）或周期任务
+     */
+    private static final class Event {
+        private final long time;
+        private final long seq;
+        private final Runnable action;
+        private final long period;
+        private Condition condition;
+        private boolean fired;
+
+        private Event(long time, long seq, Runnable action, long period) {
+            this.time = time;
+            this.seq = seq;
+            this.action = action;
+            this.period = period;
+        }
+    }
+}
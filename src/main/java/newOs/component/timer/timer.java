@@ -12,15 +12,28 @@ import static newOs.common.InterruptConstant.InterruptType.TIMER;
 @Component
 public class timer {
     private final InterruptController interruptController;
+    private final SimulationClock clock;
+
+    // 时钟中断周期（毫秒）
+    private static final long PERIOD = 600;
 
 
     @Autowired
-    public timer(InterruptController interruptController) {
+    public timer(InterruptController interruptController, SimulationClock clock) {
         this.interruptController = interruptController;
-
+        this.clock = clock;
+        //virtual 时钟模式下时钟中断按虚拟时间触发
+        clock.schedulePeriodic(PERIOD, this::fireTimerInterrupt);
     }
-    @Scheduled(fixedRate = 600) // 每隔600ms执行一次
+    @Scheduled(fixedRate = PERIOD) // 每隔600ms执行一次
     public void sendInterruptRequest() {
+        if (clock.isVirtual()) {
+            return;
+        }
+        fireTimerInterrupt();
+    }
+
+    private void fireTimerInterrupt() {
         TimerInfoImplDTO timerInfoImplDTO = new TimerInfoImplDTO().setTimerId(1).setInterruptType(TIMER);
         interruptController.triggerTimer(timerInfoImplDTO);
     }
@@ -0,0 +1,33 @@
+package newOs.config;
+
+import newOs.kernel.DiskStorage.BlockDevice;
+import newOs.kernel.DiskStorage.BlockStorageManager;
+import newOs.kernel.DiskStorage.MappedBlockDevice;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 选择文件系统使用的块设备
+ * disk.block.device=sqlite  SQLite blocks 表（默认）
+ * disk.block.device=mmap    内存映射的磁盘镜像文件
+ */
+@Configuration
+public class BlockDeviceConfig {
+
+    @Bean
+    @Primary
+    public BlockDevice blockDevice(BlockStorageManager blockStorageManager,
+                                   @Value("${disk.block.device:sqlite}") String device,
+                                   @Value("${disk.block.image-path:disk.img}") String imagePath,
+                                   @Value("${disk.block.image-blocks:1024}") int imageBlocks) throws IOException {
+        if ("mmap".equalsIgnoreCase(device)) {
+            return new MappedBlockDevice(Path.of(imagePath), imageBlocks);
+        }
+        return blockStorageManager;
+    }
+}
@@ -7,6 +7,7 @@ import newOs.dto.result.Result;
 import newOs.service.ServiaceImpl.ProcessManageServiceImpl;
 import newOs.dto.req.ProcessManage.ProcessCreateReqDTO;
 import newOs.dto.req.Info.InfoImplDTO.ProcessInfoReturnImplDTO;
+import newOs.exception.OSException;
 import newOs.exception.ProcessException.ProcessException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -49,6 +50,25 @@ public class CmdCallController {
 
 
 
+    @PutMapping("/strategy/{strategy}") // 切换调度策略
+    public ResponseEntity<Result> switchStrategy(@PathVariable String strategy) {
+        try{
+            processService.switchStrategy(strategy);
+            Result result = Result.ok();
+            result.setRequestId(UUID.randomUUID().toString());
+            return ResponseEntity.ok(result);
+        }catch (OSException e){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Result.fail(e.getMessage(), "400"));
+        }
+    }
+
+    @GetMapping("/syscall-stats") // 查询各系统调用的调用次数和耗时
+    public ResponseEntity<Result> querySyscallStats() {
+        Result result = Result.ok(processService.querySyscallStats());
+        result.setRequestId(UUID.randomUUID().toString());
+        return ResponseEntity.ok(result);
+    }
+
     //    @PostMapping("/file")
 //    public ResponseEntity<String> handleFileCommand(@RequestBody FileCommand cmd) {
 //        return fileService.readFile(cmd.getFileName());
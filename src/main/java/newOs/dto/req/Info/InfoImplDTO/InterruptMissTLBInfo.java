@@ -0,0 +1,30 @@
+package newOs.dto.req.Info.InfoImplDTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+import newOs.common.InterruptConstant.InterruptType;
+import newOs.component.memory.protected1.PCB;
+import newOs.dto.req.Info.InterruptInfo;
+
+/**
+ * TLB 未命中：MMU 填入要转换的地址，处理程序遍历页表后写回物理地址。
+ * 每个核心一个，重复使用
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class InterruptMissTLBInfo implements InterruptInfo {
+
+    private int coreId;
+    private PCB pcb;
+    private int logicalAddress;
+    private boolean write;
+    // 处理结果
+    private int physicalAddress;
+
+    @Override
+    public InterruptType getInterruptType() {
+        return InterruptType.MISS_TLB;
+    }
+}
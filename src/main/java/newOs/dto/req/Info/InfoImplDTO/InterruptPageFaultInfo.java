@@ -0,0 +1,29 @@
+package newOs.dto.req.Info.InfoImplDTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+import newOs.common.InterruptConstant.InterruptType;
+import newOs.component.memory.protected1.PCB;
+import newOs.dto.req.Info.InterruptInfo;
+
+/**
+ * 缺页：发生缺页的进程和页表项位置
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class InterruptPageFaultInfo implements InterruptInfo {
+
+    private PCB pcb;
+    // 页表号和页号，确定缺页的页表项
+    private int pageTableId;
+    private int page;
+    // 虚页号
+    private int vpn;
+
+    @Override
+    public InterruptType getInterruptType() {
+        return InterruptType.PAGE_FAULT;
+    }
+}
@@ -1,7 +1,26 @@
 package newOs.dto.req.Info.InfoImplDTO;
 
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+import newOs.common.InterruptConstant.InterruptType;
 import newOs.dto.req.Info.InterruptInfo;
 
+/**
+ * 缺页处理结果
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
 public class InterruptPageFaultReturnInfo implements InterruptInfo{
 
+    // 页面调入的帧
+    private int frame;
+    // 是否从交换区读入（否则是清零的新页）
+    private boolean swappedIn;
+
+    @Override
+    public InterruptType getInterruptType() {
+        return InterruptType.PAGE_FAULT;
+    }
 }
@@ -0,0 +1,26 @@
+package newOs.dto.resp.MemoryManage;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * 物理帧分配器（伙伴系统 + slab 缓存）的碎片情况
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class FrameAllocatorStatRespDTO {
+    private int frames;
+    private int freeFrames;
+    private int stripes;
+    // 各阶的空闲块数，下标为阶（块大小为 2^阶 帧）
+    private int[] freeBlocks;
+    // 最大空闲连续块的帧数
+    private int largestFreeBlock;
+    // 外部碎片率：1 - 最大空闲块 / 空闲帧总数，没有空闲帧时为 0
+    private double fragmentation;
+    private List<SlabCacheStatRespDTO> slabCaches;
+}
@@ -0,0 +1,25 @@
+package newOs.dto.resp.MemoryManage;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * 分页和页面置换的统计，用于在同一负载下比较置换策略
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class PagingStatRespDTO {
+    private String replacementPolicy;
+    private int frames;
+    private int freeFrames;
+    private int pageTables;
+    private long pageFaults;
+    // 被换出的页数，其中写入交换区的次数为 swapOuts（未修改的页面不写）
+    private long evictions;
+    private long swapIns;
+    private long swapOuts;
+    private int swapSlots;
+    private int swapSlotsUsed;
+}
@@ -0,0 +1,18 @@
+package newOs.dto.resp.MemoryManage;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * 一个内核对象 slab 缓存的占用情况
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class SlabCacheStatRespDTO {
+    private int objectSize;
+    private int objectsPerSlab;
+    private int slabs;
+    private int objectsInUse;
+}
@@ -0,0 +1,23 @@
+package newOs.dto.resp.MemoryManage;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * 一个核心的 TLB 配置和命中情况
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class TLBStatRespDTO {
+    private int coreId;
+    private int sets;
+    private int ways;
+    private int validEntries;
+    private long hits;
+    private long misses;
+    // 命中率，尚无访问时为 0
+    private double hitRate;
+    private long invalidations;
+}
@@ -0,0 +1,20 @@
+package newOs.dto.resp.SysCallManage;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * 一种系统调用的调用次数和耗时（纳秒，从进入系统调用表到处理函数返回）
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class SyscallStatRespDTO {
+    private String systemCallType;
+    private int syscallNumber;
+    private long count;
+    private long totalNanos;
+    private long averageNanos;
+    private long maxNanos;
+}
@@ -1,6 +1,7 @@
 package newOs.kernel.device;
 
 
+import com.alibaba.fastjson.JSONObject;
 import newOs.component.memory.protected1.PCB;
 import newOs.dto.req.Info.InfoImplDTO.DeviceInfoReturnImplDTO;
 import newOs.dto.resp.DeviceManage.DevicePCBQueryAllRespDTO;
@@ -14,6 +15,10 @@ public interface DeviceDriver {
     DeviceInfoReturnImplDTO add(PCB pcb);
     DevicePCBQueryAllRespDTO queryAllDeviceInfo();
     DeviceInfoReturnImplDTO releaseDevice();
+    // 读设备：设备空闲则执行读操作并返回 FREE，设备忙则进程进入等待队列并返回 BUSY
+    DeviceInfoReturnImplDTO read(PCB pcb);
+    // 写设备：args 中的 content 为写入内容，返回值同 read
+    DeviceInfoReturnImplDTO write(PCB pcb, JSONObject args);
     boolean isBusy();
     ConcurrentLinkedQueue<PCB> getDeviceWaitingQueue();
 }
\ No newline at end of file
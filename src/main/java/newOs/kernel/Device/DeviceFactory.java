@@ -19,8 +19,8 @@ public class DeviceFactory {
     public DeviceDriverImpl createDevice(DeviceInfoImplDTO deviceInfoImplDTO){
         DeviceDriverImpl deviceDriver = new DeviceDriverImpl(deviceInfoImplDTO.getDeviceName(), deviceInfoImplDTO.getDeviceInfo());
 
-        //自动加入队列
-        protectedMemory.getDeviceQueue().add(deviceDriver);
+        //自动登记到设备表
+        protectedMemory.getDeviceTable().register(deviceDriver);
 
         return deviceDriver;
     }
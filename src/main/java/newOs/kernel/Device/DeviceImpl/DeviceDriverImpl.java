@@ -58,6 +58,30 @@ public class DeviceDriverImpl implements DeviceDriver, Runnable {
         return deviceInfoReturnImplDTO;
     }
 
+    // 通用设备没有实际的数据传输，空闲时读写立即完成，忙时进程进入等待队列
+    @Override
+    public DeviceInfoReturnImplDTO read(PCB pcb) {
+        return access(pcb);
+    }
+
+    @Override
+    public DeviceInfoReturnImplDTO write(PCB pcb, JSONObject args) {
+        return access(pcb);
+    }
+
+    private DeviceInfoReturnImplDTO access(PCB pcb) {
+        DeviceInfoReturnImplDTO deviceInfoReturnImplDTO = new DeviceInfoReturnImplDTO();
+        deviceInfoReturnImplDTO.setDeviceName(deviceName).setPcb(pcb);
+        if (!isBusy) {
+            deviceInfoReturnImplDTO.setDeviceStatusType(DeviceStatusType.FREE);
+        } else {
+            deviceWaitingQueue.offer(pcb);
+            System.out.println("进程 " + pcb.getPid() + " 等待设备 " + deviceName + " 可用");
+            deviceInfoReturnImplDTO.setDeviceStatusType(DeviceStatusType.BUSY);
+        }
+        return deviceInfoReturnImplDTO;
+    }
+
     @Override
     public DevicePCBQueryAllRespDTO queryAllDeviceInfo() {
         // 这里可以返回当前设备状态
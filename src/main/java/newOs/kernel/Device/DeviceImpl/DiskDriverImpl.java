@@ -5,6 +5,7 @@ import lombok.Data;
 import newOs.common.fileSystemConstant.DeviceStatusType;
 import newOs.component.device.Disk;
 import newOs.component.memory.protected1.PCB;
+import newOs.component.timer.SimulationClock;
 import newOs.dto.req.Info.InfoImplDTO.DeviceInfoImplDTO;
 import newOs.dto.req.Info.InfoImplDTO.DeviceInfoReturnImplDTO;
 import newOs.dto.req.Info.InterruptInfo;
@@ -33,13 +34,16 @@ public class DiskDriverImpl implements DeviceDriver, Runnable {
     private final InterruptController interruptController;
     private PCB nowPcb;
     private final Disk disk;
+    // 设备访问耗时由模拟时钟计时
+    private final SimulationClock clock;
 
-    public DiskDriverImpl(String deviceName, JSONObject deviceInfo, InterruptController interruptController, Disk disk) {
+    public DiskDriverImpl(String deviceName, JSONObject deviceInfo, InterruptController interruptController, Disk disk, SimulationClock clock) {
         this.deviceName = deviceName;
         this.deviceInfo = deviceInfo;
         this.deviceWaitingQueue = new ConcurrentLinkedQueue<>();
         this.interruptController = interruptController;
         this.disk = disk;
+        this.clock = clock;
     }
 
     @Override
@@ -102,7 +106,7 @@ public class DiskDriverImpl implements DeviceDriver, Runnable {
             if (isWrite == 0) {
                 System.out.println("设备 " + deviceName + " 读取中...");
                 try {
-                    Thread.sleep(2000); // 模拟设备访问时间（阻塞）
+                    clock.sleep(2000); // 模拟设备访问时间（阻塞）
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
@@ -112,7 +116,7 @@ public class DiskDriverImpl implements DeviceDriver, Runnable {
             } else {
                 System.out.println("设备 " + deviceName + " 写入中...");
                 try {
-                    Thread.sleep(2000); // 模拟设备访问时间（阻塞）
+                    clock.sleep(2000); // 模拟设备访问时间（阻塞）
                     //
 
                 } catch (InterruptedException e) {
@@ -125,7 +129,8 @@ public class DiskDriverImpl implements DeviceDriver, Runnable {
     }
 
     // **直接执行 run()，阻塞进程**
-    public DeviceInfoReturnImplDTO executeDeviceReadOperation(PCB pcb){
+    @Override
+    public DeviceInfoReturnImplDTO read(PCB pcb){
         //不会执行run，而是提交到线程池中
         DeviceInfoReturnImplDTO deviceInfoReturnImplDTO = new DeviceInfoReturnImplDTO();
         boolean shouldExecute = false;
@@ -160,7 +165,8 @@ public class DiskDriverImpl implements DeviceDriver, Runnable {
         }
         return deviceInfoReturnImplDTO;
     }
-    public DeviceInfoReturnImplDTO executeDeviceWriteOperation(JSONObject args,PCB pcb) {
+    @Override
+    public DeviceInfoReturnImplDTO write(PCB pcb, JSONObject args) {
         // **写入操作**
         DeviceInfoReturnImplDTO deviceInfoReturnImplDTO = new DeviceInfoReturnImplDTO();
         boolean shouldExecute = false;
@@ -9,14 +9,11 @@ import newOs.component.memory.protected1.PCB;
 import newOs.component.memory.protected1.ProtectedMemory;
 import newOs.dto.req.Info.InfoImplDTO.DeviceInfoImplDTO;
 import newOs.dto.req.Info.InfoImplDTO.DeviceInfoReturnImplDTO;
-import newOs.kernel.device.DeviceImpl.DiskDriverImpl;
 import newOs.kernel.interrupt.InterruptController;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.Iterator;
-import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 @Component
@@ -26,6 +23,10 @@ public class DeviceManager {
     private final ProtectedMemory protectedMemory;
     private final X86CPUSimulator x86CPUSimulator;
     private final InterruptController interruptController;
+    // 设备表，按设备名、设备号 O(1) 查找
+    private final DeviceRegistry deviceTable;
+    // 已移除的设备，下一次检测时再唤醒一次在其上等待的进程，防止移除时恰好入队的进程一直等待
+    private final ConcurrentLinkedQueue<DeviceDriver> removedDevices = new ConcurrentLinkedQueue<>();
 
 
 
@@ -36,22 +37,52 @@ public class DeviceManager {
         this.protectedMemory = protectedMemory;
         this.x86CPUSimulator = x86CPUSimulator;
         this.interruptController = interruptController;
+        this.deviceTable = protectedMemory.getDeviceTable();
     }
 
 
+    /**
+     * 运行中登记设备
+     * @return 分配的设备号
+     */
+    public int registerDevice(DeviceDriver device) {
+        int deviceId = deviceTable.register(device);
+        log.info("设备 " + device.getDeviceName() + " 已登记，设备号 " + deviceId);
+        return deviceId;
+    }
+
+    /**
+     * 运行中移除设备，在该设备上等待的进程通过IO中断回到就绪队列（重新执行时会发现设备不存在）
+     * @return 是否移除了设备
+     */
+    public boolean removeDevice(String deviceName) {
+        DeviceDriver device = deviceTable.remove(deviceName);
+        if (device == null) {
+            System.out.println("未找到该设备");
+            return false;
+        }
+        releaseWaitingProcesses(device);
+        removedDevices.offer(device);
+        log.info("设备 " + deviceName + " 已移除");
+        return true;
+    }
+
+    public DeviceDriver getDevice(String deviceName) {
+        return deviceTable.get(deviceName);
+    }
+
+    public DeviceDriver getDevice(int deviceId) {
+        return deviceTable.get(deviceId);
+    }
+
     public DeviceInfoReturnImplDTO openDevice(String deviceName,PCB pcb){
         // 打开设备
-        DeviceInfoReturnImplDTO deviceReturnInfo = new DeviceInfoReturnImplDTO();
-        Optional<DeviceDriver> foundDevice = protectedMemory.getDeviceQueue().stream()
-                .filter(device -> device.getDeviceName().equals(deviceName))
-                .findFirst(); // 找到第一个匹配的对象
-        if (foundDevice.isPresent()) {
-            System.out.println("找到设备：" + foundDevice.get());
-            deviceReturnInfo = foundDevice.get().add(pcb);
-        } else {
+        DeviceDriver device = deviceTable.get(deviceName);
+        if (device == null) {
             System.out.println("未找到该设备");
+            return new DeviceInfoReturnImplDTO();
         }
-        return  deviceReturnInfo;
+        return device.add(pcb);
     }
 
     public DeviceInfoReturnImplDTO closeDevice(String deviceName,PCB pcb){
@@ -59,73 +90,59 @@ public class DeviceManager {
         // 1. 从PCB中获取进程的设备请求队列
         // 2. 将设备请求加入设备请求队列
         // 3. 将进程状态设置为等待
-        DeviceInfoReturnImplDTO deviceReturnInfo = new DeviceInfoReturnImplDTO();
-        Optional<DeviceDriver> foundDevice = protectedMemory.getDeviceQueue().stream()
-                .filter(device -> device.getDeviceName().equals(deviceName))
-                .findFirst(); // 找到第一个匹配的对象
-        if (foundDevice.isPresent()) {
-            System.out.println("找到设备：" + foundDevice.get());
-            deviceReturnInfo = foundDevice.get().releaseDevice();
-        } else {
+        DeviceDriver device = deviceTable.get(deviceName);
+        if (device == null) {
             System.out.println("未找到该设备");
+            return new DeviceInfoReturnImplDTO();
         }
-
-        return deviceReturnInfo;
+        return device.releaseDevice();
     }
     public DeviceInfoReturnImplDTO readDevice(String deviceName, PCB pcb) {
-        Optional<DeviceDriver> foundDevice = protectedMemory.getDeviceQueue().stream()
-                .filter(device -> device.getDeviceName().equals(deviceName))
-                .findFirst(); // 找到第一个匹配的设备
-
-        if (foundDevice.isPresent()) {
-            log.info("找到设备：" + foundDevice.get().getDeviceName());
-            DiskDriverImpl diskDriver = (DiskDriverImpl) foundDevice.get();
-            DeviceInfoReturnImplDTO deviceInfoReturnImplDTO =  diskDriver.executeDeviceReadOperation(pcb);
-            return deviceInfoReturnImplDTO;
-        } else {
+        DeviceDriver device = deviceTable.get(deviceName);
+        if (device == null) {
             System.out.println("未找到该设备");
             return null;
         }
+        return device.read(pcb);
     }
 
     public DeviceInfoReturnImplDTO writeDevice(String deviceName, PCB pcb, JSONObject args){
         // 写设备
         //args中的contents:对应写内容
-        Optional<DeviceDriver> foundDevice = protectedMemory.getDeviceQueue().stream()
-                .filter(device -> device.getDeviceName().equals(deviceName))
-                .findFirst(); // 找到第一个匹配的设备
-
-        if (foundDevice.isPresent()) {
-            log.info("找到设备：" + foundDevice.get().getDeviceName());
-            DiskDriverImpl diskDriver = (DiskDriverImpl) foundDevice.get();
-            DeviceInfoReturnImplDTO deviceInfoReturnImplDTO = diskDriver.executeDeviceWriteOperation(args,pcb);
-
-            return deviceInfoReturnImplDTO;
-        } else {
+        DeviceDriver device = deviceTable.get(deviceName);
+        if (device == null) {
             System.out.println("未找到该设备");
             return null;
         }
-
+        return device.write(pcb, args);
     }
 
     // 检测所有的设备队列
     @Scheduled(fixedRate = 1000)
     public void checkAllDeviceQueue() {
             //定时检测所有设备的状态,如果设备准备好，则调度队列中的执行
-            protectedMemory.getDeviceQueue().forEach(device -> {
+            deviceTable.getAll().forEach(device -> {
                 if(!device.isBusy()){
                     //设备空闲，调度队列中的进程,触发irlIO,全部释放
-                    ConcurrentLinkedQueue<PCB> waitQueue = device.getDeviceWaitingQueue();
-                    while(!waitQueue.isEmpty()){
-                        PCB pcb = waitQueue.poll();
-                        log.info("设备 " + device.getDeviceName() + " 现在空闲，进程 " + pcb.getPid() + " 开始使用");
-                        DeviceInfoReturnImplDTO deviceInfoReturnImplDTO = new DeviceInfoReturnImplDTO();
-                        deviceInfoReturnImplDTO.setPcb(pcb).setDeviceName(device.getDeviceName());
-                        interruptController.trigger(deviceInfoReturnImplDTO);
-                    }
+                    releaseWaitingProcesses(device);
                 }
             });
+            DeviceDriver removed;
+            while ((removed = removedDevices.poll()) != null) {
+                releaseWaitingProcesses(removed);
+            }
+    }
 
+    // 把在设备上等待的进程全部通过IO中断唤醒
+    private void releaseWaitingProcesses(DeviceDriver device) {
+        ConcurrentLinkedQueue<PCB> waitQueue = device.getDeviceWaitingQueue();
+        PCB pcb;
+        while((pcb = waitQueue.poll()) != null){
+            log.info("设备 " + device.getDeviceName() + " 现在空闲，进程 " + pcb.getPid() + " 开始使用");
+            DeviceInfoReturnImplDTO deviceInfoReturnImplDTO = new DeviceInfoReturnImplDTO();
+            deviceInfoReturnImplDTO.setPcb(pcb).setDeviceName(device.getDeviceName());
+            interruptController.trigger(deviceInfoReturnImplDTO);
+        }
     }
 
 }
@@ -0,0 +1,130 @@
+package newOs.kernel.device;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 设备表，按设备名和设备号建立索引，查找为 O(1)，与设备数量无关。
+ * 设备号在登记时按顺序分配，从 1 开始，设备移除后不再复用。
+ * 支持运行中登记和移除设备，所有操作线程安全。
+ */
+public class DeviceRegistry {
+
+    private final ConcurrentHashMap<String, Entry> byName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Entry> byId = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    /**
+     * 登记设备
+     * @return 分配的设备号
+     * @throws IllegalArgumentException 已有同名设备
+     */
+    public int register(DeviceDriver driver) {
+        String name = driver.getDeviceName();
+        Entry entry = new Entry(nextId.getAndIncrement(), driver);
+        if (byName.putIfAbsent(name, entry) != null) {
+            throw new IllegalArgumentException("设备已存在: " + name);
+        }
+        byId.put(entry.id, entry);
+        return entry.id;
+    }
+
+    /**
+     * 按设备名查找，不存在时返回 null
+     */
+    public DeviceDriver get(String deviceName) {
+        Entry entry = deviceName == null ? null : byName.get(deviceName);
+        return entry == null ? null : entry.driver;
+    }
+
+    /**
+     * 按设备号查找，不存在时返回 null
+     */
+    public DeviceDriver get(int deviceId) {
+        Entry entry = byId.get(deviceId);
+        return entry == null ? null : entry.driver;
+    }
+
+    /**
+     * 设备号，设备不存在时返回 -1
+     */
+    public int getId(String deviceName) {
+        Entry entry = deviceName == null ? null : byName.get(deviceName);
+        return entry == null ? -1 : entry.id;
+    }
+
+    /**
+     * 按设备名移除
+     * @return 被移除的设备，不存在时返回 null
+     */
+    public DeviceDriver remove(String deviceName) {
+        Entry entry = deviceName == null ? null : byName.remove(deviceName);
+        if (entry == null) {
+            return null;
+        }
+        byId.remove(entry.id);
+        return entry.driver;
+    }
+
+    /**
+     * 按设备号移除
+     * @return 被移除的设备，不存在时返回 null
+     */
+    public DeviceDriver remove(int deviceId) {
+        Entry entry = byId.get(deviceId);
+        if (entry == null || !byName.remove(entry.driver.getDeviceName(), entry)) {
+            return null;
+        }
+        byId.remove(deviceId);
+        return entry.driver;
+    }
+
+    /**
+     * 所有设备（弱一致的只读视图，遍历期间登记或移除的设备可能看不到）
+     */
+    public Collection<DeviceDriver> getAll() {
+        return Collections.unmodifiableCollection(new DriverView());
+    }
+
+    public int size() {
+        return byName.size();
+    }
+
+    private static final class Entry {
+        private final int id;
+        private final DeviceDriver driver;
+
+        private Entry(int id, DeviceDriver driver) {
+            this.id = id;
+            this.driver = driver;
+        }
+    }
+
+    // 把按名索引的值映射为设备驱动，不复制
+    private final class DriverView extends AbstractCollection<DeviceDriver> {
+        @Override
+        public Iterator<DeviceDriver> iterator() {
+            Iterator<Entry> it = byName.values().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public DeviceDriver next() {
+                    return it.next().driver;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return byName.size();
+        }
+    }
+}
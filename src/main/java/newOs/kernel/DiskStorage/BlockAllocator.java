@@ -0,0 +1,300 @@
+package newOs.kernel.DiskStorage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 空闲块分配器。
+ * 启动后第一次使用时把 blocks 表的 is_used 列载入内存位图，之后的分配和释放只改位图，
+ * 变更先记在待写回表中，由定时任务（或积累到一定数量时）批量写回 blocks 表。
+ * 所有位图操作在同一把锁内完成，4 个核心并发分配时不会拿到同一个块。
+ */
+@Slf4j
+@Component
+public class BlockAllocator {
+
+    // 待写回的变更达到该数量时立即写回
+    private static final int FLUSH_THRESHOLD = 64;
+
+    private final BlockDevice blockManager;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 保证写回按顺序进行
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // 位为 1 表示已使用（或该块号在表中不存在），0 表示空闲
+    private long[] usedBitmap;
+    // 块号上界（不含）
+    private int blockCount;
+    private int freeCount;
+    // 下一次查找空闲块的起始字下标
+    private int searchHint;
+
+    // 尚未写回数据库的使用状态变更：块号 -> is_used
+    private final Map<Integer, Boolean> pendingUsage = new LinkedHashMap<>();
+
+    @Autowired
+    public BlockAllocator(BlockDevice blockManager) {
+        this.blockManager = blockManager;
+    }
+
+    /**
+     * 分配一个空闲块
+     * @return 块号，无空闲块时返回 -1
+     */
+    public int allocate() throws SQLException {
+        return allocateContiguous(1);
+    }
+
+    /**
+     * 分配连续的若干个空闲块
+     * @param count 块数（需>0）
+     * @return 起始块号，找不到足够长的连续空闲区时返回 -1
+     */
+    public int allocateContiguous(int count) throws SQLException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("分配块数必须大于0");
+        }
+        int start;
+        int pending;
+        lock.lock();
+        try {
+            ensureLoaded();
+            if (freeCount < count) {
+                return -1;
+            }
+            start = count == 1 ? findFree() : findRun(count);
+            if (start < 0) {
+                return -1;
+            }
+            for (int n = start; n < start + count; n++) {
+                markUsed(n, true);
+            }
+            pending = pendingUsage.size();
+        } finally {
+            lock.unlock();
+        }
+        if (pending >= FLUSH_THRESHOLD) {
+            flush();
+        }
+        return start;
+    }
+
+    /**
+     * 释放块（只修改位图，稍后批量写回）
+     */
+    public void free(int blockNumber) throws SQLException {
+        free(List.of(blockNumber));
+    }
+
+    /**
+     * 释放一组块（只修改位图，稍后批量写回）
+     */
+    public void free(List<Integer> blockNumbers) throws SQLException {
+        if (blockNumbers == null || blockNumbers.isEmpty()) return;
+        int pending;
+        lock.lock();
+        try {
+            ensureLoaded();
+            for (int blockNumber : blockNumbers) {
+                if (blockNumber >= 0 && blockNumber < blockCount && isUsed(blockNumber)) {
+                    markUsed(blockNumber, false);
+                }
+            }
+            pending = pendingUsage.size();
+        } finally {
+            lock.unlock();
+        }
+        if (pending >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    /**
+     * 查询块是否已分配（以内存位图为准，可能比数据库更新）
+     */
+    public boolean isAllocated(int blockNumber) throws SQLException {
+        lock.lock();
+        try {
+            ensureLoaded();
+            return blockNumber >= 0 && blockNumber < blockCount && isUsed(blockNumber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getFreeCount() throws SQLException {
+        lock.lock();
+        try {
+            ensureLoaded();
+            return freeCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取走指定块尚未写回的使用状态变更，由调用方在自己的事务中写回
+     * @return 块号 -> is_used，只包含有待写回变更的块
+     */
+    public Map<Integer, Boolean> takePendingUsage(List<Integer> blockNumbers) {
+        Map<Integer, Boolean> taken = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (int blockNumber : blockNumbers) {
+                Boolean used = pendingUsage.remove(blockNumber);
+                if (used != null) {
+                    taken.put(blockNumber, used);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return taken;
+    }
+
+    /**
+     * 调用方的事务失败时，把取走的变更放回待写回表（期间又被修改过的块以新值为准）
+     */
+    public void restorePendingUsage(Map<Integer, Boolean> usage) {
+        lock.lock();
+        try {
+            usage.forEach(pendingUsage::putIfAbsent);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 把积累的使用状态变更批量写回 blocks 表
+     */
+    @Scheduled(fixedRate = 500)
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Integer, Boolean> batch;
+            lock.lock();
+            try {
+                if (pendingUsage.isEmpty()) {
+                    return;
+                }
+                batch = new LinkedHashMap<>(pendingUsage);
+                pendingUsage.clear();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                blockManager.updateBlockUsageBatch(batch);
+            } catch (SQLException e) {
+                // 写回失败，放回待写回表（期间又被修改过的块以新值为准）
+                lock.lock();
+                try {
+                    batch.forEach(pendingUsage::putIfAbsent);
+                } finally {
+                    lock.unlock();
+                }
+                log.error("块使用状态写回失败: " + e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // 首次使用时从 blocks 表载入位图，调用方需持有锁
+    private void ensureLoaded() throws SQLException {
+        if (usedBitmap != null) {
+            return;
+        }
+        Map<Integer, Boolean> usage = blockManager.getAllBlockUsage();
+        int max = -1;
+        for (int blockNumber : usage.keySet()) {
+            max = Math.max(max, blockNumber);
+        }
+        blockCount = max + 1;
+        long[] bitmap = new long[Math.max(1, (blockCount + 63) >>> 6)];
+        Arrays.fill(bitmap, -1L);
+        int free = 0;
+        for (Map.Entry<Integer, Boolean> entry : usage.entrySet()) {
+            int blockNumber = entry.getKey();
+            if (blockNumber >= 0 && !entry.getValue()) {
+                bitmap[blockNumber >>> 6] &= ~(1L << blockNumber);
+                free++;
+            }
+        }
+        usedBitmap = bitmap;
+        freeCount = free;
+        searchHint = 0;
+        log.info("块位图载入完成: 共 " + blockCount + " 块，空闲 " + freeCount + " 块");
+    }
+
+    private boolean isUsed(int blockNumber) {
+        return (usedBitmap[blockNumber >>> 6] & (1L << blockNumber)) != 0;
+    }
+
+    private void markUsed(int blockNumber, boolean used) {
+        int word = blockNumber >>> 6;
+        if (used) {
+            usedBitmap[word] |= 1L << blockNumber;
+            freeCount--;
+        } else {
+            usedBitmap[word] &= ~(1L << blockNumber);
+            freeCount++;
+            if (word < searchHint) {
+                searchHint = word;
+            }
+        }
+        pendingUsage.put(blockNumber, used);
+    }
+
+    // 从 searchHint 开始找第一个含空闲位的字，整字跳过已满的部分
+    private int findFree() {
+        int words = usedBitmap.length;
+        for (int i = 0; i < words; i++) {
+            int word = (searchHint + i) % words;
+            long bits = usedBitmap[word];
+            if (bits != -1L) {
+                searchHint = word;
+                return (word << 6) + Long.numberOfTrailingZeros(~bits);
+            }
+        }
+        return -1;
+    }
+
+    // 首次适应查找连续空闲区
+    private int findRun(int count) {
+        int runStart = -1;
+        int runLength = 0;
+        for (int n = 0; n < blockCount; n++) {
+            if ((n & 63) == 0 && runLength == 0 && usedBitmap[n >>> 6] == -1L) {
+                n += 63;
+                continue;
+            }
+            if (isUsed(n)) {
+                runLength = 0;
+            } else {
+                if (runLength++ == 0) {
+                    runStart = n;
+                }
+                if (runLength == count) {
+                    return runStart;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,453 @@
+package newOs.kernel.DiskStorage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 块缓冲区缓存，位于文件系统和块设备之间。
+ * 按块号缓存块数据，容量固定，LRU 淘汰；写操作只修改缓存并标记为脏，
+ * 脏块在被淘汰时或由后台定时任务批量写回块设备。
+ * 锁只保护缓存表本身，块设备 I/O 都在释放锁之后进行：正在调入或写回的块登记在
+ * inFlight 中，同一块同一时间只有一个 I/O，其他线程读到写回中的块时直接使用待写数据，
+ * 遇到调入中的块则等待其完成，不会重复调入或读到旧数据。
+ * 绕过缓存直接写块设备的调用方（如一次提交整个块链的事务）用 beginDirectWrite / endDirectWrite
+ * 把这些块登记为写入中，期间不会有旧数据的写回落在直接写之后。
+ */
+@Slf4j
+@Component
+public class BlockBufferCache {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final BlockDevice blockDevice;
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 访问顺序的 LinkedHashMap，表头即最久未使用的块
+    private final LinkedHashMap<Integer, CachedBlock> buffers;
+    // 正在进行设备 I/O 的块：块号 -> 调入标记或待写回的数据
+    private final Map<Integer, InFlight> inFlight = new HashMap<>();
+    // 任一块的 I/O 结束时唤醒等待者
+    private final Condition ioDone = lock.newCondition();
+
+    // 统计信息
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong writeBacks = new AtomicLong();
+
+    @Autowired
+    public BlockBufferCache(BlockDevice blockDevice,
+                            @Value("${disk.block.cache-capacity:256}") int capacity) {
+        this.blockDevice = blockDevice;
+        this.capacity = Math.max(1, capacity);
+        this.buffers = new LinkedHashMap<>(this.capacity * 4 / 3 + 1, 0.75f, true);
+    }
+
+    /**
+     * 读取块数据
+     * @param blockNumber 块号
+     * @return 块数据（无数据时为空数组），块不存在返回 null；调用方不要修改返回的数组
+     */
+    public byte[] read(int blockNumber) throws SQLException {
+        List<Victim> victims;
+        byte[] data;
+        lock.lock();
+        try {
+            while (true) {
+                CachedBlock cached = buffers.get(blockNumber);
+                if (cached != null) {
+                    hits.incrementAndGet();
+                    return cached.data;
+                }
+                InFlight io = inFlight.get(blockNumber);
+                if (io == null) {
+                    break;
+                }
+                if (io.data != null) {
+                    // 块已被淘汰、正在写回，待写数据就是最新内容
+                    hits.incrementAndGet();
+                    return io.data;
+                }
+                // 其他线程正在调入该块，等它完成后重新查找
+                ioDone.awaitUninterruptibly();
+            }
+            misses.incrementAndGet();
+            inFlight.put(blockNumber, InFlight.LOADING);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            data = blockDevice.readBlock(blockNumber);
+        } catch (SQLException | RuntimeException e) {
+            finishIo(blockNumber);
+            throw e;
+        }
+        if (data != null && data.length == 0) {
+            data = EMPTY;
+        }
+
+        lock.lock();
+        try {
+            inFlight.remove(blockNumber);
+            ioDone.signalAll();
+            CachedBlock cached = buffers.get(blockNumber);
+            if (cached != null) {
+                // 调入期间块已被写入，以缓存中的新数据为准
+                return cached.data;
+            }
+            if (data == null) {
+                return null;
+            }
+            victims = insert(blockNumber, new CachedBlock(data, false));
+        } finally {
+            lock.unlock();
+        }
+        writeBack(victims);
+        return data;
+    }
+
+    /**
+     * 写入块数据（写回式，只标记为脏）
+     * @param blockNumber 块号
+     * @param data 新的块数据，写入后由缓存持有，调用方不要再修改
+     */
+    public void write(int blockNumber, byte[] data) throws SQLException {
+        List<Victim> victims;
+        lock.lock();
+        try {
+            CachedBlock cached = buffers.get(blockNumber);
+            if (cached != null) {
+                cached.data = data;
+                cached.dirty = true;
+                return;
+            }
+            // 淘汰出的脏块在释放锁后写回
+            victims = insert(blockNumber, new CachedBlock(data, true));
+        } finally {
+            lock.unlock();
+        }
+        writeBack(victims);
+    }
+
+    /**
+     * 丢弃块的缓存内容（不写回），用于块被释放时。
+     * 先等这些块上进行中的 I/O 结束，避免迟到的写回覆盖释放后的块
+     */
+    public void invalidate(List<Integer> blockNumbers) {
+        if (blockNumbers == null || blockNumbers.isEmpty()) return;
+        lock.lock();
+        try {
+            for (int blockNumber : blockNumbers) {
+                while (inFlight.containsKey(blockNumber)) {
+                    ioDone.awaitUninterruptibly();
+                }
+                buffers.remove(blockNumber);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 绕过缓存直接写块设备之前调用：等这些块上进行中的 I/O 全部结束后，一次性把它们登记为写入中。
+     * 登记期间定时写回和淘汰都不会处理这些块，未缓存的块的读者等待写入结束；
+     * 必须与 endDirectWrite 成对调用
+     * @param blockNumbers 将要直接写入的块号
+     */
+    public void beginDirectWrite(Collection<Integer> blockNumbers) {
+        lock.lock();
+        try {
+            // 一次性登记全部块，不会持有一部分再等另一部分，多个直接写之间不会死锁
+            while (anyInFlight(blockNumbers)) {
+                ioDone.awaitUninterruptibly();
+            }
+            for (int blockNumber : blockNumbers) {
+                CachedBlock cached = buffers.get(blockNumber);
+                inFlight.put(blockNumber, new DirectWrite(cached == null ? null : cached.data));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 结束 beginDirectWrite 登记的直接写入。
+     * 写入成功时把已落盘的数据作为干净块放入缓存；写入期间又被修改过的块以新数据为准，保持为脏
+     * @param data 块号 -> 直接写入的数据，写入后由缓存持有，调用方不要再修改
+     * @param written 设备写入是否成功，失败时只解除登记
+     */
+    public void endDirectWrite(Map<Integer, byte[]> data, boolean written) throws SQLException {
+        List<Victim> victims = null;
+        lock.lock();
+        try {
+            for (Map.Entry<Integer, byte[]> entry : data.entrySet()) {
+                int blockNumber = entry.getKey();
+                InFlight io = inFlight.remove(blockNumber);
+                if (!written || !(io instanceof DirectWrite)) {
+                    continue;
+                }
+                CachedBlock cached = buffers.get(blockNumber);
+                if (cached == null) {
+                    List<Victim> evicted = insert(blockNumber, new CachedBlock(entry.getValue(), false));
+                    if (evicted != null) {
+                        if (victims == null) {
+                            victims = new ArrayList<>();
+                        }
+                        victims.addAll(evicted);
+                    }
+                } else if (cached.data == ((DirectWrite) io).before) {
+                    cached.data = entry.getValue();
+                    cached.dirty = false;
+                }
+            }
+            ioDone.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        writeBack(victims);
+    }
+
+    /**
+     * 把所有脏块批量写回块设备。
+     * 在锁内取下脏块的快照，写回在锁外进行；写回期间被再次修改的块保持为脏，
+     * 正在进行其他 I/O 的块留到下一次写回
+     */
+    @Scheduled(fixedRateString = "${disk.block.cache-flush-ms:1000}")
+    public void flush() {
+        Map<Integer, byte[]> dirty = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (Map.Entry<Integer, CachedBlock> entry : buffers.entrySet()) {
+                int blockNumber = entry.getKey();
+                if (entry.getValue().dirty && !inFlight.containsKey(blockNumber)) {
+                    dirty.put(blockNumber, entry.getValue().data);
+                    inFlight.put(blockNumber, InFlight.FLUSHING);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        boolean written = false;
+        try {
+            blockDevice.writeBlocks(dirty);
+            written = true;
+            writeBacks.addAndGet(dirty.size());
+        } catch (SQLException e) {
+            log.error("块缓存写回失败: " + e.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                for (Map.Entry<Integer, byte[]> entry : dirty.entrySet()) {
+                    inFlight.remove(entry.getKey());
+                    CachedBlock cached = buffers.get(entry.getKey());
+                    // 只有内容仍是写回时的快照才算干净
+                    if (written && cached != null && cached.data == entry.getValue()) {
+                        cached.dirty = false;
+                    }
+                }
+                ioDone.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getWriteBacks() {
+        return writeBacks.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return buffers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 命中率，尚无访问时返回 0
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    // 放入缓存，超出容量时淘汰最久未使用的块；正在写回的块不淘汰，
+    // 淘汰出的脏块登记为写回中并返回，由调用方在释放锁后调用 writeBack；调用方需持有锁
+    private List<Victim> insert(int blockNumber, CachedBlock cachedBlock) {
+        List<Victim> victims = null;
+        Iterator<Map.Entry<Integer, CachedBlock>> it = buffers.entrySet().iterator();
+        while (buffers.size() >= capacity && it.hasNext()) {
+            Map.Entry<Integer, CachedBlock> eldest = it.next();
+            int victimNumber = eldest.getKey();
+            CachedBlock victim = eldest.getValue();
+            if (inFlight.containsKey(victimNumber)) {
+                continue;
+            }
+            if (victim.dirty) {
+                inFlight.put(victimNumber, new InFlight(victim.data));
+                if (victims == null) {
+                    victims = new ArrayList<>();
+                }
+                victims.add(new Victim(victimNumber, victim.data));
+            }
+            it.remove();
+            evictions.incrementAndGet();
+        }
+        buffers.put(blockNumber, cachedBlock);
+        return victims;
+    }
+
+    // 写回被淘汰的脏块，调用方不能持有锁；写回失败的块重新放回缓存并保持为脏
+    private void writeBack(List<Victim> victims) throws SQLException {
+        if (victims == null) {
+            return;
+        }
+        SQLException failure = null;
+        for (Victim victim : victims) {
+            try {
+                blockDevice.writeBlock(victim.blockNumber, victim.data);
+                writeBacks.incrementAndGet();
+                finishIo(victim.blockNumber);
+            } catch (SQLException | RuntimeException e) {
+                lock.lock();
+                try {
+                    inFlight.remove(victim.blockNumber);
+                    // 期间被重新写入的块以新数据为准
+                    buffers.putIfAbsent(victim.blockNumber, new CachedBlock(victim.data, true));
+                    ioDone.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                }
+                if (failure == null) {
+                    failure = (SQLException) e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // 调用方需持有锁
+    private boolean anyInFlight(Collection<Integer> blockNumbers) {
+        for (int blockNumber : blockNumbers) {
+            if (inFlight.containsKey(blockNumber)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 清除块的 I/O 标记并唤醒等待者
+    private void finishIo(int blockNumber) {
+        lock.lock();
+        try {
+            inFlight.remove(blockNumber);
+            ioDone.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 缓存项
+     */
+    private static class CachedBlock {
+        private byte[] data;
+        private boolean dirty;
+
+        private CachedBlock(byte[] data, boolean dirty) {
+            this.data = data;
+            this.dirty = dirty;
+        }
+    }
+
+    /**
+     * 进行中的设备 I/O，data 为 null 表示正在调入，否则为被淘汰块待写回的数据
+     */
+    private static class InFlight {
+        private static final InFlight LOADING = new InFlight(null);
+        // 定时写回时块仍在缓存中，读者直接命中缓存，不使用这里的数据
+        private static final InFlight FLUSHING = new InFlight(null);
+
+        private final byte[] data;
+
+        private InFlight(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * 直接写入中的块，before 为登记时缓存中的数据（未缓存为 null），用于判断期间是否被再次修改
+     */
+    private static class DirectWrite extends InFlight {
+        private final byte[] before;
+
+        private DirectWrite(byte[] before) {
+            super(null);
+            this.before = before;
+        }
+    }
+
+    /**
+     * 被淘汰的脏块
+     */
+    private static class Victim {
+        private final int blockNumber;
+        private final byte[] data;
+
+        private Victim(int blockNumber, byte[] data) {
+            this.blockNumber = blockNumber;
+            this.data = data;
+        }
+    }
+}
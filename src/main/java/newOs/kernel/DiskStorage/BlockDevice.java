@@ -0,0 +1,65 @@
+package newOs.kernel.DiskStorage;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 块设备接口，文件系统通过它访问模拟磁盘上的 4KB 块。
+ * 现有实现：
+ * BlockStorageManager / DiskStorageManager  SQLite blocks 表
+ * MappedBlockDevice                         预分配的磁盘镜像文件（内存映射）
+ * 具体使用哪一个由配置项 disk.block.device 决定，见 BlockDeviceConfig
+ */
+public interface BlockDevice {
+    int BLOCK_SIZE = 4096;
+
+    /**
+     * 读取块的有效数据
+     * @return 块数据（可能小于4096字节），块不存在返回 null
+     */
+    byte[] readBlock(int blockNumber) throws SQLException;
+
+    /**
+     * 写入块数据
+     * @throws IllegalArgumentException 若数据长度超过块容量
+     */
+    void writeBlock(int blockNumber, byte[] data) throws SQLException;
+
+    /**
+     * 批量写入块数据
+     * @param blocks 块号 -> 块数据
+     */
+    void writeBlocks(Map<Integer, byte[]> blocks) throws SQLException;
+
+    /**
+     * 获取所有块的使用状态
+     * @return 块号 -> 是否已使用
+     */
+    Map<Integer, Boolean> getAllBlockUsage() throws SQLException;
+
+    /**
+     * 批量更新块使用状态
+     * @param usage 块号 -> 是否已使用
+     */
+    void updateBlockUsageBatch(Map<Integer, Boolean> usage) throws SQLException;
+
+    /**
+     * 更新下一个块指针
+     */
+    void updateNextBlock(int blockNumber, int nextBlock) throws SQLException;
+
+    /**
+     * 在一个事务中提交块链、使用状态和块数据的变更，用于一次写操作结束时统一落盘
+     * @param nextBlocks 块号 -> 下一个块号
+     * @param usage 块号 -> 是否已使用
+     * @param data 块号 -> 块数据
+     */
+    void commitBlockChain(Map<Integer, Integer> nextBlocks, Map<Integer, Boolean> usage,
+                          Map<Integer, byte[]> data) throws SQLException;
+
+    /**
+     * 释放块：清空数据、标记未使用并断开块链
+     */
+    void releaseBlock(List<Integer> blockNumbers) throws SQLException;
+}
@@ -1,39 +1,42 @@
 package newOs.kernel.DiskStorage;
 
 import lombok.Data;
+import newOs.kernel.DiskStorage.SQLiteConnectionPool.PooledConnection;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 块存储管理器，负责 blocks 表的 CRUD 操作
+ * 连接和预编译语句由 SQLiteConnectionPool 复用，不再每次操作都新建连接
  */
 @Component
-public class BlockStorageManager {
-    private static final String DB_URL = "jdbc:sqlite:src\\main\\java\\newOs\\component\\disk.db";
+public class BlockStorageManager implements BlockDevice {
+    private final SQLiteConnectionPool connectionPool;
 
-    /**
-     * 获取数据库连接
-     */
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
+    @Autowired
+    public BlockStorageManager(SQLiteConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
     /**
      * 添加块
      * @param blockNumber 块号（唯一）
-     * @param dataJson JSON格式的块数据
+     * @param data 块数据（长度不超过4096字节）
      * @param isUsed 是否已使用
      * @param nextBlock 下一个块号
      */
-    public void addBlock(int blockNumber, String dataJson, boolean isUsed, int nextBlock) throws SQLException {
+    public void addBlock(int blockNumber, byte[] data, boolean isUsed, int nextBlock) throws SQLException {
         String sql = "INSERT INTO blocks(block_number, data, is_used, next_block) VALUES(?, ?, ?, ?)";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PooledConnection conn = connectionPool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setInt(1, blockNumber);
-            pstmt.setString(2, dataJson);
+            pstmt.setBytes(2, data);
             pstmt.setBoolean(3, isUsed);
             pstmt.setInt(4, nextBlock);
             pstmt.executeUpdate();
@@ -45,36 +48,141 @@ public class BlockStorageManager {
      */
     public Block getBlockByNumber(int blockNumber) throws SQLException {
         String sql = "SELECT * FROM blocks WHERE block_number = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PooledConnection conn = connectionPool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setInt(1, blockNumber);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next() ? mapResultSetToBlock(rs) : null;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToBlock(rs) : null;
+            }
         }
     }
 
+    @Override
+    public byte[] readBlock(int blockNumber) throws SQLException {
+        String sql = "SELECT data FROM blocks WHERE block_number = ?";
+        try (PooledConnection conn = connectionPool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setInt(1, blockNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                byte[] data = rs.getBytes("data");
+                return data == null ? new byte[0] : data;
+            }
+        }
+    }
+
+    @Override
+    public void writeBlock(int blockNumber, byte[] data) throws SQLException {
+        if (data.length > BLOCK_SIZE) {
+            throw new IllegalArgumentException("数据长度超过块容量（4096字节）");
+        }
+        updateBlockData(blockNumber, data);
+    }
+
+    @Override
+    public void writeBlocks(Map<Integer, byte[]> blocks) throws SQLException {
+        updateBlockDataBatch(blocks);
+    }
+
     /**
      * 更新块数据
      * @param blockNumber 目标块号
-     * @param newDataJson 新的JSON数据
+     * @param newData 新的块数据（长度不超过4096字节）
      */
-    public void updateBlockData(int blockNumber, String newDataJson) throws SQLException {
+    public void updateBlockData(int blockNumber, byte[] newData) throws SQLException {
         String sql = "UPDATE blocks SET data = ? WHERE block_number = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, newDataJson);
+        try (PooledConnection conn = connectionPool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setBytes(1, newData);
             pstmt.setInt(2, blockNumber);
             pstmt.executeUpdate();
         }
     }
 
+    /**
+     * 在一个事务中批量更新块数据
+     * @param data 块号 -> 新的块数据
+     */
+    public void updateBlockDataBatch(Map<Integer, byte[]> data) throws SQLException {
+        if (data == null || data.isEmpty()) return;
+
+        String sql = "UPDATE blocks SET data = ? WHERE block_number = ?";
+        try (PooledConnection conn = connectionPool.borrow()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement pstmt = conn.prepare(sql);
+                for (Map.Entry<Integer, byte[]> entry : data.entrySet()) {
+                    pstmt.setBytes(1, entry.getValue());
+                    pstmt.setInt(2, entry.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public void commitBlockChain(Map<Integer, Integer> nextBlocks, Map<Integer, Boolean> usage,
+                                 Map<Integer, byte[]> data) throws SQLException {
+        if (nextBlocks.isEmpty() && usage.isEmpty() && data.isEmpty()) return;
+
+        try (PooledConnection conn = connectionPool.borrow()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                if (!nextBlocks.isEmpty()) {
+                    PreparedStatement pstmt = conn.prepare("UPDATE blocks SET next_block = ? WHERE block_number = ?");
+                    for (Map.Entry<Integer, Integer> entry : nextBlocks.entrySet()) {
+                        pstmt.setInt(1, entry.getValue());
+                        pstmt.setInt(2, entry.getKey());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                if (!usage.isEmpty()) {
+                    PreparedStatement pstmt = conn.prepare("UPDATE blocks SET is_used = ? WHERE block_number = ?");
+                    for (Map.Entry<Integer, Boolean> entry : usage.entrySet()) {
+                        pstmt.setBoolean(1, entry.getValue());
+                        pstmt.setInt(2, entry.getKey());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                if (!data.isEmpty()) {
+                    PreparedStatement pstmt = conn.prepare("UPDATE blocks SET data = ? WHERE block_number = ?");
+                    for (Map.Entry<Integer, byte[]> entry : data.entrySet()) {
+                        pstmt.setBytes(1, entry.getValue());
+                        pstmt.setInt(2, entry.getKey());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
     /**
      * 更新块使用状态
      */
     public void updateBlockUsage(int blockNumber, boolean isUsed) throws SQLException {
         String sql = "UPDATE blocks SET is_used = ? WHERE block_number = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PooledConnection conn = connectionPool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setBoolean(1, isUsed);
             pstmt.setInt(2, blockNumber);
             pstmt.executeUpdate();
@@ -84,10 +192,11 @@ public class BlockStorageManager {
     /**
      * 更新下一个块指针
      */
+    @Override
     public void updateNextBlock(int blockNumber, int newNextBlock) throws SQLException {
         String sql = "UPDATE blocks SET next_block = ? WHERE block_number = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PooledConnection conn = connectionPool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setInt(1, newNextBlock);
             pstmt.setInt(2, blockNumber);
             pstmt.executeUpdate();
@@ -99,8 +208,8 @@ public class BlockStorageManager {
      */
     public void deleteBlock(int blockNumber) throws SQLException {
         String sql = "DELETE FROM blocks WHERE block_number = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PooledConnection conn = connectionPool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setInt(1, blockNumber);
             pstmt.executeUpdate();
         }
@@ -112,9 +221,8 @@ public class BlockStorageManager {
     public List<Block> getAllBlocks() throws SQLException {
         List<Block> blocks = new ArrayList<>();
         String sql = "SELECT * FROM blocks";
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (PooledConnection conn = connectionPool.borrow();
+             ResultSet rs = conn.prepare(sql).executeQuery()) {
             while (rs.next()) {
                 blocks.add(mapResultSetToBlock(rs));
             }
@@ -122,35 +230,92 @@ public class BlockStorageManager {
         return blocks;
     }
 
+    /**
+     * 获取所有块的使用状态（只读取 block_number 和 is_used 两列）
+     * @return 块号 -> 是否已使用
+     */
+    @Override
+    public Map<Integer, Boolean> getAllBlockUsage() throws SQLException {
+        Map<Integer, Boolean> usage = new HashMap<>();
+        String sql = "SELECT block_number, is_used FROM blocks";
+        try (PooledConnection conn = connectionPool.borrow();
+             ResultSet rs = conn.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                usage.put(rs.getInt("block_number"), rs.getBoolean("is_used"));
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * 在一个事务中批量更新块使用状态
+     * @param usage 块号 -> 是否已使用
+     */
+    @Override
+    public void updateBlockUsageBatch(Map<Integer, Boolean> usage) throws SQLException {
+        if (usage == null || usage.isEmpty()) return;
+
+        String sql = "UPDATE blocks SET is_used = ? WHERE block_number = ?";
+        try (PooledConnection conn = connectionPool.borrow()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement pstmt = conn.prepare(sql);
+                for (Map.Entry<Integer, Boolean> entry : usage.entrySet()) {
+                    pstmt.setBoolean(1, entry.getValue());
+                    pstmt.setInt(2, entry.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
     /**
      * 查找第一个未被使用的块（按块号升序）
      * @return 首个未使用块，若无可用块则返回null
      */
     public Block findFirstUnusedBlock() throws SQLException {
         String sql = "SELECT * FROM blocks WHERE is_used = false ORDER BY block_number ASC LIMIT 1";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next() ? mapResultSetToBlock(rs) : null;
+        try (PooledConnection conn = connectionPool.borrow()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToBlock(rs) : null;
+            }
         }
     }
 
+    /**
+     * 释放文件占用的块：清空数据、标记未使用并断开块链，在同一事务中完成
+     * @param blockNumbers 需释放的块号列表
+     */
+    @Override
     public void releaseBlock(List<Integer> blockNumbers) throws SQLException {
         if (blockNumbers == null || blockNumbers.isEmpty()) return;
 
-        try (Connection conn = getConnection()) {
-            conn.setAutoCommit(false);
-
+        String sql = "UPDATE blocks SET data = X'', is_used = false, next_block = -1 WHERE block_number = ?";
+        try (PooledConnection conn = connectionPool.borrow()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
             try {
+                PreparedStatement pstmt = conn.prepare(sql);
                 for (int blockNumber : blockNumbers) {
-                    updateBlockData(blockNumber, "");
-                    updateBlockUsage(blockNumber, false);
-                    updateNextBlock(blockNumber, -1);
+                    pstmt.setInt(1, blockNumber);
+                    pstmt.addBatch();
                 }
-                conn.commit();
+                pstmt.executeBatch();
+                connection.commit();
             } catch (SQLException e) {
-                conn.rollback();
+                connection.rollback();
                 throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
         }
     }
@@ -161,7 +326,7 @@ public class BlockStorageManager {
     private Block mapResultSetToBlock(ResultSet rs) throws SQLException {
         return new Block(
                 rs.getInt("block_number"),
-                rs.getString("data"),
+                rs.getBytes("data"),
                 rs.getBoolean("is_used"),
                 rs.getInt("next_block")
         );
@@ -176,11 +341,11 @@ public class BlockStorageManager {
         public static final int BLOCK_SIZE = 4096;
 
         private final int blockNumber;
-        private String data;
+        private byte[] data;
         private boolean isUsed;
         private int nextBlock;
 
-        public Block(int blockNumber, String data, boolean isUsed, int nextBlock) {
+        public Block(int blockNumber, byte[] data, boolean isUsed, int nextBlock) {
             this.blockNumber = blockNumber;
             this.data = data;
             this.isUsed = isUsed;
@@ -1,11 +1,14 @@
 package newOs.kernel.DiskStorage;
 
 import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -14,25 +17,14 @@ import java.util.List;
  */
 @Component
 @Data
-public class DiskStorageManager {
-
-    //这个地方写的不行，拉到properties去配置
-    //
-    //
-    //
-    //
-    private static final String DB_URL = "jdbc:sqlite:disk.db";
-    private static final int BLOCK_SIZE = 4096; // 4KB块大小
-    //
-    //
-    //
-    //
-
-
-    //管理配置修改mapper，或者能用也行
+public class DiskStorageManager implements BlockDevice {
+
+    @Value("${disk.storage.url:jdbc:sqlite:disk.db}")
+    private String dbUrl;
+
     /** 获取数据库连接 */
     private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
+        return DriverManager.getConnection(dbUrl);
     }
 
     /**
@@ -103,6 +95,7 @@ public class DiskStorageManager {
      * @throws SQLException 若数据库错误
      * @throws IllegalArgumentException 若数据长度超过块容量
      */
+    @Override
     public void writeBlock(int blockNumber, byte[] data) throws SQLException {
         if (data.length > BLOCK_SIZE) {
             throw new IllegalArgumentException("数据长度超过块容量（4096字节）");
@@ -126,6 +119,7 @@ public class DiskStorageManager {
      * @return 块中的有效数据（实际长度），不存在返回null
      * @throws SQLException 若数据库错误
      */
+    @Override
     public byte[] readBlock(int blockNumber) throws SQLException {
         try (Connection conn = getConnection()) {
             PreparedStatement stmt = conn.prepareStatement(
@@ -138,6 +132,169 @@ public class DiskStorageManager {
             return rs.next() ? rs.getBytes("data") : null;
         }
     }
+    /**
+     * 在一个事务中批量写入块数据
+     * @param blocks 块号 -> 块数据
+     * @throws SQLException 若数据库错误
+     * @throws IllegalArgumentException 若数据长度超过块容量
+     */
+    @Override
+    public void writeBlocks(Map<Integer, byte[]> blocks) throws SQLException {
+        if (blocks.isEmpty()) return;
+        for (byte[] data : blocks.values()) {
+            if (data.length > BLOCK_SIZE) {
+                throw new IllegalArgumentException("数据长度超过块容量（4096字节）");
+            }
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE blocks SET data = ? WHERE block_number = ?"
+            );
+            for (Map.Entry<Integer, byte[]> entry : blocks.entrySet()) {
+                stmt.setBytes(1, entry.getValue());
+                stmt.setInt(2, entry.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    /**
+     * 获取所有块的使用状态
+     * @return 块号 -> 是否已使用
+     * @throws SQLException 若数据库错误
+     */
+    @Override
+    public Map<Integer, Boolean> getAllBlockUsage() throws SQLException {
+        Map<Integer, Boolean> usage = new HashMap<>();
+        try (Connection conn = getConnection()) {
+            PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT block_number, is_used FROM blocks"
+            );
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                usage.put(rs.getInt("block_number"), rs.getBoolean("is_used"));
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * 在一个事务中批量更新块使用状态
+     * @param usage 块号 -> 是否已使用
+     * @throws SQLException 若数据库错误
+     */
+    @Override
+    public void updateBlockUsageBatch(Map<Integer, Boolean> usage) throws SQLException {
+        if (usage.isEmpty()) return;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE blocks SET is_used = ? WHERE block_number = ?"
+            );
+            for (Map.Entry<Integer, Boolean> entry : usage.entrySet()) {
+                stmt.setBoolean(1, entry.getValue());
+                stmt.setInt(2, entry.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    /**
+     * 更新块链中的下一个块号
+     * @throws SQLException 若数据库错误
+     */
+    @Override
+    public void updateNextBlock(int blockNumber, int nextBlock) throws SQLException {
+        try (Connection conn = getConnection()) {
+            PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE blocks SET next_block = ? WHERE block_number = ?"
+            );
+            stmt.setInt(1, nextBlock);
+            stmt.setInt(2, blockNumber);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 在一个事务中提交块链、使用状态和块数据的变更
+     * @throws SQLException 若数据库错误，此时所有变更都不生效
+     * @throws IllegalArgumentException 若数据长度超过块容量
+     */
+    @Override
+    public void commitBlockChain(Map<Integer, Integer> nextBlocks, Map<Integer, Boolean> usage,
+                                 Map<Integer, byte[]> data) throws SQLException {
+        for (byte[] bytes : data.values()) {
+            if (bytes.length > BLOCK_SIZE) {
+                throw new IllegalArgumentException("数据长度超过块容量（4096字节）");
+            }
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                PreparedStatement nextStmt = conn.prepareStatement(
+                        "UPDATE blocks SET next_block = ? WHERE block_number = ?"
+                );
+                for (Map.Entry<Integer, Integer> entry : nextBlocks.entrySet()) {
+                    nextStmt.setInt(1, entry.getValue());
+                    nextStmt.setInt(2, entry.getKey());
+                    nextStmt.addBatch();
+                }
+                nextStmt.executeBatch();
+
+                PreparedStatement usageStmt = conn.prepareStatement(
+                        "UPDATE blocks SET is_used = ? WHERE block_number = ?"
+                );
+                for (Map.Entry<Integer, Boolean> entry : usage.entrySet()) {
+                    usageStmt.setBoolean(1, entry.getValue());
+                    usageStmt.setInt(2, entry.getKey());
+                    usageStmt.addBatch();
+                }
+                usageStmt.executeBatch();
+
+                PreparedStatement dataStmt = conn.prepareStatement(
+                        "UPDATE blocks SET data = ? WHERE block_number = ?"
+                );
+                for (Map.Entry<Integer, byte[]> entry : data.entrySet()) {
+                    dataStmt.setBytes(1, entry.getValue());
+                    dataStmt.setInt(2, entry.getKey());
+                    dataStmt.addBatch();
+                }
+                dataStmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 释放块：清空数据、标记为空闲并断开块链
+     * @param blockNumbers 需释放的块号列表
+     * @throws SQLException 若数据库错误
+     */
+    @Override
+    public void releaseBlock(List<Integer> blockNumbers) throws SQLException {
+        if (blockNumbers.isEmpty()) return;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE blocks SET data = X'', is_used = FALSE, next_block = -1 WHERE block_number = ?"
+            );
+            for (int blockNum : blockNumbers) {
+                stmt.setInt(1, blockNum);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        }
+    }
+
     /*
     // 获取文件的块号列表（需在文件表中记录）
     public List<Integer> getFileBlocks(String fileId) throws SQLException {
@@ -0,0 +1,247 @@
+package newOs.kernel.DiskStorage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于预分配磁盘镜像文件的块设备，通过 FileChannel.map 把整个镜像映射到内存，
+ * 块读写直接操作 MappedByteBuffer，不经过 SQL 解析和 JDBC。
+ *
+ * 镜像布局（各区域按 4KB 对齐）：
+ * 超级块    魔数、版本、块大小、块数
+ * 位图区    每块 1 位，1 表示已使用
+ * 元数据区  每块 8 字节：有效数据长度（4B）、下一个块号（4B）
+ * 数据区    块 N 位于 数据区起点 + N * 4096
+ */
+@Slf4j
+public class MappedBlockDevice implements BlockDevice, AutoCloseable {
+
+    private static final int MAGIC = 0x424C4B44; // "BLKD"
+    private static final int VERSION = 1;
+    private static final int SUPERBLOCK_SIZE = BLOCK_SIZE;
+    private static final int META_ENTRY_SIZE = 8;
+
+    private final int blockCount;
+    private final int bitmapOffset;
+    private final int metaOffset;
+    private final int dataOffset;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    // 保护位图和元数据区；数据区按块划分，互不重叠
+    private final ReentrantLock metaLock = new ReentrantLock();
+
+    /**
+     * 打开镜像文件，不存在时按指定块数创建并格式化
+     * @param imagePath 镜像文件路径
+     * @param blockCount 块数（新建镜像时使用，已有镜像以超级块为准）
+     */
+    public MappedBlockDevice(Path imagePath, int blockCount) throws IOException {
+        boolean exists = Files.exists(imagePath) && Files.size(imagePath) >= SUPERBLOCK_SIZE;
+        this.channel = FileChannel.open(imagePath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (exists) {
+            MappedByteBuffer superblock = channel.map(FileChannel.MapMode.READ_ONLY, 0, SUPERBLOCK_SIZE);
+            superblock.order(ByteOrder.BIG_ENDIAN);
+            if (superblock.getInt(0) != MAGIC || superblock.getInt(4) != VERSION
+                    || superblock.getInt(8) != BLOCK_SIZE || superblock.getInt(12) <= 0) {
+                channel.close();
+                throw new IOException("不是合法的磁盘镜像: " + imagePath);
+            }
+            blockCount = superblock.getInt(12);
+        }
+
+        this.blockCount = blockCount;
+        this.bitmapOffset = SUPERBLOCK_SIZE;
+        this.metaOffset = bitmapOffset + alignToBlock((blockCount + 7) / 8);
+        this.dataOffset = metaOffset + alignToBlock(blockCount * META_ENTRY_SIZE);
+
+        long totalSize = (long) dataOffset + (long) blockCount * BLOCK_SIZE;
+        if (totalSize > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("磁盘镜像过大，单个映射不能超过2GB: " + blockCount + " 块");
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, totalSize);
+
+        if (!exists) {
+            format();
+        }
+        log.info("磁盘镜像已映射: {}，共 {} 块", imagePath, this.blockCount);
+    }
+
+    @Override
+    public byte[] readBlock(int blockNumber) {
+        if (!inRange(blockNumber)) {
+            return null;
+        }
+        int length = buffer.getInt(metaEntry(blockNumber));
+        if (length < 0 || length > BLOCK_SIZE) {
+            // 元数据区损坏或不是本程序格式化的镜像
+            throw new IllegalStateException("块 " + blockNumber + " 的数据长度非法: " + length);
+        }
+        byte[] data = new byte[length];
+        buffer.get(blockOffset(blockNumber), data);
+        return data;
+    }
+
+    @Override
+    public void writeBlock(int blockNumber, byte[] data) {
+        if (data.length > BLOCK_SIZE) {
+            throw new IllegalArgumentException("数据长度超过块容量（4096字节）");
+        }
+        if (!inRange(blockNumber)) {
+            return;
+        }
+        buffer.put(blockOffset(blockNumber), data);
+        buffer.putInt(metaEntry(blockNumber), data.length);
+    }
+
+    @Override
+    public void writeBlocks(Map<Integer, byte[]> blocks) {
+        for (byte[] data : blocks.values()) {
+            if (data.length > BLOCK_SIZE) {
+                throw new IllegalArgumentException("数据长度超过块容量（4096字节）");
+            }
+        }
+        for (Map.Entry<Integer, byte[]> entry : blocks.entrySet()) {
+            writeBlock(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Map<Integer, Boolean> getAllBlockUsage() {
+        Map<Integer, Boolean> usage = new HashMap<>(blockCount * 4 / 3 + 1);
+        metaLock.lock();
+        try {
+            for (int i = 0; i < blockCount; i++) {
+                usage.put(i, isUsed(i));
+            }
+        } finally {
+            metaLock.unlock();
+        }
+        return usage;
+    }
+
+    @Override
+    public void updateBlockUsageBatch(Map<Integer, Boolean> usage) {
+        metaLock.lock();
+        try {
+            for (Map.Entry<Integer, Boolean> entry : usage.entrySet()) {
+                if (inRange(entry.getKey())) {
+                    setUsed(entry.getKey(), entry.getValue());
+                }
+            }
+        } finally {
+            metaLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateNextBlock(int blockNumber, int nextBlock) {
+        if (!inRange(blockNumber)) {
+            return;
+        }
+        buffer.putInt(metaEntry(blockNumber) + 4, nextBlock);
+    }
+
+    /**
+     * 映射文件没有事务，在元数据锁内依次应用全部变更
+     */
+    @Override
+    public void commitBlockChain(Map<Integer, Integer> nextBlocks, Map<Integer, Boolean> usage,
+                                 Map<Integer, byte[]> data) {
+        for (byte[] bytes : data.values()) {
+            if (bytes.length > BLOCK_SIZE) {
+                throw new IllegalArgumentException("数据长度超过块容量（4096字节）");
+            }
+        }
+        metaLock.lock();
+        try {
+            writeBlocks(data);
+            nextBlocks.forEach(this::updateNextBlock);
+            updateBlockUsageBatch(usage);
+        } finally {
+            metaLock.unlock();
+        }
+    }
+
+    @Override
+    public void releaseBlock(List<Integer> blockNumbers) {
+        metaLock.lock();
+        try {
+            for (int blockNumber : blockNumbers) {
+                if (!inRange(blockNumber)) continue;
+                setUsed(blockNumber, false);
+                buffer.putInt(metaEntry(blockNumber), 0);
+                buffer.putInt(metaEntry(blockNumber) + 4, -1);
+            }
+        } finally {
+            metaLock.unlock();
+        }
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * 把映射内容刷到镜像文件并关闭
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    // 写入超级块，位图清零，所有块的下一个块号置为 -1
+    private void format() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, BLOCK_SIZE);
+        buffer.putInt(12, blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            buffer.putInt(metaEntry(i), 0);
+            buffer.putInt(metaEntry(i) + 4, -1);
+        }
+        buffer.force();
+    }
+
+    private boolean isUsed(int blockNumber) {
+        return (buffer.get(bitmapOffset + (blockNumber >>> 3)) & (1 << (blockNumber & 7))) != 0;
+    }
+
+    private void setUsed(int blockNumber, boolean used) {
+        int index = bitmapOffset + (blockNumber >>> 3);
+        byte b = buffer.get(index);
+        int mask = 1 << (blockNumber & 7);
+        buffer.put(index, (byte) (used ? (b | mask) : (b & ~mask)));
+    }
+
+    private boolean inRange(int blockNumber) {
+        return blockNumber >= 0 && blockNumber < blockCount;
+    }
+
+    private int metaEntry(int blockNumber) {
+        return metaOffset + blockNumber * META_ENTRY_SIZE;
+    }
+
+    private int blockOffset(int blockNumber) {
+        return dataOffset + blockNumber * BLOCK_SIZE;
+    }
+
+    private static int alignToBlock(int size) {
+        return (size + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+    }
+}
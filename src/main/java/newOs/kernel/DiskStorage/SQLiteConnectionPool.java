@@ -0,0 +1,168 @@
+package newOs.kernel.DiskStorage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SQLite 连接池，保存少量长连接供磁盘块存储复用。
+ * 每个连接缓存自己预编译过的 SQL 语句，数据库以 WAL 模式运行，读写可以并发。
+ */
+@Slf4j
+@Component
+public class SQLiteConnectionPool {
+
+    private final String url;
+    private final int poolSize;
+
+    // 空闲连接
+    private final LinkedBlockingQueue<PooledConnection> idle = new LinkedBlockingQueue<>();
+    // 已创建的全部连接，关闭时统一释放
+    private final List<PooledConnection> all = new CopyOnWriteArrayList<>();
+    private final AtomicInteger created = new AtomicInteger(0);
+
+    @Autowired
+    public SQLiteConnectionPool(@Value("${disk.block.url:jdbc:sqlite:src/main/java/newOs/component/disk.db}") String url,
+                                @Value("${disk.block.pool-size:4}") int poolSize) {
+        this.url = url;
+        this.poolSize = Math.max(1, poolSize);
+    }
+
+    /**
+     * 借出一个连接，池满且无空闲连接时阻塞等待。
+     * 使用完毕后调用 close() 归还（配合 try-with-resources）。
+     */
+    public PooledConnection borrow() throws SQLException {
+        PooledConnection conn = idle.poll();
+        if (conn != null) {
+            return conn;
+        }
+        // 懒创建，直到达到池大小
+        while (true) {
+            int n = created.get();
+            if (n >= poolSize) {
+                break;
+            }
+            if (created.compareAndSet(n, n + 1)) {
+                try {
+                    PooledConnection fresh = open();
+                    all.add(fresh);
+                    return fresh;
+                } catch (SQLException e) {
+                    created.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("等待数据库连接时被中断", e);
+        }
+    }
+
+    /**
+     * 归还连接，未提交的事务会被回滚。
+     */
+    void release(PooledConnection conn) {
+        try {
+            if (!conn.connection.getAutoCommit()) {
+                conn.connection.rollback();
+                conn.connection.setAutoCommit(true);
+            }
+            idle.offer(conn);
+        } catch (SQLException e) {
+            // 连接已损坏，丢弃并允许重新创建
+            log.warn("丢弃损坏的数据库连接: " + e.getMessage());
+            all.remove(conn);
+            conn.closeQuietly();
+            created.decrementAndGet();
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode=WAL");
+            stmt.execute("PRAGMA synchronous=NORMAL");
+            stmt.execute("PRAGMA busy_timeout=5000");
+        }
+        return new PooledConnection(this, connection);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (PooledConnection conn : all) {
+            conn.closeQuietly();
+        }
+        all.clear();
+        idle.clear();
+        created.set(0);
+    }
+
+    /**
+     * 池化连接，附带预编译语句缓存。
+     * 同一时刻只会被一个线程持有，因此缓存不需要同步。
+     */
+    public static class PooledConnection implements AutoCloseable {
+        private final SQLiteConnectionPool pool;
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statementCache = new HashMap<>();
+
+        private PooledConnection(SQLiteConnectionPool pool, Connection connection) {
+            this.pool = pool;
+            this.connection = connection;
+        }
+
+        /**
+         * 获取（或首次编译）SQL 对应的预编译语句，语句由连接持有，调用方不要关闭它
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement pstmt = statementCache.get(sql);
+            if (pstmt == null) {
+                pstmt = connection.prepareStatement(sql);
+                statementCache.put(sql, pstmt);
+            } else {
+                pstmt.clearParameters();
+            }
+            return pstmt;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        /**
+         * 归还到连接池（并不真正关闭底层连接）
+         */
+        @Override
+        public void close() {
+            pool.release(this);
+        }
+
+        private void closeQuietly() {
+            for (PreparedStatement pstmt : statementCache.values()) {
+                try {
+                    pstmt.close();
+                } catch (SQLException ignored) {
+                }
+            }
+            statementCache.clear();
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
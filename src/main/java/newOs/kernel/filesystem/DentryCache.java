@@ -0,0 +1,169 @@
+package newOs.kernel.filesystem;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 目录项缓存：规范化的绝对路径 -> 文件结点，容量固定，LRU 淘汰。
+ * 路径不存在时也会缓存（负缓存项），避免反复从根目录查找不存在的路径。
+ * 创建结点后需失效该路径的负缓存项，删除或移动结点后需失效整棵子树。
+ *
+ * 缓存按路径哈希分成多个段，每段一把锁，不同核心上的查找互不阻塞。
+ * 每次失效都会递增版本号，查找前记下版本号，回填时版本号已变化则放弃，
+ * 防止与并发的增删交错时写入过期结果。
+ */
+public class DentryCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final int capacity;
+    private final Segment[] segments;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DentryCache(int capacity) {
+        this.capacity = Math.max(SEGMENTS, capacity);
+        this.segments = new Segment[SEGMENTS];
+        int segmentCapacity = (this.capacity + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * 当前版本号，查找未命中时先记下，回填时传给 put
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 查找路径
+     * @param path 规范化的绝对路径
+     * @return 缓存项（node 为 null 表示路径不存在），未缓存返回 null
+     */
+    public Dentry lookup(String path) {
+        Segment segment = segmentFor(path);
+        Dentry dentry;
+        synchronized (segment) {
+            dentry = segment.entries.get(path);
+        }
+        if (dentry != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return dentry;
+    }
+
+    /**
+     * 缓存查找结果
+     * @param node 路径对应的结点，路径不存在时传 null
+     * @param observedGeneration 开始查找前的版本号，期间有失效发生则不缓存
+     */
+    public void put(String path, FileNode node, long observedGeneration) {
+        Segment segment = segmentFor(path);
+        synchronized (segment) {
+            if (generation.get() == observedGeneration) {
+                segment.entries.put(path, new Dentry(node));
+            }
+        }
+    }
+
+    /**
+     * 失效单个路径，用于新建结点后清除负缓存项
+     */
+    public void invalidate(String path) {
+        generation.incrementAndGet();
+        Segment segment = segmentFor(path);
+        synchronized (segment) {
+            segment.entries.remove(path);
+        }
+    }
+
+    /**
+     * 失效路径及其下所有子路径，用于删除或移动结点
+     */
+    public void invalidateSubtree(String path) {
+        generation.incrementAndGet();
+        String prefix = path.equals("/") ? "/" : path + "/";
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.keySet().removeIf(key -> key.equals(path) || key.startsWith(prefix));
+            }
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private Segment segmentFor(String path) {
+        int h = path.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * 缓存段，访问顺序的 LinkedHashMap，超出段容量时淘汰最久未使用的项
+     */
+    private static final class Segment {
+        private final LinkedHashMap<String, Dentry> entries;
+
+        private Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Dentry> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * 缓存项
+     */
+    public static final class Dentry {
+        private final FileNode node;
+
+        private Dentry(FileNode node) {
+            this.node = node;
+        }
+
+        /**
+         * @return 路径对应的结点，负缓存项返回 null
+         */
+        public FileNode getNode() {
+            return node;
+        }
+    }
+}
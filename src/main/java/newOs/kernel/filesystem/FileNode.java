@@ -1,22 +1,47 @@
 package newOs.kernel.filesystem;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class FileNode {
     public enum FileType { FILE, DIRECTORY }
 
+    @EqualsAndHashCode.Include
     private int id; //文件标识符
-    private String fileName; //文件名
+    // 文件名是父目录 children 的键，只能通过 rename 修改
+    @Setter(AccessLevel.NONE)
+    private volatile String fileName; //文件名
     private FileType fileType; //文件类型
     private List<Integer> blockNumbers; //文件存储块号
     private int size; //文件大小
-    private FileNode parent; //父结点
-    private List<FileNode> children; //孩子结点
+    @ToString.Exclude
+    private volatile FileNode parent; //父结点
+    // 孩子结点，文件名 -> 结点；LinkedHashMap 既能按名字O(1)查找，又保持插入顺序用于列目录
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<String, FileNode> children;
+    // 目录读写锁，保护 children；查找和列目录加读锁，增删孩子加写锁
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 结点已从目录树上删除，已删除的目录不能再添加孩子
+    @Setter(AccessLevel.NONE)
+    private volatile boolean removed;
 
     public FileNode(String fileName, FileType fileType) {
         this.id = InodeGenerator.allocate();
@@ -25,7 +50,123 @@ public class FileNode {
         this.blockNumbers = new ArrayList<>();
         this.size = 0;
         this.parent = null;
-        this.children = new ArrayList<>();
+        this.children = new LinkedHashMap<>();
+    }
+
+    /**
+     * 按名字查找孩子结点
+     * @return 孩子结点，不存在返回 null
+     */
+    public FileNode getChild(String name) {
+        lock.readLock().lock();
+        try {
+            return children.get(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean hasChild(String name) {
+        return getChild(name) != null;
+    }
+
+    /**
+     * 添加孩子结点并设置其父结点
+     * @return 是否添加成功，同名结点已存在或本目录已被删除时返回 false
+     */
+    public boolean addChild(FileNode child) {
+        lock.writeLock().lock();
+        try {
+            if (removed || children.containsKey(child.getFileName())) {
+                return false;
+            }
+            child.setParent(this);
+            children.put(child.getFileName(), child);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除孩子结点
+     * @return 是否移除成功，结点已被其他线程移除时返回 false
+     */
+    public boolean removeChild(FileNode child) {
+        lock.writeLock().lock();
+        try {
+            return children.remove(child.getFileName(), child);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 重命名结点，在父目录的写锁内同时更新父目录按名字的索引。
+     * 不处理目录项缓存，调用方需让旧路径下的缓存失效
+     * @return 是否重命名成功，新名字已被占用或结点已不在父目录中时返回 false
+     */
+    public boolean rename(String newName) {
+        FileNode dir = parent;
+        if (dir == null) {
+            fileName = newName;
+            return true;
+        }
+        return dir.renameChild(this, newName);
+    }
+
+    private boolean renameChild(FileNode child, String newName) {
+        lock.writeLock().lock();
+        try {
+            if (children.get(child.fileName) != child) {
+                return false;
+            }
+            if (newName.equals(child.fileName)) {
+                return true;
+            }
+            if (children.containsKey(newName)) {
+                return false;
+            }
+            children.remove(child.fileName);
+            child.fileName = newName;
+            children.put(newName, child);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 目录为空时把它标记为已删除，之后不能再往里添加孩子
+     * @return 是否标记成功，目录非空时返回 false
+     */
+    public boolean markRemovedIfEmpty() {
+        lock.writeLock().lock();
+        try {
+            if (!children.isEmpty()) {
+                return false;
+            }
+            removed = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markRemoved() {
+        removed = true;
+    }
+
+    /**
+     * 按插入顺序返回孩子结点的快照，遍历期间不受并发增删影响
+     */
+    public List<FileNode> getChildren() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(children.values());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     static class InodeGenerator {
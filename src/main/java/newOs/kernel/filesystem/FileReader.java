@@ -28,11 +28,13 @@ public class FileReader {
 
     private final ConcurrentHashMap<FileNode, Semaphore> semaphoreTable;
     private final DeviceStorageManager deviceManager;
+    private final MemoryManager memoryManager;
     private final Gson gson = new Gson();
 
     @Autowired
-    public FileReader(DeviceStorageManager deviceStorageManager) {
+    public FileReader(DeviceStorageManager deviceStorageManager, MemoryManager memoryManager) {
         this.deviceManager = deviceStorageManager;
+        this.memoryManager = memoryManager;
 
         semaphoreTable = new ConcurrentHashMap<>();
     }
@@ -46,7 +48,7 @@ public class FileReader {
      * @return 是否读取成功
      */
     public boolean readFile(PCB pcb, String filePath, OutputStream output) {
-        FileNode fileNode = FileSystem.NameToNode(filePath);
+        FileNode fileNode = FileSystem.NameToNode(pcb, filePath);
         if (fileNode == null || fileNode.getFileType() != FILE) {
             return false; // 文件不存在或路径指向目录
         }
@@ -59,9 +61,6 @@ public class FileReader {
 
         boolean semaphoreAcquired = false;
 
-        //只是一个实现的假想，有方法就行。
-        MemoryManager memoryManager = MemoryManager.getInstance();
-
         try {
             // 在进程剩余时间内尝试获取信号量
             while (pcb.getRemainingTime() > 0) {
@@ -118,6 +117,9 @@ public class FileReader {
             Thread.currentThread().interrupt();
             System.err.println("进程被中断: " + e.getMessage());
             return false;
+        } catch (SQLException e) {
+            System.err.println("文件内容调入失败: " + e.getMessage());
+            return false;
         } finally {
             // ==== 资源清理 ====
             if (semaphoreAcquired) {
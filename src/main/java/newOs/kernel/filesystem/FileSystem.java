@@ -1,158 +1,197 @@
 package newOs.kernel.filesystem;
 
-import com.alibaba.fastjson.JSONException;
-import com.alibaba.fastjson.JSONObject;
 import lombok.Data;
 import lombok.Getter;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
-import newOs.kernel.DiskStorage.BlockStorageManager;
+import newOs.component.memory.protected1.PCB;
+import newOs.kernel.DiskStorage.BlockAllocator;
+import newOs.kernel.DiskStorage.BlockBufferCache;
+import newOs.kernel.DiskStorage.BlockDevice;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import static newOs.kernel.filesystem.FileNode.FileType.DIRECTORY;
 import static newOs.kernel.filesystem.FileNode.FileType.FILE;
 
+/**
+ * 文件系统命名空间
+ * 每个进程有自己的当前目录（按pid保存），不带PCB的方法使用控制台的当前目录。
+ * 目录树不加全局锁：每个目录结点自带读写锁，查找只加读锁，增删孩子只锁所在目录，
+ * 不同核心上的文件操作可以并行。
+ */
 @Data
 @Component
 public class FileSystem {
 
+    // 控制台（不属于任何进程的调用方）的当前目录使用的键
+    public static final int CONSOLE_PID = -1;
+
     private final FileReader fileReader;
     private final FileWriter fileWriter;
-    private final BlockStorageManager blockManager;
+    private final BlockDevice blockManager;
+    private final BlockAllocator blockAllocator;
+    private final BlockBufferCache blockCache;
+    private final MemoryManager memoryManager;
 
     private static FileNode root;
-    private static FileNode current_node;
-    private static String current_path;
+    // 进程当前目录：pid -> 规范化的绝对路径
+    private static final ConcurrentHashMap<Integer, String> workingDirectories = new ConcurrentHashMap<>();
+    private static DentryCache dentryCache;
 
 
     @Autowired
-    public FileSystem(FileReader fileReader, FileWriter fileWriter, BlockStorageManager blockManager) {
+    public FileSystem(FileReader fileReader, FileWriter fileWriter, BlockDevice blockManager, BlockAllocator blockAllocator, BlockBufferCache blockCache,
+                      MemoryManager memoryManager, @Value("${fs.dentry-cache.capacity:4096}") int dentryCacheCapacity) {
         this.fileReader = fileReader;
         this.fileWriter = fileWriter;
         this.blockManager = blockManager;
+        this.blockAllocator = blockAllocator;
+        this.blockCache = blockCache;
+        this.memoryManager = memoryManager;
         root = new FileNode("/", DIRECTORY);
-        current_node = root;
-        current_path = "/";
+        workingDirectories.clear();
+        dentryCache = new DentryCache(dentryCacheCapacity);
     }
 
 
+    public String touch(String path) {
+        return touch(null, path);
+    }
+
     /**
      * 创建文件并分配存储块（若路径不存在则失败）
+     * @param pcb 发起操作的进程，null 表示控制台
      * @param path 文件路径（相对路径或绝对路径）
      * @return 操作结果信息
      */
-    public String touch(String path) {
+    public String touch(PCB pcb, String path) {
         try {
             // 解析路径的父目录和文件名
             int lastSlash = path.lastIndexOf('/');
-            String parentPath = (lastSlash == -1) ? current_path : path.substring(0, lastSlash);
+            String parentPath = (lastSlash == -1) ? "." : (lastSlash == 0 ? "/" : path.substring(0, lastSlash));
             String fileName = (lastSlash == -1) ? path : path.substring(lastSlash + 1);
 
             // 查找父目录结点
-            FileNode parentNode = NameToNode(parentPath);
+            FileNode parentNode = NameToNode(pcb, parentPath);
             if(parentNode == null || parentNode.getFileType() != DIRECTORY) {
                 return "Error: Parent directory does not exist.";
             }
 
             // 检查文件是否已经存在
-            for (FileNode child : parentNode.getChildren()) {
-                if (child.getFileName().equals(fileName)) {
-                    return "Error: File already exists.";
-                }
+            if (parentNode.hasChild(fileName)) {
+                return "Error: File already exists.";
             }
 
 
-            // 分配inode块
-            BlockStorageManager.Block inodeBlock = blockManager.findFirstUnusedBlock();
-            if(inodeBlock == null) return "Error: No free blocks for inode.";
-            blockManager.updateBlockUsage(inodeBlock.getBlockNumber(), true);
+            // 先编码inode，文件名过长时不必分配块
+            byte[] inodeData = new Inode(fileName, FILE, System.currentTimeMillis(), 0).toBytes();
 
-            // 分配内容块
-            BlockStorageManager.Block contentBlock = blockManager.findFirstUnusedBlock();
-            if(contentBlock == null) {
-                // 回滚inode块分配
-                blockManager.updateBlockUsage(inodeBlock.getBlockNumber(), false);
-                return "Error: No free blocks for content.";
+            // 优先为inode块和内容块分配连续的两个块
+            int inodeBlockNumber;
+            int contentBlockNumber;
+            int start = blockAllocator.allocateContiguous(2);
+            if (start >= 0) {
+                inodeBlockNumber = start;
+                contentBlockNumber = start + 1;
+            } else {
+                // 分配inode块
+                inodeBlockNumber = blockAllocator.allocate();
+                if(inodeBlockNumber < 0) return "Error: No free blocks for inode.";
+
+                // 分配内容块
+                contentBlockNumber = blockAllocator.allocate();
+                if(contentBlockNumber < 0) {
+                    // 回滚inode块分配
+                    blockAllocator.free(inodeBlockNumber);
+                    return "Error: No free blocks for content.";
+                }
             }
-            blockManager.updateBlockUsage(contentBlock.getBlockNumber(), true);
 
             // 创建文件结点并设置块号
             FileNode newFile = new FileNode(fileName, FILE);
-            newFile.setParent(parentNode);
-            newFile.getBlockNumbers().add(inodeBlock.getBlockNumber()); // 添加inode块
-            newFile.getBlockNumbers().add(contentBlock.getBlockNumber()); // 添加内容块
+            newFile.getBlockNumbers().add(inodeBlockNumber); // 添加inode块
+            newFile.getBlockNumbers().add(contentBlockNumber); // 添加内容块
 
             // 写入inode基本信息
-            JSONObject inodeData = new JSONObject();
-            inodeData.put("filename", fileName);
-            inodeData.put("create_time", System.currentTimeMillis());
-            inodeData.put("file_type", "FILE");
-            blockManager.updateBlockData(inodeBlock.getBlockNumber(), inodeData.toString());
+            blockCache.write(inodeBlockNumber, inodeData);
 
             // 设置块链表关系
-            blockManager.updateNextBlock(inodeBlock.getBlockNumber(), contentBlock.getBlockNumber());
-
-            // 添加到父目录
-            parentNode.getChildren().add(newFile);
+            blockManager.updateNextBlock(inodeBlockNumber, contentBlockNumber);
 
-            // 信号量初始化
+            // 信号量初始化（先于挂到目录树上，其他核心一看到文件就能用）
             fileReader.getSemaphoreTable().put(newFile, new Semaphore(3));
             fileWriter.getSemaphoreTable().put(newFile, new Semaphore(1));
 
-            return "File created: " + path + " [Blocks: " + inodeBlock.getBlockNumber() + "->" + contentBlock.getBlockNumber() + "]";
+            // 添加到父目录；期间同名文件被其他核心抢先创建或父目录被删除时回滚
+            if (!parentNode.addChild(newFile)) {
+                fileReader.getSemaphoreTable().remove(newFile);
+                fileWriter.getSemaphoreTable().remove(newFile);
+                releaseBlocks(newFile.getBlockNumbers());
+                return parentNode.isRemoved() ? "Error: Parent directory does not exist." : "Error: File already exists.";
+            }
+            dentryCache.invalidate(buildPath(newFile));
+
+            return "File created: " + path + " [Blocks: " + inodeBlockNumber + "->" + contentBlockNumber + "]";
         } catch (SQLException e) {
             return "Error: Database operation failed - " + e.getMessage();
-        } catch (JSONException e) {
-            return "Error: JSON serialization failed - " + e.getMessage();
+        } catch (IllegalArgumentException e) {
+            return "Error: Invalid inode - " + e.getMessage();
         }
     }
 
 
+    public String makedir(String path) {
+        return makedir(null, path);
+    }
+
     /**
      * 创建目录（若路径不存在则失败）
+     * @param pcb 发起操作的进程，null 表示控制台
      * @param path 目录路径（绝对或相对路径）
      * @return 操作结果信息
      */
-    public String makedir(String path) {
+    public String makedir(PCB pcb, String path) {
         // 解析路径的父目录和目录名
         int lastSlash = path.lastIndexOf("/");
-        String parentPath = (lastSlash == -1) ? current_path : path.substring(0, lastSlash);
+        String parentPath = (lastSlash == -1) ? "." : (lastSlash == 0 ? "/" : path.substring(0, lastSlash));
         String dirName = (lastSlash == -1) ? path : path.substring(lastSlash + 1);
 
         // 查找父目录节点
-        FileNode parentNode = NameToNode(parentPath);
+        FileNode parentNode = NameToNode(pcb, parentPath);
         if (parentNode == null || parentNode.getFileType() != DIRECTORY) {
             return "Error: Parent directory does not exist";
         }
 
-        // 检查目录是否已存在
-        for (FileNode child : parentNode.getChildren()) {
-            if (child.getFileName().equals(dirName)) {
-                return "Error: Directory already exists";
-            }
-        }
-
-        // 创建新目录节点并添加到父目录
+        // 创建新目录节点并添加到父目录，同名结点已存在时失败
         FileNode newDir = new FileNode(dirName, DIRECTORY);
-        newDir.setParent(parentNode);
-        parentNode.getChildren().add(newDir);
+        if (!parentNode.addChild(newDir)) {
+            return parentNode.isRemoved() ? "Error: Parent directory does not exist" : "Error: Directory already exists";
+        }
+        dentryCache.invalidate(buildPath(newDir));
         return "Directory created: " + path;
     }
 
 
+    public String cd(String path) {
+        return cd(null, path);
+    }
+
     /**
      * cd命令，跳转到对应目录
+     * @param pcb 发起操作的进程，null 表示控制台
      * @param path 目标路径目录
      * @return 操作结果信息
      */
-    public String cd(String path) {
-        FileNode targetNode = NameToNode(path);
+    public String cd(PCB pcb, String path) {
+        FileNode targetNode = NameToNode(pcb, path);
         if(targetNode == null) {
             return "Error: Directory does not exist.";
         }
@@ -160,35 +199,62 @@ public class FileSystem {
             return "Error: Not a directory.";
         }
 
-        // 更新当前结点和路径
-        current_node = targetNode;
-        current_path = buildPath(targetNode);
+        // 更新该进程的当前路径
+        String currentPath = buildPath(targetNode);
+        workingDirectories.put(contextKey(pcb), currentPath);
 
-        return "Current directory: " + current_path;
+        return "Current directory: " + currentPath;
+    }
+
+    /**
+     * 获取进程的当前目录
+     * @param pcb 进程，null 表示控制台
+     * @return 当前目录的绝对路径
+     */
+    public static String getCurrentPath(PCB pcb) {
+        return workingDirectories.getOrDefault(contextKey(pcb), "/");
+    }
+
+    /**
+     * 进程结束时清除其当前目录
+     */
+    public static void releaseWorkingDirectory(int pid) {
+        workingDirectories.remove(pid);
     }
 
     // 辅助方法，根据节点生成完整路径
-    private String buildPath(FileNode node) {
+    private static String buildPath(FileNode node) {
         if(node == root) return "/";
         List<String> parts = new ArrayList<>();
         while (node != root) {
             parts.add(node.getFileName());
             node = node.getParent();
         }
+        // 从叶子往上收集的，需要倒序拼接
+        Collections.reverse(parts);
         return "/" + String.join("/", parts);
     }
 
+    public String ls() {
+        return ls(null);
+    }
+
     /**
      * 展示当前目录下的文件和子目录
+     * @param pcb 发起操作的进程，null 表示控制台
      * @return 目录内容列表或错误信息
      */
-    public String ls() {
-        if (current_node.getFileType() != DIRECTORY) {
+    public String ls(PCB pcb) {
+        FileNode currentNode = NameToNode(pcb, ".");
+        if (currentNode == null) {
+            return "Error: Current directory no longer exists.";
+        }
+        if (currentNode.getFileType() != DIRECTORY) {
             return "Error: Not a directory.";
         }
 
         StringBuilder sb = new StringBuilder();
-        for (FileNode child : current_node.getChildren()) {
+        for (FileNode child : currentNode.getChildren()) {
             sb.append(child.getFileType() == DIRECTORY ? "[DIR] " : "[FILE] ");
             sb.append(child.getFileName()).append("\n");
         }
@@ -196,13 +262,18 @@ public class FileSystem {
     }
 
 
+    public String cat(String path) {
+        return cat(null, path);
+    }
+
     /**
      * 展示文件内容
+     * @param pcb 发起操作的进程，null 表示控制台
      * @param path 文件路径
      * @return 文件内容或错误信息
      */
-    public String cat(String path) {
-        FileNode fileNode = NameToNode(path);
+    public String cat(PCB pcb, String path) {
+        FileNode fileNode = NameToNode(pcb, path);
         if (fileNode == null) {
             return "Error: File does not exist.";
         }
@@ -210,10 +281,6 @@ public class FileSystem {
             return "Error: Not a file.";
         }
 
-        // 获取块存储管理器
-        BlockStorageManager blockManager = new BlockStorageManager();
-        StringBuilder contentBuilder = new StringBuilder();
-
         try {
             // 获取文件关联的块号列表（跳过第一个inode块）
             List<Integer> blockNumbers = fileNode.getBlockNumbers();
@@ -221,23 +288,21 @@ public class FileSystem {
                 return "Error: File has no content blocks";
             }
 
-            // 遍历内容块（从第二个块开始）
+            // 检查内容块（从第二个块开始）都已分配
             for (int i = 1; i < blockNumbers.size(); i++) {
                 int blockNumber = blockNumbers.get(i);
-                BlockStorageManager.Block block = blockManager.getBlockByNumber(blockNumber);
-
-                if (block == null) {
-                    return "Error: Missing block " + blockNumber;
-                }
-                if (!block.isUsed()) {
+                if (!blockAllocator.isAllocated(blockNumber)) {
                     return "Error: Block " + blockNumber + " is unallocated";
                 }
-
-                // 拼接块内容
-                contentBuilder.append(block.getData());
             }
 
-            return contentBuilder.toString();
+            // 经页缓存读取，能看到尚未写回的脏页；多字节字符可能跨块，拼接完整后再统一解码
+            memoryManager.loadFromDisk(fileNode);
+            byte[] content = memoryManager.readFileContent(fileNode);
+            if (content == null) {
+                return "Error: Missing content blocks";
+            }
+            return new String(content, StandardCharsets.UTF_8);
 
         } catch (SQLException e) {
             return "Error: Database failure - " + e.getMessage();
@@ -247,37 +312,55 @@ public class FileSystem {
     }
 
 
+    public String rmdir(String path) {
+        return rmdir(null, path);
+    }
+
     /**
      * 删除空目录
+     * @param pcb 发起操作的进程，null 表示控制台
      * @param path 目录路径
      * @return 操作结果信息
      */
-    public String rmdir(String path) {
-        FileNode dirNode = NameToNode(path);
+    public String rmdir(PCB pcb, String path) {
+        FileNode dirNode = NameToNode(pcb, path);
         if (dirNode == null) {
             return "Error: Directory does not exist.";
         }
         if(dirNode.getFileType() != DIRECTORY) {
             return "Error: Not a directory.";
         }
-        if (dirNode.getChildren().isEmpty()) {
+        FileNode parent = dirNode.getParent();
+        if (parent == null) {
+            return "Error: Cannot remove root directory.";
+        }
+        // 标记删除与检查是否为空在目录锁内一起完成，之后其他核心不能再往里创建文件
+        if (!dirNode.markRemovedIfEmpty()) {
             return "Error: Directory is not empty.";
         }
 
         //从父目录删除
-        FileNode parent = dirNode.getParent();
-        parent.getChildren().remove(dirNode);
+        String dirPath = buildPath(dirNode);
+        if (!parent.removeChild(dirNode)) {
+            return "Error: Directory does not exist.";
+        }
+        dentryCache.invalidateSubtree(dirPath);
         return "Directory removed. ";
     }
 
 
+    public String rmfile(String path) {
+        return rmfile(null, path);
+    }
+
     /**
      * 删除文件并释放存储空间
+     * @param pcb 发起操作的进程，null 表示控制台
      * @param path 文件路径
      * @return 操作结果信息
      */
-    public String rmfile(String path) {
-        FileNode fileNode = NameToNode(path);
+    public String rmfile(PCB pcb, String path) {
+        FileNode fileNode = NameToNode(pcb, path);
         if (fileNode == null) {
             return "Error: File does not exist.";
         }
@@ -285,17 +368,20 @@ public class FileSystem {
             return "Error: Not a file.";
         }
 
-        BlockStorageManager blockManager = new BlockStorageManager();
+        // 先从父目录摘下，只有摘下成功的一方负责释放块
+        FileNode parent = fileNode.getParent();
+        String filePath = buildPath(fileNode);
+        if (!parent.removeChild(fileNode)) {
+            return "Error: File does not exist.";
+        }
+        fileNode.markRemoved();
+        dentryCache.invalidateSubtree(filePath);
+        memoryManager.invalidate(fileNode);
+
         List<Integer> blockNumbers = fileNode.getBlockNumbers();
 
         try {
-            // 获取数据库连接并开启事务
-            blockManager.releaseBlock(blockNumbers);
-
-            // 从父目录移除文件结点
-            FileNode parent = fileNode.getParent();
-            parent.getChildren().remove(fileNode);
-
+            releaseBlocks(blockNumbers);
             return "File removed. Released blocks: " + blockNumbers;
 
         } catch (SQLException e) {
@@ -303,14 +389,26 @@ public class FileSystem {
         }
     }
 
+    // 辅助方法，丢弃缓存并释放文件占用的块
+    private void releaseBlocks(List<Integer> blockNumbers) throws SQLException {
+        blockCache.invalidate(blockNumbers);
+        blockManager.releaseBlock(blockNumbers);
+        blockAllocator.free(blockNumbers);
+    }
+
+
+    public String file_tree(String path) {
+        return file_tree(null, path);
+    }
 
     /**
      * 生成目录树结构
+     * @param pcb 发起操作的进程，null 表示控制台
      * @param path 起始路径
      * @return 目录树字符串表示
      */
-    public String file_tree(String path) {
-        FileNode startNode = NameToNode(path);
+    public String file_tree(PCB pcb, String path) {
+        FileNode startNode = NameToNode(pcb, path);
         if (startNode == null) {
             return "Error: Path does not exist.";
         }
@@ -333,35 +431,81 @@ public class FileSystem {
     }
 
     /**
-     * 找到文件路径对应的文件结点
+     * 找到文件路径对应的文件结点，相对路径按控制台的当前目录解析
      * @param filePath 文件路径
      * @return 文件名对应的文件结点
      */
     public static FileNode NameToNode(String filePath) {
+        return NameToNode(null, filePath);
+    }
+
+    /**
+     * 找到文件路径对应的文件结点
+     * @param pcb 发起操作的进程，相对路径按它的当前目录解析；null 表示控制台
+     * @param filePath 文件路径
+     * @return 文件名对应的文件结点
+     */
+    public static FileNode NameToNode(PCB pcb, String filePath) {
         if(filePath == null || filePath.isEmpty()) {
             return null;
         }
 
-        //拆分路径并处理特殊字符
-        List<String> parts = new ArrayList<>();
-        boolean isAbsolute = filePath.startsWith("/");
-        String[] segments = filePath.split("/");
-
-        for (String seg : segments) {
-            if (seg.equals(".") || seg.isEmpty()) {
-                continue;
-            }
-            parts.add(seg);
+        // 规范化为绝对路径后先查目录项缓存；含".."的路径不走缓存，按原逻辑逐级查找
+        String currentPath = getCurrentPath(pcb);
+        String absolutePath = normalize(currentPath, filePath);
+        if (absolutePath == null) {
+            return walk(filePath.startsWith("/") ? filePath : currentPath + "/" + filePath);
         }
+        DentryCache.Dentry dentry = dentryCache.lookup(absolutePath);
+        if (dentry != null) {
+            return dentry.getNode();
+        }
+        long generation = dentryCache.generation();
+        FileNode node = walk(absolutePath);
+        dentryCache.put(absolutePath, node, generation);
+        return node;
+    }
 
-        FileNode currentNode = isAbsolute ? root : current_node;
+    private static int contextKey(PCB pcb) {
+        return pcb == null ? CONSOLE_PID : pcb.getPid();
+    }
 
-        //处理根路径的特殊情况，例如"/"
-        if (isAbsolute && parts.isEmpty() && filePath.equals("/")) {
-            return root;
+    // 辅助方法，把路径规范化为绝对路径（去掉"."和多余的"/"），路径含".."时返回null
+    private static String normalize(String currentPath, String filePath) {
+        StringBuilder sb = new StringBuilder();
+        if (!filePath.startsWith("/") && !currentPath.equals("/")) {
+            sb.append(currentPath);
         }
+        int start = 0;
+        int length = filePath.length();
+        while (start < length) {
+            int end = filePath.indexOf('/', start);
+            if (end == -1) end = length;
+            int segLength = end - start;
+            if (segLength == 2 && filePath.startsWith("..", start)) {
+                return null;
+            }
+            if (segLength > 0 && !(segLength == 1 && filePath.charAt(start) == '.')) {
+                sb.append('/').append(filePath, start, end);
+            }
+            start = end + 1;
+        }
+        return sb.length() == 0 ? "/" : sb.toString();
+    }
 
-        for (String part : parts) {
+    // 辅助方法，从根目录逐级查找绝对路径对应的结点
+    private static FileNode walk(String absolutePath) {
+        FileNode currentNode = root;
+        int start = 0;
+        int length = absolutePath.length();
+        while (start < length) {
+            int end = absolutePath.indexOf('/', start);
+            if (end == -1) end = length;
+            String part = absolutePath.substring(start, end);
+            start = end + 1;
+            if (part.isEmpty() || part.equals(".")) {
+                continue;
+            }
             if(part.equals("..")) {
                 //如果当前结点不是根节点，则移动到父结点
                 if(currentNode != root) {
@@ -373,20 +517,14 @@ public class FileSystem {
                 if(currentNode.getFileType() != DIRECTORY) {
                     return null;
                 }
-                boolean found = false;
-                for (FileNode child : currentNode.getChildren()) {
-                    if (child.getFileName().equals(part)) {
-                        currentNode = child;
-                        found = true;
-                        break;
-                    }
-                }
-                if(!found) {
+                FileNode child = currentNode.getChild(part);
+                if(child == null) {
                     return null;
                 }
+                currentNode = child;
             }
         }
         return currentNode;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package newOs.kernel.filesystem;
+
+import lombok.Data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static newOs.kernel.DiskStorage.BlockDevice.BLOCK_SIZE;
+
+/**
+ * 文件的 inode 块内容，以紧凑的二进制头部存放在文件的第一个块中
+ *
+ * 0  魔数 "INOD"（4B）
+ * 4  版本（1B）
+ * 5  文件类型（1B，0 文件 / 1 目录）
+ * 6  文件名长度（2B）
+ * 8  创建时间（8B）
+ * 16 文件大小（8B）
+ * 24 文件名（UTF-8）
+ */
+@Data
+public class Inode {
+    public static final int MAGIC = 0x494E4F44;
+    public static final byte VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+
+    private String fileName; //文件名
+    private FileNode.FileType fileType; //文件类型
+    private long createTime; //创建时间
+    private long size; //文件大小
+
+    public Inode(String fileName, FileNode.FileType fileType, long createTime, long size) {
+        this.fileName = fileName;
+        this.fileType = fileType;
+        this.createTime = createTime;
+        this.size = size;
+    }
+
+    /**
+     * 编码为块数据
+     * @throws IllegalArgumentException 若文件名过长，放不进一个块
+     */
+    public byte[] toBytes() {
+        byte[] name = fileName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > BLOCK_SIZE - HEADER_SIZE) {
+            throw new IllegalArgumentException("文件名过长: " + fileName);
+        }
+        return ByteBuffer.allocate(HEADER_SIZE + name.length)
+                .putInt(MAGIC)
+                .put(VERSION)
+                .put((byte) (fileType == FileNode.FileType.DIRECTORY ? 1 : 0))
+                .putShort((short) name.length)
+                .putLong(createTime)
+                .putLong(size)
+                .put(name)
+                .array();
+    }
+
+    /**
+     * 从块数据解码
+     * @return inode，数据不是合法的 inode 时返回 null
+     */
+    public static Inode fromBytes(byte[] data) {
+        if (data == null || data.length < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            return null;
+        }
+        FileNode.FileType fileType = buffer.get() == 1 ? FileNode.FileType.DIRECTORY : FileNode.FileType.FILE;
+        int nameLength = buffer.getShort() & 0xFFFF;
+        long createTime = buffer.getLong();
+        long size = buffer.getLong();
+        if (buffer.remaining() < nameLength) {
+            return null;
+        }
+        String fileName = new String(data, HEADER_SIZE, nameLength, StandardCharsets.UTF_8);
+        return new Inode(fileName, fileType, createTime, size);
+    }
+}
@@ -0,0 +1,660 @@
+package newOs.kernel.filesystem;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import newOs.kernel.DiskStorage.BlockAllocator;
+import newOs.kernel.DiskStorage.BlockBufferCache;
+import newOs.kernel.DiskStorage.BlockDevice;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static newOs.kernel.DiskStorage.BlockDevice.BLOCK_SIZE;
+
+/**
+ * 文件页缓存，FileReader/FileWriter 通过它访问文件内容。
+ * 文件内容按 4KB 分页，第 i 页对应文件的第 i 个内容块（块号列表下标 i+1，下标 0 是inode块）。
+ * 所有文件共用一个页数上限，超出时按 LRU 淘汰；读取只调入请求范围内的页，
+ * 写入只修改页并标记为脏，脏页由后台定时任务写回块缓存，不再逐块同步；
+ * 流式追加写结束时则把新块链接、使用状态、修改过的页和 inode 中的文件大小在一个事务中直接提交；
+ * 追加中途失败时撤销本次追加，提交失败时块链接留待下一次写回重试。
+ *
+ * 全局锁只保护页表本身，持锁期间不做块 I/O；同一文件的读写由按文件 id 分段的文件锁串行，
+ * 不同文件的访问互不阻塞。缺页时在全局锁外从块缓存调入，装入页表前再检查一次；
+ * 页内容的修改和写回快照在页对象上同步。淘汰其他文件的页前先尝试获取该文件的锁，
+ * 拿不到就跳过，保证页不会在文件持有者修改它时被移出页表。
+ */
+@Slf4j
+@Component
+public class MemoryManager {
+
+    private static final int FILE_LOCK_STRIPES = 64;
+
+    private final BlockBufferCache blockCache;
+    private final BlockAllocator blockAllocator;
+    private final BlockDevice blockDevice;
+    private final int maxPages;
+
+    // 保护 pages，持锁期间不做块 I/O
+    private final ReentrantLock lock = new ReentrantLock();
+    // 文件锁，按文件 id 分段；同一文件的读、写、截断和追加在同一把锁内进行
+    private final ReentrantLock[] fileLocks = new ReentrantLock[FILE_LOCK_STRIPES];
+    // 访问顺序的 LinkedHashMap，键为 (文件id << 32 | 页号)，表头即最久未使用的页
+    private final LinkedHashMap<Long, Page> pages;
+    // 提交失败、尚未写入块设备的块链接：块号 -> 下一个块号，由全局锁保护
+    private final Map<Integer, Integer> pendingLinks = new LinkedHashMap<>();
+    // 已调入（由页缓存管理）的文件
+    private final Set<FileNode> loadedFiles = ConcurrentHashMap.newKeySet();
+
+    // 统计信息
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong writeBacks = new AtomicLong();
+
+    @Autowired
+    public MemoryManager(BlockBufferCache blockCache, BlockAllocator blockAllocator, BlockDevice blockDevice,
+                         @Value("${fs.page-cache.max-pages:1024}") int maxPages) {
+        this.blockCache = blockCache;
+        this.blockAllocator = blockAllocator;
+        this.blockDevice = blockDevice;
+        this.maxPages = Math.max(1, maxPages);
+        this.pages = new LinkedHashMap<>(this.maxPages * 4 / 3 + 1, 0.75f, true);
+        for (int i = 0; i < FILE_LOCK_STRIPES; i++) {
+            fileLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 文件是否已由页缓存管理
+     */
+    public boolean isFileLoaded(FileNode fileNode) {
+        return loadedFiles.contains(fileNode);
+    }
+
+    /**
+     * 把文件交给页缓存管理。页在首次访问时才从磁盘调入，这里不读取任何块
+     * @return 是否成功
+     */
+    public boolean loadFromDisk(FileNode fileNode) {
+        if (fileNode == null || fileNode.getBlockNumbers().isEmpty()) {
+            return false;
+        }
+        loadedFiles.add(fileNode);
+        return true;
+    }
+
+    /**
+     * 读取文件的全部内容
+     */
+    public byte[] readFileContent(FileNode fileNode) throws SQLException {
+        return read(fileNode, 0, fileNode.getSize());
+    }
+
+    public byte[] getFileContent(FileNode fileNode) throws SQLException {
+        return readFileContent(fileNode);
+    }
+
+    /**
+     * 读取文件的一段内容，只调入涉及的页
+     * @param offset 起始偏移
+     * @param length 读取长度，超出文件末尾的部分被截掉
+     * @return 读到的内容，块缺失时返回 null
+     */
+    public byte[] read(FileNode fileNode, int offset, int length) throws SQLException {
+        int end = Math.min(fileNode.getSize(), offset + length);
+        if (offset >= end) {
+            return new byte[0];
+        }
+        byte[] result = new byte[end - offset];
+        ReentrantLock fileLock = fileLock(fileNode);
+        fileLock.lock();
+        try {
+            int position = offset;
+            while (position < end) {
+                int pageIndex = position / BLOCK_SIZE;
+                int pageOffset = position % BLOCK_SIZE;
+                Page page = getPage(fileNode, pageIndex);
+                if (page == null) {
+                    return null;
+                }
+                int count = Math.min(end - position, Math.max(0, page.length - pageOffset));
+                if (count == 0) {
+                    // 页内数据比文件大小记录的短，说明块内容不完整
+                    return null;
+                }
+                System.arraycopy(page.data, pageOffset, result, position - offset, count);
+                position += count;
+            }
+            return result;
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * 覆盖写入文件的全部内容
+     */
+    public void writeFileContent(FileNode fileNode, byte[] content) throws SQLException {
+        ReentrantLock fileLock = fileLock(fileNode);
+        fileLock.lock();
+        try {
+            write(fileNode, 0, content, 0, content.length);
+            truncate(fileNode, content.length);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * 在文件的指定偏移写入数据，必要时为文件分配新的内容块；只修改页并标记为脏
+     * @param offset 文件内偏移，不能超过当前文件大小
+     */
+    public void write(FileNode fileNode, int offset, byte[] data, int dataOffset, int length) throws SQLException {
+        ReentrantLock fileLock = fileLock(fileNode);
+        fileLock.lock();
+        try {
+            writePages(fileNode, offset, data, dataOffset, length, null);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * 在文件末尾追加数据
+     */
+    public void append(FileNode fileNode, byte[] data) throws SQLException {
+        ReentrantLock fileLock = fileLock(fileNode);
+        fileLock.lock();
+        try {
+            writePages(fileNode, fileNode.getSize(), data, 0, data.length, null);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * 以流的方式在文件末尾追加数据。
+     * 输入按块大小分段读取，只修改末尾页和新分配的块；写完后把新块的链接、使用状态、
+     * 本次修改过的页和 inode 中的文件大小在一个事务中提交到块设备。
+     * 读取输入或写入页失败（包括没有空闲块）时撤销本次追加：恢复文件大小，
+     * 归还新分配的块，块设备上的内容不变。调用方需保证同一文件同时只有一个流式追加（FileWriter 的写信号量）
+     * @return 写入的字节数
+     */
+    public int append(FileNode fileNode, InputStream input) throws SQLException, IOException {
+        AppendSession session = new AppendSession();
+        ReentrantLock fileLock = fileLock(fileNode);
+        fileLock.lock();
+        try {
+            session.baseSize = fileNode.getSize();
+            session.baseBlockCount = fileNode.getBlockNumbers().size();
+        } finally {
+            fileLock.unlock();
+        }
+        byte[] chunk = new byte[BLOCK_SIZE];
+        int total = 0;
+        int n;
+        try {
+            // 读取输入时不持有锁，避免慢速输入阻塞同一文件的读取
+            while ((n = input.readNBytes(chunk, 0, BLOCK_SIZE)) > 0) {
+                fileLock.lock();
+                try {
+                    writePages(fileNode, fileNode.getSize(), chunk, 0, n, session);
+                } finally {
+                    fileLock.unlock();
+                }
+                total += n;
+            }
+        } catch (IOException | SQLException | RuntimeException e) {
+            fileLock.lock();
+            try {
+                rollback(fileNode, session);
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            } finally {
+                fileLock.unlock();
+            }
+            throw e;
+        }
+        fileLock.lock();
+        try {
+            commit(fileNode, session);
+        } finally {
+            fileLock.unlock();
+        }
+        return total;
+    }
+
+    /**
+     * 丢弃文件的所有页（不写回），用于文件被删除时
+     */
+    public void invalidate(FileNode fileNode) {
+        lock.lock();
+        try {
+            loadedFiles.remove(fileNode);
+            pages.values().removeIf(page -> page.file == fileNode);
+            // 块即将被释放，不再补写它们的链接
+            pendingLinks.keySet().removeAll(fileNode.getBlockNumbers());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 把所有脏页写回块缓存，并重试之前提交失败的块链接
+     */
+    @Scheduled(fixedRateString = "${fs.page-cache.flush-ms:1000}")
+    public void flush() {
+        List<Page> dirty = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Page page : pages.values()) {
+                if (page.dirty) {
+                    dirty.add(page);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            for (Page page : dirty) {
+                writeBack(page);
+            }
+        } catch (SQLException e) {
+            log.error("页缓存写回失败: " + e.getMessage());
+        }
+        flushPendingLinks();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getWriteBacks() {
+        return writeBacks.get();
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pages.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 获取页，不在缓存中时在全局锁外从块缓存调入；调用方需持有该文件的锁
+    private Page getPage(FileNode fileNode, int pageIndex) throws SQLException {
+        long key = pageKey(fileNode, pageIndex);
+        lock.lock();
+        try {
+            Page page = pages.get(key);
+            if (page != null) {
+                hits.incrementAndGet();
+                return page;
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.incrementAndGet();
+        List<Integer> blockNumbers = fileNode.getBlockNumbers();
+        if (pageIndex + 1 >= blockNumbers.size()) {
+            return null;
+        }
+        int blockNumber = blockNumbers.get(pageIndex + 1);
+        byte[] blockData = blockCache.read(blockNumber);
+        if (blockData == null) {
+            return null;
+        }
+        Page page = new Page(fileNode, blockNumber);
+        System.arraycopy(blockData, 0, page.data, 0, blockData.length);
+        page.length = blockData.length;
+        return install(key, page);
+    }
+
+    // 把调入的页装入页表，页已存在时返回已有的页；淘汰出的脏页在释放全局锁后写回
+    private Page install(long key, Page page) throws SQLException {
+        List<Victim> victims;
+        lock.lock();
+        try {
+            Page existing = pages.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            victims = evictIfFull();
+            pages.put(key, page);
+        } finally {
+            lock.unlock();
+        }
+        writeBack(victims);
+        return page;
+    }
+
+    // 页数达到上限时淘汰最久未使用的页；只淘汰本线程持有文件锁或能立即拿到文件锁的页，
+    // 拿到的文件锁在写回完成后才释放，期间该文件不能重新调入旧内容；调用方需持有全局锁
+    private List<Victim> evictIfFull() {
+        List<Victim> victims = new ArrayList<>();
+        Iterator<Map.Entry<Long, Page>> it = pages.entrySet().iterator();
+        while (pages.size() >= maxPages && it.hasNext()) {
+            Map.Entry<Long, Page> eldest = it.next();
+            ReentrantLock fileLock = fileLock(eldest.getValue().file);
+            ReentrantLock acquired = null;
+            if (!fileLock.isHeldByCurrentThread()) {
+                if (!fileLock.tryLock()) {
+                    continue;
+                }
+                acquired = fileLock;
+            }
+            victims.add(new Victim(eldest.getKey(), eldest.getValue(), acquired));
+            it.remove();
+            evictions.incrementAndGet();
+        }
+        return victims;
+    }
+
+    // 写回被淘汰的脏页并释放淘汰时拿到的文件锁；写回失败的页放回页表，保持为脏
+    private void writeBack(List<Victim> victims) throws SQLException {
+        SQLException failure = null;
+        for (Victim victim : victims) {
+            try {
+                writeBack(victim.page);
+            } catch (SQLException e) {
+                lock.lock();
+                try {
+                    pages.putIfAbsent(victim.key, victim.page);
+                } finally {
+                    lock.unlock();
+                }
+                if (failure == null) {
+                    failure = e;
+                }
+            } finally {
+                if (victim.fileLock != null) {
+                    victim.fileLock.unlock();
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // 脏页写回块缓存，与页内容的修改在页对象上同步
+    private void writeBack(Page page) throws SQLException {
+        synchronized (page) {
+            if (!page.dirty) {
+                return;
+            }
+            blockCache.write(page.blockNumber, Arrays.copyOf(page.data, page.length));
+            page.dirty = false;
+        }
+        writeBacks.incrementAndGet();
+    }
+
+    // 把数据写入页并标记为脏，session 不为 null 时新块的链接推迟到 commit 时提交；调用方需持有该文件的锁
+    private void writePages(FileNode fileNode, int offset, byte[] data, int dataOffset, int length,
+                            AppendSession session) throws SQLException {
+        if (offset > fileNode.getSize()) {
+            throw new IllegalArgumentException("写入偏移超过文件末尾: " + offset);
+        }
+        int end = offset + length;
+        ensureBlocks(fileNode, end, session);
+        int position = offset;
+        while (position < end) {
+            int pageIndex = position / BLOCK_SIZE;
+            int pageOffset = position % BLOCK_SIZE;
+            Page page = getPage(fileNode, pageIndex);
+            if (page == null) {
+                throw new SQLException("Missing block for page " + pageIndex);
+            }
+            int count = Math.min(end - position, BLOCK_SIZE - pageOffset);
+            synchronized (page) {
+                System.arraycopy(data, dataOffset + position - offset, page.data, pageOffset, count);
+                page.length = Math.max(page.length, pageOffset + count);
+                page.dirty = true;
+            }
+            if (session != null) {
+                session.touchedPages.add(page);
+            }
+            position += count;
+        }
+        loadedFiles.add(fileNode);
+        if (end > fileNode.getSize()) {
+            fileNode.setSize(end);
+        }
+    }
+
+    // 保证文件有足够的内容块容纳 size 字节，不够时分配新块并接到块链末尾；调用方需持有该文件的锁
+    private void ensureBlocks(FileNode fileNode, int size, AppendSession session) throws SQLException {
+        List<Integer> blockNumbers = fileNode.getBlockNumbers();
+        int pagesNeeded = Math.max(1, (size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        while (blockNumbers.size() < pagesNeeded + 1) {
+            int newBlockNumber = blockAllocator.allocate();
+            if (newBlockNumber < 0) {
+                throw new SQLException("Not enough free blocks");
+            }
+            int tailBlockNumber = blockNumbers.get(blockNumbers.size() - 1);
+            if (session != null) {
+                session.nextBlocks.put(tailBlockNumber, newBlockNumber);
+                session.newBlocks.add(newBlockNumber);
+            } else {
+                blockDevice.updateNextBlock(tailBlockNumber, newBlockNumber);
+            }
+            blockNumbers.add(newBlockNumber);
+        }
+    }
+
+    // 在一个事务中提交追加写产生的块链接、块使用状态、仍驻留的脏页和 inode 中的文件大小，
+    // 之前提交失败的块链接一并提交。失败时使用状态交还分配器、块链接留待重试、
+    // inode 写入块缓存，页保持为脏，都由各自的定时任务写回；调用方需持有该文件的锁
+    private void commit(FileNode fileNode, AppendSession session) throws SQLException {
+        Map<Integer, byte[]> data = new LinkedHashMap<>();
+        List<Page> committedPages = new ArrayList<>();
+        for (Page page : session.touchedPages) {
+            // 期间已被写回或淘汰的页由块缓存负责落盘
+            synchronized (page) {
+                if (page.dirty) {
+                    data.put(page.blockNumber, Arrays.copyOf(page.data, page.length));
+                    committedPages.add(page);
+                }
+            }
+        }
+        int inodeBlockNumber = fileNode.getBlockNumbers().get(0);
+        byte[] inodeData = inodeWithSize(fileNode, inodeBlockNumber);
+        data.put(inodeBlockNumber, inodeData);
+
+        Map<Integer, Integer> links = takePendingLinks();
+        links.putAll(session.nextBlocks);
+        Map<Integer, Boolean> usage = blockAllocator.takePendingUsage(session.newBlocks);
+        // 事务直接写块设备，先在块缓存中登记这些块，避免旧的定时写回或淘汰写回落在事务之后
+        blockCache.beginDirectWrite(data.keySet());
+        try {
+            blockDevice.commitBlockChain(links, usage, data);
+        } catch (SQLException | RuntimeException e) {
+            blockCache.endDirectWrite(data, false);
+            blockAllocator.restorePendingUsage(usage);
+            restorePendingLinks(links);
+            try {
+                blockCache.write(inodeBlockNumber, inodeData);
+            } catch (SQLException writeFailure) {
+                e.addSuppressed(writeFailure);
+            }
+            throw e;
+        }
+        // 已落盘的数据作为干净块放入缓存
+        blockCache.endDirectWrite(data, true);
+        for (Page page : committedPages) {
+            synchronized (page) {
+                page.dirty = false;
+            }
+        }
+        writeBacks.addAndGet(committedPages.size());
+    }
+
+    // 撤销一次未提交的流式追加：丢弃并归还新分配的块，文件截回追加前的大小；调用方需持有该文件的锁
+    private void rollback(FileNode fileNode, AppendSession session) throws SQLException {
+        List<Integer> blockNumbers = fileNode.getBlockNumbers();
+        List<Integer> appended = new ArrayList<>(blockNumbers.subList(session.baseBlockCount, blockNumbers.size()));
+        if (!appended.isEmpty()) {
+            lock.lock();
+            try {
+                for (int i = session.baseBlockCount; i < blockNumbers.size(); i++) {
+                    pages.remove(pageKey(fileNode, i - 1));
+                }
+            } finally {
+                lock.unlock();
+            }
+            blockNumbers.subList(session.baseBlockCount, blockNumbers.size()).clear();
+            blockCache.invalidate(appended);
+            blockAllocator.free(appended);
+        }
+        // 末尾页上追加的部分被截掉，页保持为脏，由定时任务写回
+        truncate(fileNode, session.baseSize);
+    }
+
+    // 读取 inode 块并把文件大小改为当前大小，返回新的块数据
+    private byte[] inodeWithSize(FileNode fileNode, int inodeBlockNumber) throws SQLException {
+        Inode inode = Inode.fromBytes(blockCache.read(inodeBlockNumber));
+        if (inode == null) {
+            inode = new Inode(fileNode.getFileName(), fileNode.getFileType(), System.currentTimeMillis(), 0);
+        }
+        inode.setSize(fileNode.getSize());
+        return inode.toBytes();
+    }
+
+    private Map<Integer, Integer> takePendingLinks() {
+        lock.lock();
+        try {
+            Map<Integer, Integer> links = new LinkedHashMap<>(pendingLinks);
+            pendingLinks.clear();
+            return links;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 放回未写入的块链接，期间又被记下的新链接以新值为准
+    private void restorePendingLinks(Map<Integer, Integer> links) {
+        lock.lock();
+        try {
+            links.forEach(pendingLinks::putIfAbsent);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 重试之前提交失败的块链接
+    private void flushPendingLinks() {
+        Map<Integer, Integer> links = takePendingLinks();
+        if (links.isEmpty()) {
+            return;
+        }
+        try {
+            blockDevice.commitBlockChain(links, Map.of(), Map.of());
+        } catch (SQLException e) {
+            restorePendingLinks(links);
+            log.error("块链接写回失败: " + e.getMessage());
+        }
+    }
+
+    // 截断文件到 size 字节，多出的页长度清零（块仍归文件所有）；调用方需持有该文件的锁
+    private void truncate(FileNode fileNode, int size) throws SQLException {
+        int lastPage = fileNode.getBlockNumbers().size() - 2;
+        for (int pageIndex = size / BLOCK_SIZE; pageIndex <= lastPage; pageIndex++) {
+            Page page = getPage(fileNode, pageIndex);
+            if (page == null) break;
+            int length = Math.max(0, size - pageIndex * BLOCK_SIZE);
+            synchronized (page) {
+                if (page.length > length) {
+                    page.length = length;
+                    page.dirty = true;
+                }
+            }
+        }
+        fileNode.setSize(size);
+    }
+
+    private ReentrantLock fileLock(FileNode fileNode) {
+        return fileLocks[Math.floorMod(fileNode.getId(), FILE_LOCK_STRIPES)];
+    }
+
+    private static long pageKey(FileNode fileNode, int pageIndex) {
+        return ((long) fileNode.getId() << 32) | (pageIndex & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 一次流式追加写中积累的变更
+     */
+    private static class AppendSession {
+        // 追加开始前的文件大小和块数，撤销时恢复到这里
+        private int baseSize;
+        private int baseBlockCount;
+        private final Map<Integer, Integer> nextBlocks = new LinkedHashMap<>();
+        private final List<Integer> newBlocks = new ArrayList<>();
+        private final Set<Page> touchedPages = new LinkedHashSet<>();
+    }
+
+    /**
+     * 被淘汰的页，fileLock 为淘汰时拿到、写回后需释放的文件锁
+     */
+    private static class Victim {
+        private final long key;
+        private final Page page;
+        private final ReentrantLock fileLock;
+
+        private Victim(long key, Page page, ReentrantLock fileLock) {
+            this.key = key;
+            this.page = page;
+            this.fileLock = fileLock;
+        }
+    }
+
+    /**
+     * 缓存页
+     */
+    private static class Page {
+        private final FileNode file;
+        private final int blockNumber;
+        private final byte[] data = new byte[BLOCK_SIZE];
+        private int length;
+        private boolean dirty;
+
+        private Page(FileNode file, int blockNumber) {
+            this.file = file;
+            this.blockNumber = blockNumber;
+        }
+    }
+}
@@ -3,13 +3,20 @@ package newOs.kernel.interrupt;
 import newOs.common.InterruptConstant.InterruptType;
 import newOs.component.memory.protected1.ProtectedMemory;
 import newOs.dto.req.Info.InfoImplDTO.DeviceInfoReturnImplDTO;
+import newOs.dto.req.Info.InfoImplDTO.InterruptMissTLBInfo;
+import newOs.dto.req.Info.InfoImplDTO.InterruptPageFaultInfo;
+import newOs.dto.req.Info.InfoImplDTO.InterruptPageFaultReturnInfo;
 import newOs.dto.req.Info.InfoImplDTO.ProcessInfoImplDTO;
 import newOs.dto.req.Info.InterruptInfo;
 import newOs.dto.req.Info.InterruptSysCallInfo;
 import newOs.dto.req.Info.TimerInfo;
+import newOs.dto.resp.SysCallManage.SyscallStatRespDTO;
+import newOs.kernel.interrupt.sysCallHandler.SyscallFrame;
+import newOs.kernel.interrupt.sysCallHandler.SystemCallHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static newOs.common.InterruptConstant.InterruptType.SYSTEM_CALL;
@@ -36,6 +43,28 @@ public class InterruptController {
         InterruptInfo interruptInfo = IDT.get(SYSTEM_CALL).execute(sysCallInfo);
         return (InterruptSysCallInfo) interruptInfo;
     }
+
+    /**
+     * 取得核心的系统调用帧，进程在核心上执行系统调用时填入参数后交给 triggerSystemCall
+     */
+    public SyscallFrame syscallFrame(int coreId) {
+        return systemCallHandler().frame(coreId);
+    }
+
+    public SyscallFrame triggerSystemCall(SyscallFrame frame) {
+        //按系统调用号查系统调用表，结果写回帧
+        systemCallHandler().dispatch(frame);
+        return frame;
+    }
+
+    public List<SyscallStatRespDTO> getSyscallStats() {
+        return systemCallHandler().getSyscallStats();
+    }
+
+    // 0x80 对应的处理程序就是系统调用表所在的 SystemCallHandler
+    private SystemCallHandler systemCallHandler() {
+        return (SystemCallHandler) IDT.get(SYSTEM_CALL);
+    }
     public void triggerTimer(TimerInfo timerInfo) {
         //默认是0x20，直接调用TimerHandler
         IDT.get(TIMER).execute(timerInfo);
@@ -46,13 +75,14 @@ public class InterruptController {
         IDT.get(InterruptType.IO_INTERRUPT).execute(deviceInfoReturnImplDTO);
     }
 
-    public InterruptMissTLBReturnInfo trigger ...
-    !{
-    !    ...
-    !}
+    public InterruptMissTLBInfo triggerMissTLB(InterruptMissTLBInfo missTLBInfo) {
+        //TLB 未命中，遍历页表，结果写回 missTLBInfo
+        IDT.get(InterruptType.MISS_TLB).execute(missTLBInfo);
+        return missTLBInfo;
+    }
 
-    !public InterruptPageFaultReturnInfo triggerPageFault(InterruptPageFaultInfo pageFaultInfo){
-    !       InterruptPageFaultReturnInfo interuptPageFaultReturnInfo = IDT.get(InterruptType.PAGE_FAULT).execute(pageFaultInfo);
-    !       return interruptPageFaultReturnInfo;
-    !}
+    public InterruptPageFaultReturnInfo triggerPageFault(InterruptPageFaultInfo pageFaultInfo){
+        //缺页，调入页面后返回
+        return (InterruptPageFaultReturnInfo) IDT.get(InterruptType.PAGE_FAULT).execute(pageFaultInfo);
+    }
 }
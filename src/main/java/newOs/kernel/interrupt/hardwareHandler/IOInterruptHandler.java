@@ -1,29 +1,27 @@
 package newOs.kernel.interrupt.hardwareHandler;
 
-import newOs.component.memory.protected1.PCB;
-import newOs.component.memory.protected1.ProtectedMemory;
 import newOs.dto.req.Info.InfoImplDTO.DeviceInfoReturnImplDTO;
 import newOs.dto.req.Info.InterruptInfo;
 import newOs.kernel.interrupt.ISR;
+import newOs.kernel.process.scheduler.SideScheduler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
-
 
 @Component
 public class IOInterruptHandler implements ISR<DeviceInfoReturnImplDTO> {
-    private final ConcurrentLinkedQueue<PCB> irlIO;
+    private final SideScheduler sideScheduler;
 
     @Autowired
-    public IOInterruptHandler(ProtectedMemory protectedMemory) {
-        this.irlIO = protectedMemory.getIrlIO();
+    public IOInterruptHandler(SideScheduler sideScheduler) {
+        this.sideScheduler = sideScheduler;
     }
 
 
+    //IO完成后直接把进程放回就绪队列并唤醒核心，不再等待调度器轮询
     @Override
     public InterruptInfo execute(DeviceInfoReturnImplDTO interruptDeviceInfo) {
-        irlIO.add(interruptDeviceInfo.getPcb());
+        sideScheduler.ioCompleted(interruptDeviceInfo.getPcb());
         return  null;
     }
 }
@@ -12,6 +12,9 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import static newOs.common.InterruptConstant.InterruptType.RESCHEDULE;
+import static newOs.common.InterruptConstant.InterruptType.TIMER;
+
 @Component
 public class ISRHandler {
     private  final ProtectedMemory protectedMemory;
@@ -23,6 +26,9 @@ public class ISRHandler {
 
     private final ConcurrentLinkedQueue<PCB> irlIO;
 
+    private static final long TIMER_BIT = InterruptRequestLine.bit(TIMER);
+    private static final long RESCHEDULE_BIT = InterruptRequestLine.bit(RESCHEDULE);
+
     @Autowired
     public ISRHandler(ProtectedMemory protectedMemory) {
         this.protectedMemory = protectedMemory;
@@ -32,19 +38,20 @@ public class ISRHandler {
     }
 
 
-    //用于处理IRL线上 关于TIMRER的中断
-    public int handlIsrInterrupt(PCB pcb){
+    //用于处理IRL线上 关于TIMRER的中断，一次响应本核心全部挂起的中断
+    public int handlIsrInterrupt(PCB pcb, InterruptRequestLine irl){
         int isSwitchProcess = 0;
-        InterruptRequestLine irl = irlTable.get(Thread.currentThread().getId());
-        String interruptRequest;
-        while((interruptRequest = irl.poll())!=null){
-            if (interruptRequest.equals("TIMER_INTERRUPT")) {
-                //如果中断等于定时器中断
-                if (pcb.getRemainingTime() < 0) {   //时间片耗尽
-                    isSwitchProcess = 1; //设置切换位为1
-                }
+        long interruptRequests = irl.acknowledgeAll();
+        if ((interruptRequests & TIMER_BIT) != 0) {
+            //如果中断等于定时器中断
+            if (pcb.getRemainingTime() < 0) {   //时间片耗尽
+                isSwitchProcess = 1; //设置切换位为1
             }
         }
+        if ((interruptRequests & RESCHEDULE_BIT) != 0) {
+            //有更短的作业就绪，当前进程被抢占
+            isSwitchProcess = 1;
+        }
 
 
         return  isSwitchProcess;
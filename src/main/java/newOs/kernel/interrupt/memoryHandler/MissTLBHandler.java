@@ -0,0 +1,33 @@
+package newOs.kernel.interrupt.memoryHandler;
+
+
+import newOs.dto.req.Info.InfoImplDTO.InterruptMissTLBInfo;
+import newOs.kernel.interrupt.ISR;
+import newOs.kernel.memory.service.TLBService;
+import newOs.kernel.memory.service.VirtualMemoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * TLB 未命中处理：遍历段表和页表完成地址转换（必要时缺页调入），再填入本核心的 TLB。
+ * 越界访问等错误以 MemoryException 抛给执行的进程
+ */
+@Component
+public class MissTLBHandler implements ISR<InterruptMissTLBInfo> {
+
+    private final VirtualMemoryService virtualMemoryService;
+    private final TLBService tlbService;
+
+    @Autowired
+    public MissTLBHandler(VirtualMemoryService virtualMemoryService, TLBService tlbService) {
+        this.virtualMemoryService = virtualMemoryService;
+        this.tlbService = tlbService;
+    }
+
+    @Override
+    public InterruptMissTLBInfo execute(InterruptMissTLBInfo info) {
+        int physicalAddress = virtualMemoryService.translate(info.getPcb(), info.getLogicalAddress(), info.isWrite());
+        tlbService.refill(info.getCoreId(), info.getPcb().getAsid(), info.getLogicalAddress(), physicalAddress, info.isWrite());
+        return info.setPhysicalAddress(physicalAddress);
+    }
+}
@@ -1,10 +1,30 @@
 package newOs.kernel.interrupt.memoryHandler;
 
 
+import newOs.dto.req.Info.InfoImplDTO.InterruptPageFaultInfo;
+import newOs.dto.req.Info.InfoImplDTO.InterruptPageFaultReturnInfo;
+import newOs.kernel.interrupt.ISR;
+import newOs.kernel.memory.service.VirtualMemoryService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+/**
+ * 缺页处理：为页面取得一个帧（没有空闲帧时按置换策略换出一页），
+ * 页面在交换区中则读回，否则清零，然后填写页表项。
+ * 没有可用的帧且交换区已满时抛出 PageFaultException，进程终止
+ */
 @Component
-public class PageFaultHandler {
+public class PageFaultHandler implements ISR<InterruptPageFaultInfo> {
 
+    private final VirtualMemoryService virtualMemoryService;
 
+    @Autowired
+    public PageFaultHandler(VirtualMemoryService virtualMemoryService) {
+        this.virtualMemoryService = virtualMemoryService;
+    }
+
+    @Override
+    public InterruptPageFaultReturnInfo execute(InterruptPageFaultInfo info) {
+        return virtualMemoryService.handlePageFault(info.getPcb(), info.getPageTableId(), info.getPage(), info.getVpn());
+    }
 }
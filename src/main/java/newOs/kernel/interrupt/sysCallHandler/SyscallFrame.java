@@ -0,0 +1,45 @@
+package newOs.kernel.interrupt.sysCallHandler;
+
+import com.alibaba.fastjson.JSONObject;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import newOs.common.InterruptConstant.SystemCallType;
+import newOs.common.fileSystemConstant.DeviceStatusType;
+import newOs.component.memory.protected1.PCB;
+import newOs.dto.req.Info.InterruptSysCallInfo;
+
+/**
+ * 系统调用的参数和结果帧。
+ * 每个核心一个，进程在核心上执行系统调用时复用，不再为每次调用创建请求 DTO 和参数 JSONObject；
+ * 同一核心同时只运行一个进程，所以帧只被一个线程使用。
+ */
+@Data
+@Accessors(chain = true)
+public class SyscallFrame {
+    // 参数
+    private SystemCallType systemCallType;
+    private PCB pcb;
+    // 进程名或设备名
+    private String name;
+    private String[] instructions;
+    // 其他参数，复用时清空
+    private final JSONObject args = new JSONObject();
+
+    // 结果
+    private InterruptSysCallInfo result;
+    private DeviceStatusType deviceStatusType;
+
+    /**
+     * 清空上一次调用留下的参数和结果
+     */
+    public SyscallFrame reset() {
+        systemCallType = null;
+        pcb = null;
+        name = null;
+        instructions = null;
+        args.clear();
+        result = null;
+        deviceStatusType = null;
+        return this;
+    }
+}
@@ -0,0 +1,11 @@
+package newOs.kernel.interrupt.sysCallHandler;
+
+import newOs.dto.req.Info.InterruptSysCallInfo;
+
+/**
+ * 系统调用表中的处理函数，从帧中取参数，返回结果（没有结果时返回 null）
+ */
+@FunctionalInterface
+public interface SyscallFunction {
+    InterruptSysCallInfo call(SyscallFrame frame);
+}
@@ -2,72 +2,170 @@ package newOs.kernel.interrupt.sysCallHandler;
 
 
 import newOs.common.InterruptConstant.SystemCallType;
+import newOs.component.cpu.X86CPUSimulator;
 import newOs.component.memory.protected1.PCB;
 import newOs.dto.req.Info.InfoImplDTO.DeviceInfoImplDTO;
+import newOs.dto.req.Info.InfoImplDTO.DeviceInfoReturnImplDTO;
 //import newOs.dto.req.Info.InfoImplDTO.FileInfoImplDTO;
 import newOs.dto.req.Info.InfoImplDTO.ProcessInfoImplDTO;
 import newOs.dto.req.Info.InterruptSysCallInfo;
+import newOs.dto.resp.SysCallManage.SyscallStatRespDTO;
 import newOs.exception.OSException;
 import newOs.kernel.device.DeviceManager;
 import newOs.kernel.interrupt.ISR;
+import newOs.kernel.memory.service.VirtualMemoryService;
 import newOs.kernel.process.ProcessManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static newOs.common.InterruptConstant.SystemCallType.*;
 import static newOs.tools.ProcessTool.getPid;
 
+/**
+ * 系统调用处理。
+ * 处理函数在启动时绑定到按系统调用号下标的系统调用表中，调用时按号取出直接执行；
+ * 每次调用记录耗时，按系统调用类型统计。
+ */
 @Component
 public class SystemCallHandler implements ISR<InterruptSysCallInfo> {
 
 
     private final ProcessManager processManager;
     private final DeviceManager deviceManager;
+    private final VirtualMemoryService virtualMemoryService;
+
+    // 系统调用表：系统调用号 -> 处理函数，未实现的为 null
+    private final SyscallFunction[] syscallTable;
+    // 各核心的系统调用帧（下标0不用）
+    private final SyscallFrame[] coreFrames;
+
+    // 按系统调用号统计的调用次数、总耗时、最大耗时（纳秒）
+    private final LongAdder[] callCounts;
+    private final LongAdder[] callNanos;
+    private final AtomicLong[] maxNanos;
 
     @Autowired
-    public SystemCallHandler(ProcessManager processManager, DeviceManager deviceManager) {
+    public SystemCallHandler(ProcessManager processManager, DeviceManager deviceManager, X86CPUSimulator x86CPUSimulator,
+                             VirtualMemoryService virtualMemoryService) {
         this.processManager = processManager;
         this.deviceManager = deviceManager;
+        this.virtualMemoryService = virtualMemoryService;
+
+        int size = 0;
+        for (SystemCallType type : SystemCallType.values()) {
+            size = Math.max(size, type.getSyscallNumber() + 1);
+        }
+        this.syscallTable = new SyscallFunction[size];
+        this.callCounts = new LongAdder[size];
+        this.callNanos = new LongAdder[size];
+        this.maxNanos = new AtomicLong[size];
+        for (int i = 0; i < size; i++) {
+            callCounts[i] = new LongAdder();
+            callNanos[i] = new LongAdder();
+            maxNanos[i] = new AtomicLong();
+        }
+
+        this.coreFrames = new SyscallFrame[x86CPUSimulator.getExecutors().length];
+        for (int i = 0; i < coreFrames.length; i++) {
+            coreFrames[i] = new SyscallFrame();
+        }
+
+        //进程管理
+        // 调用 ProcessManager 创建进程，并返回相应的 ProcessInfoImpl
+        bind(CREATE_PROCESS, frame -> processManager.createProcess(frame.getName(), frame.getArgs(), frame.getInstructions()));
+        bind(EXECUTE_PROCESS, frame -> {
+            PCB pcb = processManager.getPcbTable().get(getPid(frame.getName()));
+            processManager.executeProcess(pcb);
+            return null;
+        });
+        bind(SWITCH_STRATEGY, frame -> {
+            processManager.switchStrategy(frame.getArgs().getString("strategy"));
+            return null;
+        });
+        //设备管理
+        bind(OPEN_FILE, frame -> deviceResult(frame, deviceManager.openDevice(frame.getName(), frame.getPcb())));
+        bind(CLOSE_FILE, frame -> deviceResult(frame, deviceManager.closeDevice(frame.getName(), frame.getPcb())));
+        bind(READ_FILE, frame -> deviceResult(frame, deviceManager.readDevice(frame.getName(), frame.getPcb())));
+        bind(WRITE_FILE, frame -> deviceResult(frame, deviceManager.writeDevice(frame.getName(), frame.getPcb(), frame.getArgs())));
+        //内存管理
+        bind(ALLOCATE_MEMORY, frame -> {
+            virtualMemoryService.allocate(frame.getPcb(), frame.getArgs().getLongValue("size"));
+            return null;
+        });
+        bind(DEALLOCATE_MEMORY, frame -> {
+            virtualMemoryService.release(frame.getPcb());
+            return null;
+        });
+        // 根据需要添加更多系统调用
+    }
+
+    private void bind(SystemCallType type, SyscallFunction function) {
+        syscallTable[type.getSyscallNumber()] = function;
+    }
+
+    // 设备类系统调用把设备状态写回帧，调用方不必再检查返回值类型
+    private static InterruptSysCallInfo deviceResult(SyscallFrame frame, DeviceInfoReturnImplDTO result) {
+        if (result != null) {
+            frame.setDeviceStatusType(result.getDeviceStatusType());
+        }
+        return result;
     }
 
+    /**
+     * 取得核心的系统调用帧（已清空），只能由该核心上正在执行的进程使用
+     */
+    public SyscallFrame frame(int coreId) {
+        return coreFrames[coreId].reset();
+    }
+
+    /**
+     * 按帧中的系统调用号查表执行，结果同时写入帧
+     */
+    public InterruptSysCallInfo dispatch(SyscallFrame frame) throws OSException {
+        SystemCallType syscallType = frame.getSystemCallType();
+        int number = syscallType == null ? -1 : syscallType.getSyscallNumber();
+        SyscallFunction function = number >= 0 && number < syscallTable.length ? syscallTable[number] : null;
+        if (function == null) {
+            System.out.println("未知的系统调用: " + syscallType);
+            throw new OSException("未知的系统调用: " , "403");
+        }
+        long start = System.nanoTime();
+        try {
+            InterruptSysCallInfo result = function.call(frame);
+            frame.setResult(result);
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            callCounts[number].increment();
+            callNanos[number].add(elapsed);
+            maxNanos[number].accumulateAndGet(elapsed, Math::max);
+        }
+    }
 
+    /**
+     * 请求 DTO 形式的系统调用（来自服务层），转换成帧后查表执行
+     */
     @Override
     public InterruptSysCallInfo execute(InterruptSysCallInfo interruptSysCallInfo) throws OSException {
+        SyscallFrame frame = new SyscallFrame();
         //系统调用 进程管理
         if (interruptSysCallInfo instanceof ProcessInfoImplDTO) {
             ProcessInfoImplDTO processInfo =  (ProcessInfoImplDTO) interruptSysCallInfo;
-            SystemCallType syscallType = processInfo.getSystemCallType();
-            switch (syscallType) {
-                case CREATE_PROCESS:
-                    // 调用 ProcessManager 创建进程，并返回相应的 ProcessInfoImpl
-                    return processManager.createProcess(processInfo.getName(),processInfo.getArgs(),processInfo.getInstructions());
-                case EXECUTE_PROCESS:
-                    //return processManager.executeProcess(args.getInt("pid"));
-                    PCB pcb = processManager.getPcbTable().get(getPid(processInfo.getName()));
-                    processManager.executeProcess(pcb);
-                // 根据需要添加更多系统调用
-                    return null;
-                default:
-                    System.out.println("未知的系统调用: " + syscallType);
-                    throw new OSException("未知的系统调用: " , "403");
+            frame.setName(processInfo.getName()).setInstructions(processInfo.getInstructions());
+            if (processInfo.getArgs() != null) {
+                frame.getArgs().putAll(processInfo.getArgs());
             }
         }else if(interruptSysCallInfo instanceof DeviceInfoImplDTO){
             //设备管理
             DeviceInfoImplDTO deviceInfo = (DeviceInfoImplDTO) interruptSysCallInfo;
-            SystemCallType syscallType = deviceInfo.getSystemCallType();
-            switch (syscallType) {
-                case OPEN_FILE:
-                    // 调用 DeviceManager 打开设备，并返回相应的 DeviceInfoImpl
-                    return deviceManager.openDevice(deviceInfo.getDeviceName(),deviceInfo.getPcb());
-                case CLOSE_FILE:
-                    return deviceManager.closeDevice(deviceInfo.getDeviceName(),deviceInfo.getPcb());
-                case READ_FILE:
-                    return deviceManager.readDevice(deviceInfo.getDeviceName(),deviceInfo.getPcb());
-                case WRITE_FILE:
-                    return deviceManager.writeDevice(deviceInfo.getDeviceName(),deviceInfo.getPcb(),deviceInfo.getDeviceInfo());
-                // 根据需要添加更多系统调用
-                default:
-                    System.out.println("未知的系统调用: " + syscallType);
-                    throw new OSException("未知的系统调用: " , "403");
+            frame.setName(deviceInfo.getDeviceName()).setPcb(deviceInfo.getPcb());
+            if (deviceInfo.getDeviceInfo() != null) {
+                frame.getArgs().putAll(deviceInfo.getDeviceInfo());
             }
         }
 //        else if(interruptSysCallInfo instanceof FileInfoImplDTO){
@@ -77,6 +175,30 @@ public class SystemCallHandler implements ISR<InterruptSysCallInfo> {
         else{//暂时
             return null;
         }
+        frame.setSystemCallType(interruptSysCallInfo.getSystemCallType());
+        return dispatch(frame);
     }
-}
 
+    /**
+     * 各系统调用的调用次数和耗时，只包含被调用过的类型
+     */
+    public List<SyscallStatRespDTO> getSyscallStats() {
+        List<SyscallStatRespDTO> stats = new ArrayList<>();
+        for (SystemCallType type : SystemCallType.values()) {
+            int number = type.getSyscallNumber();
+            long count = callCounts[number].sum();
+            if (count == 0) {
+                continue;
+            }
+            long total = callNanos[number].sum();
+            stats.add(new SyscallStatRespDTO()
+                    .setSystemCallType(type.name())
+                    .setSyscallNumber(number)
+                    .setCount(count)
+                    .setTotalNanos(total)
+                    .setAverageNanos(total / count)
+                    .setMaxNanos(maxNanos[number].get()));
+        }
+        return stats;
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.stereotype.Component;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static newOs.common.InterruptConstant.InterruptType.TIMER;
+
 @Component
 public class TimerHandler implements ISR<TimerInfo> {
         private final ConcurrentHashMap<Long, InterruptRequestLine> irlTable;
@@ -26,7 +28,7 @@ public class TimerHandler implements ISR<TimerInfo> {
                 for (Long threadId : set) {
                     InterruptRequestLine irl = irlTable.get(threadId);
                     if(irl != null)
-                        irl.offer("TIMER_INTERRUPT");       //推入irl中断请求
+                        irl.raise(TIMER);       //置位irl上的定时器中断
                 }
                 return interruptInfo;   //原路返回
         }
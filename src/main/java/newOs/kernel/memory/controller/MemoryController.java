@@ -1,4 +1,55 @@
 package newOs.kernel.memory.controller;
 
+import newOs.dto.result.Result;
+import newOs.kernel.memory.service.MemoryMonitorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/one-os/cmd/memory")
 public class MemoryController {
+
+    private final MemoryMonitorService memoryMonitorService;
+
+    @Autowired
+    public MemoryController(MemoryMonitorService memoryMonitorService) {
+        this.memoryMonitorService = memoryMonitorService;
+    }
+
+    @GetMapping("/tlb-stats") // 查询各核心 TLB 的命中、未命中次数和命中率
+    public ResponseEntity<Result> queryTLBStats() {
+        Result result = Result.ok(memoryMonitorService.queryTLBStats());
+        result.setRequestId(UUID.randomUUID().toString());
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/paging-stats") // 查询缺页、换入换出次数和当前置换策略
+    public ResponseEntity<Result> queryPagingStats() {
+        Result result = Result.ok(memoryMonitorService.queryPagingStats());
+        result.setRequestId(UUID.randomUUID().toString());
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/allocator-stats") // 查询伙伴系统各阶空闲块、碎片率和 slab 缓存占用
+    public ResponseEntity<Result> queryFrameAllocatorStats() {
+        Result result = Result.ok(memoryMonitorService.queryFrameAllocatorStats());
+        result.setRequestId(UUID.randomUUID().toString());
+        return ResponseEntity.ok(result);
+    }
+
+    @PutMapping("/replacement/{policy}") // 切换页面置换策略：LRU、CLOCK、SECOND_CHANCE
+    public ResponseEntity<Result> switchReplacementPolicy(@PathVariable String policy) {
+        try {
+            memoryMonitorService.switchReplacementPolicy(policy);
+            Result result = Result.ok();
+            result.setRequestId(UUID.randomUUID().toString());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Result.fail(e.getMessage(), "400"));
+        }
+    }
 }
@@ -0,0 +1,18 @@
+package newOs.kernel.memory.exception;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 内存访问错误（越界访问、未分配内存等），进程因此终止
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class MemoryException extends RuntimeException {
+    private final String errorCode;
+
+    public MemoryException(String message, String errorCode) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+}
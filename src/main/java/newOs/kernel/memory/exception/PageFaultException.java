@@ -0,0 +1,11 @@
+package newOs.kernel.memory.exception;
+
+/**
+ * 缺页无法处理（没有可用的物理帧）
+ */
+public class PageFaultException extends MemoryException {
+
+    public PageFaultException(String message) {
+        super(message, "507");
+    }
+}
@@ -0,0 +1,181 @@
+package newOs.kernel.memory.model;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 伙伴系统：管理一段连续的物理帧 [base, base + size)，按 2 的幂个帧（阶）分配。
+ * 每一阶用一个位图记录空闲块，第 i 位表示从 base + (i << 阶) 开始的块空闲；
+ * 分配时从所需阶向上找空闲块并逐级拆分，释放时与伙伴块（块号只差最低位）逐级合并。
+ * 一个伙伴系统一把锁，多个核心并发分配时由 PhysicalMemoryService 分散到不同的伙伴系统。
+ */
+public class BuddyAllocator {
+
+    // 最大阶：一块最多 1024 帧（4MB）
+    public static final int MAX_ORDER = 10;
+
+    private final int base;
+    private final int size;
+    // 每阶的空闲块位图
+    private final long[][] freeMap;
+    // 每阶的空闲块数
+    private final int[] freeBlocks;
+    // 每阶从哪个字开始查找，避免每次从头扫描
+    private final int[] searchHint;
+    private int freeFrames;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public BuddyAllocator(int base, int size) {
+        this.base = base;
+        this.size = size;
+        this.freeMap = new long[MAX_ORDER + 1][];
+        this.freeBlocks = new int[MAX_ORDER + 1];
+        this.searchHint = new int[MAX_ORDER + 1];
+        for (int order = 0; order <= MAX_ORDER; order++) {
+            int blocks = (size + (1 << order) - 1) >>> order;
+            freeMap[order] = new long[(blocks + 63) >>> 6];
+        }
+        // 初始时按对齐的最大块划分全部帧，末尾不足一块的部分用低阶块补齐
+        int frame = 0;
+        while (frame < size) {
+            int order = Math.min(MAX_ORDER, Integer.numberOfTrailingZeros(frame | (1 << MAX_ORDER)));
+            while (frame + (1 << order) > size) {
+                order--;
+            }
+            setFree(order, frame >>> order);
+            frame += 1 << order;
+        }
+        this.freeFrames = size;
+    }
+
+    /**
+     * 分配 2^order 个连续帧
+     * @return 第一个帧号，没有足够大的空闲块时返回 -1
+     */
+    public int allocate(int order) {
+        lock.lock();
+        try {
+            int k = order;
+            while (k <= MAX_ORDER && freeBlocks[k] == 0) {
+                k++;
+            }
+            if (k > MAX_ORDER) {
+                return -1;
+            }
+            int block = findFree(k);
+            clearFree(k, block);
+            // 拆分：每次留下后一半作为低一阶的空闲块
+            while (k > order) {
+                k--;
+                block <<= 1;
+                setFree(k, block + 1);
+            }
+            freeFrames -= 1 << order;
+            return base + (block << order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 释放 allocate(order) 分配的块，与空闲的伙伴合并
+     */
+    public void free(int frame, int order) {
+        int block = (frame - base) >>> order;
+        lock.lock();
+        try {
+            freeFrames += 1 << order;
+            while (order < MAX_ORDER) {
+                int buddy = block ^ 1;
+                if (!isFree(order, buddy)) {
+                    break;
+                }
+                clearFree(order, buddy);
+                block >>>= 1;
+                order++;
+            }
+            setFree(order, block);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 尝试加锁分配，锁被其他核心持有时立即返回 -2，调用方可以先去别的伙伴系统
+     */
+    public int tryAllocate(int order) {
+        if (!lock.tryLock()) {
+            return -2;
+        }
+        try {
+            return allocate(order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(int frame) {
+        return frame >= base && frame < base + size;
+    }
+
+    public int getBase() {
+        return base;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getFreeFrames() {
+        lock.lock();
+        try {
+            return freeFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 各阶的空闲块数，下标为阶
+     */
+    public int[] getFreeBlocks() {
+        lock.lock();
+        try {
+            return freeBlocks.clone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int findFree(int order) {
+        long[] map = freeMap[order];
+        int start = searchHint[order];
+        for (int i = 0; i < map.length; i++) {
+            int w = start + i;
+            if (w >= map.length) {
+                w -= map.length;
+            }
+            if (map[w] != 0) {
+                searchHint[order] = w;
+                return (w << 6) + Long.numberOfTrailingZeros(map[w]);
+            }
+        }
+        throw new IllegalStateException("伙伴系统位图与空闲块数不一致，阶 " + order);
+    }
+
+    private boolean isFree(int order, int block) {
+        long[] map = freeMap[order];
+        int w = block >>> 6;
+        return w < map.length && (map[w] & (1L << block)) != 0;
+    }
+
+    private void setFree(int order, int block) {
+        freeMap[order][block >>> 6] |= 1L << block;
+        freeBlocks[order]++;
+    }
+
+    private void clearFree(int order, int block) {
+        freeMap[order][block >>> 6] &= ~(1L << block);
+        freeBlocks[order]--;
+    }
+}
@@ -1,4 +1,147 @@
 package newOs.kernel.memory.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 定长 int 表的表池，页表（每表 4096 项）和段表都放在这里，按表号访问。
+ * 表在释放后回收复用，不为每页创建对象；表项的含义由使用方决定。
+ *
+ * 页表项（PTE）格式：
+ * bit31     P  页在物理内存中
+ * bit30     D  页被写过
+ * bit29     R  页最近被访问过
+ * bit28     S  页已换出到交换区（P=0 时）
+ * bit27     E  页正在被换出（P=0 时），换出结束后改为 S 或全 0
+ * bit0~23   帧号（P=1 时）或交换区槽号（S=1 时）
+ * 全 0 表示页尚未使用过（或未写过就被换出），访问时分配清零的帧。
+ *
+ * 页表项可能被其他核心上的页面置换同时修改，更新标志位要用 compareAndSet。
+ */
 public class PageTable {
+
+    public static final int PRESENT = 1 << 31;
+    public static final int DIRTY = 1 << 30;
+    public static final int REFERENCED = 1 << 29;
+    public static final int SWAPPED = 1 << 28;
+    public static final int EVICTING = 1 << 27;
+    public static final int FRAME_MASK = 0x00FFFFFF;
+
+    private static final VarHandle ENTRY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // 每张表的项数
+    private final int entries;
+
+    // 表号 -> 表，扩容时整体替换，读取方总能看到自己的表
+    private volatile int[][] tables;
+    // 回收的表号
+    private int[] freeIds;
+    private int freeCount;
+    // 尚未用过的下一个表号
+    private int nextId;
+    private int inUse;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public PageTable(int entries) {
+        this.entries = entries;
+        this.tables = new int[16][];
+        this.freeIds = new int[16];
+    }
+
+    /**
+     * 分配一张全 0 的表
+     * @return 表号
+     */
+    public int allocate() {
+        lock.lock();
+        try {
+            int id;
+            if (freeCount > 0) {
+                id = freeIds[--freeCount];
+                Arrays.fill(tables[id], 0);
+            } else {
+                id = nextId++;
+                if (id == tables.length) {
+                    tables = Arrays.copyOf(tables, id * 2);
+                }
+                tables[id] = new int[entries];
+            }
+            inUse++;
+            return id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 回收表，表号之后可能分配给其他进程
+     */
+    public void free(int id) {
+        lock.lock();
+        try {
+            if (freeCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            }
+            freeIds[freeCount++] = id;
+            inUse--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取表本身，调用方直接读写表项
+     */
+    public int[] get(int id) {
+        return tables[id];
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * 正在使用的表数
+     */
+    public int getInUse() {
+        lock.lock();
+        try {
+            return inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static boolean isPresent(int pte) {
+        return (pte & PRESENT) != 0;
+    }
+
+    public static int frameOf(int pte) {
+        return pte & FRAME_MASK;
+    }
+
+    public static boolean isSwapped(int pte) {
+        return (pte & (PRESENT | SWAPPED)) == SWAPPED;
+    }
+
+    public static int slotOf(int pte) {
+        return pte & FRAME_MASK;
+    }
+
+    /**
+     * 原子地更新表项
+     */
+    public static boolean compareAndSet(int[] table, int index, int expected, int value) {
+        return ENTRY.compareAndSet(table, index, expected, value);
+    }
+
+    /**
+     * 写入表项，之后其他线程读到的都是新值
+     */
+    public static void setVolatile(int[] table, int index, int value) {
+        ENTRY.setVolatile(table, index, value);
+    }
 }
@@ -1,4 +1,159 @@
 package newOs.kernel.memory.model;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static newOs.kernel.memory.util.MemoryUtils.OFFSET_BITS;
+import static newOs.kernel.memory.util.MemoryUtils.PAGE_SIZE;
+
+/**
+ * 物理内存：按 4KB 划分为帧，内容存放在堆外的直接缓冲区中，模拟的内存再大也不增加 GC 扫描和复制的负担
+ * （上限受 JVM 参数 -XX:MaxDirectMemorySize 限制，默认与最大堆相同）。
+ * 所有访问都按绝对下标读写，不改变缓冲区的 position，多个核心可以同时访问；地址越界时抛出 IndexOutOfBoundsException。
+ * 每帧的元数据（所属地址空间、映射的虚页号、所在页表、交换区槽号）放在与帧号下标对应的 int 数组中，不为每帧创建对象。
+ */
 public class PhysicalMemory {
+
+    // 帧号保存在页表项的低 24 位，并且物理地址用 int 表示
+    public static final int MAX_FRAMES = Integer.MAX_VALUE / PAGE_SIZE;
+    // 内核占用的帧（slab、内核对象）在 frameOwner 中的标记，不参与页面置换
+    public static final int KERNEL_OWNER = -2;
+
+    // 清零用的全 0 页
+    private static final byte[] ZERO_PAGE = new byte[PAGE_SIZE];
+
+    private final int frameCount;
+    // 容量（字节）
+    private final int size;
+    private final ByteBuffer memory;
+    // 帧所属地址空间的地址空间号（ASID），空闲帧为 -1
+    private final int[] frameOwner;
+    // 帧映射的虚页号
+    private final int[] frameVpn;
+    // 映射该帧的页表号，页面置换时据此找到页表项
+    private final int[] framePageTable;
+    // 帧中页面在交换区中的副本所在槽号，没有副本为 -1；页面未被修改时换出不必再写交换区
+    private final int[] frameSwapSlot;
+
+    public PhysicalMemory(int frameCount) {
+        if (frameCount <= 0 || frameCount > MAX_FRAMES) {
+            throw new IllegalArgumentException("物理帧数必须在 1~" + MAX_FRAMES + " 之间: " + frameCount);
+        }
+        this.frameCount = frameCount;
+        this.size = frameCount * PAGE_SIZE;
+        this.memory = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        this.frameOwner = new int[frameCount];
+        this.frameVpn = new int[frameCount];
+        this.framePageTable = new int[frameCount];
+        this.frameSwapSlot = new int[frameCount];
+        Arrays.fill(frameOwner, -1);
+        Arrays.fill(framePageTable, -1);
+        Arrays.fill(frameSwapSlot, -1);
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 物理内存的字节数
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public byte readByte(int physicalAddress) {
+        return memory.get(Objects.checkIndex(physicalAddress, size));
+    }
+
+    public void writeByte(int physicalAddress, byte value) {
+        memory.put(Objects.checkIndex(physicalAddress, size), value);
+    }
+
+    /**
+     * 读一个字（4 字节，本机字节序）
+     */
+    public int readInt(int physicalAddress) {
+        return memory.getInt(Objects.checkFromIndexSize(physicalAddress, Integer.BYTES, size));
+    }
+
+    public void writeInt(int physicalAddress, int value) {
+        memory.putInt(Objects.checkFromIndexSize(physicalAddress, Integer.BYTES, size), value);
+    }
+
+    /**
+     * 从 physicalAddress 开始的 length 字节清零
+     */
+    public void clear(int physicalAddress, int length) {
+        Objects.checkFromIndexSize(physicalAddress, length, size);
+        while (length > 0) {
+            int n = Math.min(length, PAGE_SIZE);
+            memory.put(physicalAddress, ZERO_PAGE, 0, n);
+            physicalAddress += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * 帧清零，分配给新页前调用
+     */
+    public void clearFrame(int frame) {
+        memory.put(frameAddress(frame), ZERO_PAGE, 0, PAGE_SIZE);
+    }
+
+    /**
+     * 帧内容复制到 dst（4096 字节）
+     */
+    public void readFrame(int frame, byte[] dst) {
+        memory.get(frameAddress(frame), dst, 0, PAGE_SIZE);
+    }
+
+    /**
+     * src 写入帧，不足一页的部分清零
+     */
+    public void writeFrame(int frame, byte[] src) {
+        int start = frameAddress(frame);
+        int length = Math.min(src.length, PAGE_SIZE);
+        memory.put(start, src, 0, length);
+        memory.put(start + length, ZERO_PAGE, 0, PAGE_SIZE - length);
+    }
+
+    public int getFrameOwner(int frame) {
+        return frameOwner[frame];
+    }
+
+    public int getFrameVpn(int frame) {
+        return frameVpn[frame];
+    }
+
+    public int getFramePageTable(int frame) {
+        return framePageTable[frame];
+    }
+
+    public int getFrameSwapSlot(int frame) {
+        return frameSwapSlot[frame];
+    }
+
+    public void setFrameSwapSlot(int frame, int slot) {
+        frameSwapSlot[frame] = slot;
+    }
+
+    public void setFrameMapping(int frame, int asid, int vpn, int pageTableId) {
+        frameOwner[frame] = asid;
+        frameVpn[frame] = vpn;
+        framePageTable[frame] = pageTableId;
+    }
+
+    public void clearFrameMapping(int frame) {
+        frameOwner[frame] = -1;
+        frameVpn[frame] = 0;
+        framePageTable[frame] = -1;
+        frameSwapSlot[frame] = -1;
+    }
+
+    private int frameAddress(int frame) {
+        return Objects.checkIndex(frame, frameCount) << OFFSET_BITS;
+    }
 }
@@ -0,0 +1,150 @@
+package newOs.kernel.memory.model;
+
+import java.util.Arrays;
+
+import static newOs.kernel.memory.util.MemoryUtils.OFFSET_BITS;
+import static newOs.kernel.memory.util.MemoryUtils.PAGE_SIZE;
+
+/**
+ * 定长内核对象的 slab 缓存：每个 slab 占一个物理帧，切成大小相同的对象，
+ * 每个 slab 用一个位图记录空闲对象。对象用物理地址表示，不创建 Java 对象。
+ * slab 的帧由调用方从伙伴系统取得并通过 addSlab 交给缓存；缓存本身不加锁，由调用方串行访问。
+ */
+public class SlabCache {
+
+    private final int objectSize;
+    private final int objectsPerSlab;
+    // 每个 slab 的位图字数
+    private final int words;
+
+    // slab 号 -> 帧号，-1 表示该 slab 号空闲
+    private int[] slabFrames = new int[8];
+    // slab 号 -> 空闲对象数
+    private int[] slabFreeCount = new int[8];
+    // 空闲对象位图，第 slab * words 个字开始是该 slab 的位图
+    private long[] freeBits;
+    private int slabCount;
+    private int objectsInUse;
+    // 上次分配成功的 slab，优先从它分配
+    private int hint;
+
+    public SlabCache(int objectSize) {
+        if (objectSize <= 0 || objectSize > PAGE_SIZE || Integer.bitCount(objectSize) != 1) {
+            throw new IllegalArgumentException("对象大小必须是不超过一页的 2 的幂: " + objectSize);
+        }
+        this.objectSize = objectSize;
+        this.objectsPerSlab = PAGE_SIZE / objectSize;
+        this.words = (objectsPerSlab + 63) >>> 6;
+        this.freeBits = new long[slabFrames.length * words];
+        Arrays.fill(slabFrames, -1);
+    }
+
+    /**
+     * 分配一个对象
+     * @return 物理地址，所有 slab 都已满时返回 -1（调用方 addSlab 后重试）
+     */
+    public int allocate() {
+        int slab = findSlab();
+        if (slab < 0) {
+            return -1;
+        }
+        int start = slab * words;
+        for (int w = 0; w < words; w++) {
+            long bits = freeBits[start + w];
+            if (bits != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(bits);
+                freeBits[start + w] = bits & (bits - 1);
+                slabFreeCount[slab]--;
+                objectsInUse++;
+                hint = slab;
+                return (slabFrames[slab] << OFFSET_BITS) + index * objectSize;
+            }
+        }
+        throw new IllegalStateException("slab 位图与空闲对象数不一致: " + slab);
+    }
+
+    /**
+     * 释放对象
+     * @param slab 对象所在的 slab 号（addSlab 的返回值）
+     * @return slab 是否已全部空闲，调用方可以 removeSlab 归还帧
+     */
+    public boolean free(int slab, int address) {
+        int index = (address & (PAGE_SIZE - 1)) / objectSize;
+        int w = slab * words + (index >>> 6);
+        long bit = 1L << index;
+        if ((freeBits[w] & bit) != 0) {
+            throw new IllegalStateException("重复释放内核对象: " + address);
+        }
+        freeBits[w] |= bit;
+        objectsInUse--;
+        return ++slabFreeCount[slab] == objectsPerSlab;
+    }
+
+    /**
+     * 加入一个新 slab
+     * @return slab 号
+     */
+    public int addSlab(int frame) {
+        int slab = 0;
+        while (slab < slabFrames.length && slabFrames[slab] >= 0) {
+            slab++;
+        }
+        if (slab == slabFrames.length) {
+            slabFrames = Arrays.copyOf(slabFrames, slab * 2);
+            Arrays.fill(slabFrames, slab, slab * 2, -1);
+            slabFreeCount = Arrays.copyOf(slabFreeCount, slab * 2);
+            freeBits = Arrays.copyOf(freeBits, slab * 2 * words);
+        }
+        slabFrames[slab] = frame;
+        slabFreeCount[slab] = objectsPerSlab;
+        int start = slab * words;
+        for (int i = 0; i < objectsPerSlab; i += 64) {
+            int n = Math.min(64, objectsPerSlab - i);
+            freeBits[start + (i >>> 6)] = n == 64 ? -1L : (1L << n) - 1;
+        }
+        slabCount++;
+        hint = slab;
+        return slab;
+    }
+
+    /**
+     * 移除一个全部空闲的 slab
+     * @return slab 所占的帧号
+     */
+    public int removeSlab(int slab) {
+        int frame = slabFrames[slab];
+        slabFrames[slab] = -1;
+        slabFreeCount[slab] = 0;
+        Arrays.fill(freeBits, slab * words, (slab + 1) * words, 0L);
+        slabCount--;
+        return frame;
+    }
+
+    public int getObjectSize() {
+        return objectSize;
+    }
+
+    public int getObjectsPerSlab() {
+        return objectsPerSlab;
+    }
+
+    public int getSlabCount() {
+        return slabCount;
+    }
+
+    public int getObjectsInUse() {
+        return objectsInUse;
+    }
+
+    private int findSlab() {
+        if (slabFrames[hint] >= 0 && slabFreeCount[hint] > 0) {
+            return hint;
+        }
+        for (int slab = 0; slab < slabFrames.length; slab++) {
+            if (slabFrames[slab] >= 0 && slabFreeCount[slab] > 0) {
+                return slab;
+            }
+        }
+        return -1;
+    }
+}
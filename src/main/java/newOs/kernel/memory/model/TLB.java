@@ -0,0 +1,167 @@
+package newOs.kernel.memory.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个核心的 TLB：组相联，sets 组 × ways 路，组内按 LRU 替换。
+ * 表项（编码见 TLBEntry）放在一个 long 数组中，第 s 组第 w 路在下标 s * ways + w。
+ *
+ * 查找和填入只由本核心上正在执行的进程调用；其他核心可以随时作废表项（TLB 击落），
+ * 表项按 long 原子读写并用 CAS 作废，不会读到半个表项。
+ */
+public class TLB {
+
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int sets;
+    private final int ways;
+    private final int setMask;
+
+    private final long[] entries;
+    // 表项最近一次命中或填入的时刻，用于组内 LRU
+    private final long[] lastUse;
+    private long useClock;
+
+    // 命中和未命中次数只由本核心写入，统计读取时可能略有滞后
+    private long hits;
+    private long misses;
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param sets 组数，必须是 2 的幂
+     * @param ways 每组路数
+     */
+    public TLB(int sets, int ways) {
+        if (sets <= 0 || Integer.bitCount(sets) != 1) {
+            throw new IllegalArgumentException("TLB 组数必须是 2 的幂: " + sets);
+        }
+        if (ways <= 0) {
+            throw new IllegalArgumentException("TLB 路数必须大于 0: " + ways);
+        }
+        this.sets = sets;
+        this.ways = ways;
+        this.setMask = sets - 1;
+        this.entries = new long[sets * ways];
+        this.lastUse = new long[sets * ways];
+    }
+
+    /**
+     * 查找表项，不计入命中统计
+     * @return 命中的表项，未命中返回 0
+     */
+    public long lookup(int asid, int vpn) {
+        long tag = TLBEntry.tag(asid, vpn);
+        int base = setOf(asid, vpn) * ways;
+        for (int i = base; i < base + ways; i++) {
+            long entry = (long) ENTRIES.getOpaque(entries, i);
+            if ((entry & TLBEntry.TAG_MASK) == tag) {
+                lastUse[i] = ++useClock;
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 填入表项：已有同一页的表项时覆盖，否则占用空表项，组满时替换最久未用的表项
+     */
+    public void insert(int asid, int vpn, int frame, boolean dirty) {
+        long tag = TLBEntry.tag(asid, vpn);
+        int base = setOf(asid, vpn) * ways;
+        int victim = -1;
+        int lru = base;
+        for (int i = base; i < base + ways; i++) {
+            long entry = (long) ENTRIES.getOpaque(entries, i);
+            if ((entry & TLBEntry.TAG_MASK) == tag) {
+                victim = i;
+                break;
+            }
+            if (victim < 0 && !TLBEntry.isValid(entry)) {
+                victim = i;
+            }
+            if (lastUse[i] < lastUse[lru]) {
+                lru = i;
+            }
+        }
+        if (victim < 0) {
+            victim = lru;
+        }
+        ENTRIES.setOpaque(entries, victim, TLBEntry.pack(asid, vpn, frame, dirty));
+        lastUse[victim] = ++useClock;
+    }
+
+    /**
+     * 作废一页的表项
+     */
+    public void invalidate(int asid, int vpn) {
+        long tag = TLBEntry.tag(asid, vpn);
+        int base = setOf(asid, vpn) * ways;
+        for (int i = base; i < base + ways; i++) {
+            long entry = (long) ENTRIES.getOpaque(entries, i);
+            if ((entry & TLBEntry.TAG_MASK) == tag && ENTRIES.compareAndSet(entries, i, entry, 0L)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * 作废一个地址空间的全部表项
+     */
+    public void invalidateAsid(int asid) {
+        for (int i = 0; i < entries.length; i++) {
+            long entry = (long) ENTRIES.getOpaque(entries, i);
+            if (TLBEntry.isValid(entry) && TLBEntry.asid(entry) == asid
+                    && ENTRIES.compareAndSet(entries, i, entry, 0L)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void recordHit() {
+        hits++;
+    }
+
+    public void recordMiss() {
+        misses++;
+    }
+
+    public int getSets() {
+        return sets;
+    }
+
+    public int getWays() {
+        return ways;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * 有效表项数
+     */
+    public int getValidEntries() {
+        int count = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (TLBEntry.isValid((long) ENTRIES.getOpaque(entries, i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 各进程的虚页号都从 0 开始，组号混入 asid，避免不同进程的同一页总落在同一组
+    private int setOf(int asid, int vpn) {
+        return (vpn ^ ((asid * 0x9E3779B1) >>> 16)) & setMask;
+    }
+}
@@ -1,4 +1,61 @@
 package newOs.kernel.memory.model;
 
-public class TLBEntry {
+/**
+ * TLB 表项编码，一个表项是一个 long：
+ * bit63     V     表项有效
+ * bit62     D     页已被写过（写访问命中不带 D 的表项时按未命中处理，由页表遍历置页的 D 位）
+ * bit44~59  ASID  地址空间号（PCB.asid），进程切换时不必清空 TLB
+ * bit24~43  VPN   虚页号
+ * bit0~23   帧号
+ * 全 0 表示空表项。
+ */
+public final class TLBEntry {
+
+    public static final long VALID = 1L << 63;
+    public static final long DIRTY = 1L << 62;
+
+    // 可以打上标记的最大地址空间号
+    public static final int MAX_ASID = 0xFFFF;
+
+    private static final int VPN_SHIFT = 24;
+    private static final int ASID_SHIFT = 44;
+    private static final long VPN_MASK = 0xFFFFFL;
+    private static final long FRAME_MASK = 0xFFFFFFL;
+
+    // 比较命中时使用的位：V、ASID、VPN
+    public static final long TAG_MASK = VALID | ((long) MAX_ASID << ASID_SHIFT) | (VPN_MASK << VPN_SHIFT);
+
+    private TLBEntry() {
+    }
+
+    /**
+     * 表项的标记部分，与 (entry & TAG_MASK) 比较判断是否命中
+     */
+    public static long tag(int asid, int vpn) {
+        return VALID | ((long) asid << ASID_SHIFT) | ((long) vpn << VPN_SHIFT);
+    }
+
+    public static long pack(int asid, int vpn, int frame, boolean dirty) {
+        return tag(asid, vpn) | (frame & FRAME_MASK) | (dirty ? DIRTY : 0);
+    }
+
+    public static boolean isValid(long entry) {
+        return (entry & VALID) != 0;
+    }
+
+    public static boolean isDirty(long entry) {
+        return (entry & DIRTY) != 0;
+    }
+
+    public static int asid(long entry) {
+        return (int) (entry >>> ASID_SHIFT) & MAX_ASID;
+    }
+
+    public static int vpn(long entry) {
+        return (int) ((entry >>> VPN_SHIFT) & VPN_MASK);
+    }
+
+    public static int frame(long entry) {
+        return (int) (entry & FRAME_MASK);
+    }
 }
@@ -0,0 +1,37 @@
+package newOs.kernel.memory.replacement;
+
+/**
+ * 时钟算法：指针循环扫描各帧，访问位为 1 的清零后跳过，换出第一个访问位为 0 的帧
+ */
+public class ClockPolicy implements ReplacementPolicy {
+
+    private final int frameCount;
+    private int hand;
+
+    public ClockPolicy(int frameCount) {
+        this.frameCount = frameCount;
+    }
+
+    @Override
+    public String getName() {
+        return "CLOCK";
+    }
+
+    @Override
+    public int selectVictim(ResidentFrames frames) {
+        // 最多两圈：第一圈清掉所有访问位，第二圈必然找到
+        for (int i = 0; i < 2 * frameCount; i++) {
+            int frame = hand;
+            hand = hand + 1 == frameCount ? 0 : hand + 1;
+            if (!frames.isEvictable(frame)) {
+                continue;
+            }
+            if (frames.isReferenced(frame)) {
+                frames.clearReferenced(frame);
+                continue;
+            }
+            return frame;
+        }
+        return -1;
+    }
+}
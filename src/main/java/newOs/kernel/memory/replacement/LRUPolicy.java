@@ -0,0 +1,56 @@
+package newOs.kernel.memory.replacement;
+
+/**
+ * 用访问位近似的 LRU（老化算法）：每帧一个 8 位计数，
+ * 每次选帧时所有计数右移一位，访问位移入最高位后清零，换出计数最小的帧。
+ * 命中时不维护任何链表，只有页表项的 R 位被置位。
+ */
+public class LRUPolicy implements ReplacementPolicy {
+
+    private final int frameCount;
+    private final int[] ages;
+    // 计数相同时从上次换出位置之后开始取，避免总是换出低帧号
+    private int start;
+
+    public LRUPolicy(int frameCount) {
+        this.frameCount = frameCount;
+        this.ages = new int[frameCount];
+    }
+
+    @Override
+    public String getName() {
+        return "LRU";
+    }
+
+    @Override
+    public int selectVictim(ResidentFrames frames) {
+        int victim = -1;
+        int minAge = Integer.MAX_VALUE;
+        for (int i = 0; i < frameCount; i++) {
+            int frame = start + i < frameCount ? start + i : start + i - frameCount;
+            if (!frames.isEvictable(frame)) {
+                continue;
+            }
+            int age = ages[frame] >>> 1;
+            if (frames.isReferenced(frame)) {
+                age |= 0x80;
+                frames.clearReferenced(frame);
+            }
+            ages[frame] = age;
+            if (age < minAge) {
+                minAge = age;
+                victim = frame;
+            }
+        }
+        if (victim >= 0) {
+            start = victim + 1 == frameCount ? 0 : victim + 1;
+        }
+        return victim;
+    }
+
+    @Override
+    public void onLoaded(int frame) {
+        // 刚调入的页面视为最近被访问过
+        ages[frame] = 0x80;
+    }
+}
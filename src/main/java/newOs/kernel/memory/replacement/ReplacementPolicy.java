@@ -0,0 +1,27 @@
+package newOs.kernel.memory.replacement;
+
+/**
+ * 页面置换策略。没有空闲帧时由缺页处理选出被换出的帧。
+ * selectVictim 只在缺页处理持有置换锁时调用，不需要自己加锁；
+ * 命中路径上只有页表项的 R、D 位被置位，策略在选帧时才读取它们。
+ */
+public interface ReplacementPolicy {
+
+    /**
+     * 策略名称（LRU、CLOCK、SECOND_CHANCE）
+     */
+    String getName();
+
+    /**
+     * 选出被换出的帧
+     * @return 帧号，没有可换出的帧返回 -1
+     */
+    int selectVictim(ResidentFrames frames);
+
+    /**
+     * 页面调入帧之后、页表项置为有效之前调用，可能不持有置换锁；
+     * 此时该帧不可换出，selectVictim 不会同时读写它的状态
+     */
+    default void onLoaded(int frame) {
+    }
+}
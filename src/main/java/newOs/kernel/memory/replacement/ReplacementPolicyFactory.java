@@ -0,0 +1,32 @@
+package newOs.kernel.memory.replacement;
+
+import java.util.List;
+
+/**
+ * 按名称创建页面置换策略
+ */
+public class ReplacementPolicyFactory {
+
+    public static final List<String> NAMES = List.of("LRU", "CLOCK", "SECOND_CHANCE");
+
+    private ReplacementPolicyFactory() {
+    }
+
+    /**
+     * @param name 策略名称，不区分大小写
+     * @param frameCount 物理帧数
+     * @throws IllegalArgumentException 未知的策略名称
+     */
+    public static ReplacementPolicy create(String name, int frameCount) {
+        switch (name == null ? "" : name.trim().toUpperCase()) {
+            case "LRU":
+                return new LRUPolicy(frameCount);
+            case "CLOCK":
+                return new ClockPolicy(frameCount);
+            case "SECOND_CHANCE":
+                return new SecondChancePolicy(frameCount);
+            default:
+                throw new IllegalArgumentException("未知的页面置换策略: " + name + "，可选 " + NAMES);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package newOs.kernel.memory.replacement;
+
+/**
+ * 置换策略看到的物理帧，帧号从 0 到 getFrameCount()-1。
+ * 访问位和修改位就是映射该帧的页表项的 R 位和 D 位。
+ */
+public interface ResidentFrames {
+
+    int getFrameCount();
+
+    /**
+     * 帧中是否有可以换出的页面（空闲帧和正在调入的帧不可换出）
+     */
+    boolean isEvictable(int frame);
+
+    boolean isReferenced(int frame);
+
+    boolean isDirty(int frame);
+
+    /**
+     * 清除访问位，并作废各核心 TLB 中该页的表项，使下一次访问经过页表遍历重新置位
+     */
+    void clearReferenced(int frame);
+}
@@ -0,0 +1,58 @@
+package newOs.kernel.memory.replacement;
+
+/**
+ * 改进的第二次机会算法：按（访问位, 修改位）把帧分为四类，
+ * 优先换出未访问且未修改的帧（不用写交换区），其次是未访问但修改过的帧。
+ * 每轮先找 (0,0)，不改变访问位；找不到再找 (0,1)，并清除扫过的帧的访问位。
+ */
+public class SecondChancePolicy implements ReplacementPolicy {
+
+    private final int frameCount;
+    private int hand;
+
+    public SecondChancePolicy(int frameCount) {
+        this.frameCount = frameCount;
+    }
+
+    @Override
+    public String getName() {
+        return "SECOND_CHANCE";
+    }
+
+    @Override
+    public int selectVictim(ResidentFrames frames) {
+        // 两轮后所有访问位都已清除，一定能找到
+        for (int round = 0; round < 2; round++) {
+            int frame = scan(frames, false);
+            if (frame >= 0) {
+                return frame;
+            }
+            frame = scan(frames, true);
+            if (frame >= 0) {
+                return frame;
+            }
+        }
+        return -1;
+    }
+
+    // 从指针处扫描一圈，dirty 为 false 时找 (0,0)，为 true 时找 (0,1) 并清除访问位
+    private int scan(ResidentFrames frames, boolean dirty) {
+        for (int i = 0; i < frameCount; i++) {
+            int frame = hand;
+            hand = hand + 1 == frameCount ? 0 : hand + 1;
+            if (!frames.isEvictable(frame)) {
+                continue;
+            }
+            if (frames.isReferenced(frame)) {
+                if (dirty) {
+                    frames.clearReferenced(frame);
+                }
+                continue;
+            }
+            if (dirty || !frames.isDirty(frame)) {
+                return frame;
+            }
+        }
+        return -1;
+    }
+}
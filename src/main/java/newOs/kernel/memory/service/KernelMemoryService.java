@@ -0,0 +1,172 @@
+package newOs.kernel.memory.service;
+
+import lombok.extern.slf4j.Slf4j;
+import newOs.dto.resp.MemoryManage.SlabCacheStatRespDTO;
+import newOs.kernel.memory.exception.MemoryException;
+import newOs.kernel.memory.model.PhysicalMemory;
+import newOs.kernel.memory.model.SlabCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static newOs.kernel.memory.util.MemoryUtils.OFFSET_BITS;
+import static newOs.kernel.memory.util.MemoryUtils.PAGE_SIZE;
+
+/**
+ * 内核对象内存：小对象（32B~2KB）按大小取整到 2 的幂，从对应的 slab 缓存分配；
+ * 更大的对象直接从伙伴系统按整页分配。对象放在物理内存中，用物理地址表示。
+ * 每个缓存一把锁，不同大小的对象可以在多个核心上同时分配。
+ * 内核占用的帧不属于任何进程，不会被页面置换换出。
+ */
+@Slf4j
+@Component
+public class KernelMemoryService {
+
+    private static final int MIN_SHIFT = 5;
+    private static final int MAX_SHIFT = 11;
+    // 帧 -> 所属 slab：高 8 位为缓存下标，低 24 位为 slab 号；整页分配的块在首帧记录 LARGE | 阶
+    private static final int LARGE = 0x7F << 24;
+    private static final int SLAB_MASK = 0x00FFFFFF;
+
+    private final PhysicalMemoryService physicalMemoryService;
+    private final PhysicalMemory physicalMemory;
+
+    private final SlabCache[] caches;
+    private final ReentrantLock[] cacheLocks;
+    private final int[] frameSlab;
+
+    @Autowired
+    public KernelMemoryService(PhysicalMemoryService physicalMemoryService) {
+        this.physicalMemoryService = physicalMemoryService;
+        this.physicalMemory = physicalMemoryService.getPhysicalMemory();
+        int count = MAX_SHIFT - MIN_SHIFT + 1;
+        this.caches = new SlabCache[count];
+        this.cacheLocks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            caches[i] = new SlabCache(1 << (MIN_SHIFT + i));
+            cacheLocks[i] = new ReentrantLock();
+        }
+        this.frameSlab = new int[physicalMemory.getFrameCount()];
+        Arrays.fill(frameSlab, -1);
+    }
+
+    /**
+     * 分配一个清零的内核对象
+     * @return 物理地址
+     * @throws MemoryException 物理内存不足
+     */
+    public int allocate(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("内核对象大小必须大于 0: " + size);
+        }
+        int address;
+        if (size > 1 << MAX_SHIFT) {
+            address = allocateLarge(size);
+        } else {
+            int index = Math.max(0, 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT);
+            address = allocateSmall(index);
+            size = caches[index].getObjectSize();
+        }
+        physicalMemory.clear(address, size);
+        return address;
+    }
+
+    /**
+     * 释放 allocate 分配的内核对象
+     */
+    public void free(int address) {
+        int frame = address >>> OFFSET_BITS;
+        int owner = frameSlab[frame];
+        if (owner == -1) {
+            throw new IllegalArgumentException("不是内核对象的地址: " + address);
+        }
+        if ((owner & ~SLAB_MASK) == LARGE) {
+            int order = owner & SLAB_MASK;
+            frameSlab[frame] = -1;
+            for (int i = 0; i < 1 << order; i++) {
+                physicalMemory.clearFrameMapping(frame + i);
+            }
+            physicalMemoryService.freePages(frame, order);
+            return;
+        }
+        int index = owner >>> 24;
+        int slab = owner & SLAB_MASK;
+        int emptyFrame = -1;
+        ReentrantLock lock = cacheLocks[index];
+        lock.lock();
+        try {
+            SlabCache cache = caches[index];
+            // 全部空闲的 slab 归还伙伴系统，但每个缓存至少留一个，避免反复申请释放同一帧
+            if (cache.free(slab, address) && cache.getSlabCount() > 1) {
+                emptyFrame = cache.removeSlab(slab);
+                frameSlab[emptyFrame] = -1;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (emptyFrame >= 0) {
+            physicalMemory.clearFrameMapping(emptyFrame);
+            physicalMemoryService.freePages(emptyFrame, 0);
+        }
+    }
+
+    /**
+     * 各 slab 缓存的占用情况
+     */
+    public List<SlabCacheStatRespDTO> getSlabStats() {
+        List<SlabCacheStatRespDTO> stats = new ArrayList<>(caches.length);
+        for (int i = 0; i < caches.length; i++) {
+            cacheLocks[i].lock();
+            try {
+                SlabCache cache = caches[i];
+                stats.add(new SlabCacheStatRespDTO()
+                        .setObjectSize(cache.getObjectSize())
+                        .setObjectsPerSlab(cache.getObjectsPerSlab())
+                        .setSlabs(cache.getSlabCount())
+                        .setObjectsInUse(cache.getObjectsInUse()));
+            } finally {
+                cacheLocks[i].unlock();
+            }
+        }
+        return stats;
+    }
+
+    private int allocateSmall(int index) {
+        ReentrantLock lock = cacheLocks[index];
+        lock.lock();
+        try {
+            SlabCache cache = caches[index];
+            int address = cache.allocate();
+            if (address < 0) {
+                int frame = physicalMemoryService.allocatePages(0, index);
+                if (frame < 0) {
+                    throw new MemoryException("物理内存不足，无法分配内核对象", "507");
+                }
+                physicalMemory.setFrameMapping(frame, PhysicalMemory.KERNEL_OWNER, 0, -1);
+                frameSlab[frame] = (index << 24) | cache.addSlab(frame);
+                address = cache.allocate();
+            }
+            return address;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int allocateLarge(int size) {
+        int pages = (size + PAGE_SIZE - 1) >>> OFFSET_BITS;
+        int order = 32 - Integer.numberOfLeadingZeros(pages - 1);
+        int frame = physicalMemoryService.allocatePages(order, order);
+        if (frame < 0) {
+            throw new MemoryException("物理内存不足，无法分配 " + size + "B 的内核对象", "507");
+        }
+        for (int i = 0; i < 1 << order; i++) {
+            physicalMemory.setFrameMapping(frame + i, PhysicalMemory.KERNEL_OWNER, 0, -1);
+        }
+        frameSlab[frame] = LARGE | order;
+        return frame << OFFSET_BITS;
+    }
+}
@@ -1,4 +1,54 @@
 package newOs.kernel.memory.service;
 
+import newOs.dto.resp.MemoryManage.FrameAllocatorStatRespDTO;
+import newOs.dto.resp.MemoryManage.PagingStatRespDTO;
+import newOs.dto.resp.MemoryManage.TLBStatRespDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 内存子系统的运行统计
+ */
+@Service
 public class MemoryMonitorService {
+
+    private final TLBService tlbService;
+    private final VirtualMemoryService virtualMemoryService;
+
+    @Autowired
+    public MemoryMonitorService(TLBService tlbService, VirtualMemoryService virtualMemoryService) {
+        this.tlbService = tlbService;
+        this.virtualMemoryService = virtualMemoryService;
+    }
+
+    /**
+     * 各核心 TLB 的命中情况
+     */
+    public List<TLBStatRespDTO> queryTLBStats() {
+        return tlbService.getStats();
+    }
+
+    /**
+     * 缺页、换入换出次数和当前置换策略
+     */
+    public PagingStatRespDTO queryPagingStats() {
+        return virtualMemoryService.getPagingStats();
+    }
+
+    /**
+     * 伙伴系统的空闲块和碎片率、slab 缓存的占用
+     */
+    public FrameAllocatorStatRespDTO queryFrameAllocatorStats() {
+        return virtualMemoryService.getFrameAllocatorStats();
+    }
+
+    /**
+     * 切换页面置换策略
+     * @throws IllegalArgumentException 未知的策略名称
+     */
+    public void switchReplacementPolicy(String policy) {
+        virtualMemoryService.switchReplacementPolicy(policy);
+    }
 }
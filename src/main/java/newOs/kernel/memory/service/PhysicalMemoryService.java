@@ -1,4 +1,134 @@
 package newOs.kernel.memory.service;
 
+import lombok.extern.slf4j.Slf4j;
+import newOs.kernel.memory.model.BuddyAllocator;
+import newOs.kernel.memory.model.PhysicalMemory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 物理帧的分配和回收。
+ * 全部帧按帧号均分为若干条带，每条带一个伙伴系统、一把锁；分配时先去调用方对应的条带（按地址空间号选），
+ * 该条带正被其他核心占用或已无足够大的块时依次尝试其他条带，多个核心缺页时基本不会争用同一把锁。
+ * 按 2^order 个连续帧分配，释放时可以整块释放，也可以逐帧释放，相邻的空闲块会合并。
+ */
+@Slf4j
+@Component
 public class PhysicalMemoryService {
+
+    private final PhysicalMemory physicalMemory;
+
+    private final BuddyAllocator[] stripes;
+    // 每条带的帧数（最后一条可能较少）
+    private final int stripeSize;
+
+    @Autowired
+    public PhysicalMemoryService(@Value("${memory.physical.frames:4096}") int frames,
+                                 @Value("${memory.physical.stripes:4}") int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("条带数必须大于 0: " + stripeCount);
+        }
+        this.physicalMemory = new PhysicalMemory(frames);
+        this.stripeSize = (frames + stripeCount - 1) / stripeCount;
+        int count = (frames + stripeSize - 1) / stripeSize;
+        this.stripes = new BuddyAllocator[count];
+        for (int i = 0; i < count; i++) {
+            int base = i * stripeSize;
+            stripes[i] = new BuddyAllocator(base, Math.min(stripeSize, frames - base));
+        }
+        log.info("物理内存: {} 帧，共 {} KB，{} 个条带", frames, frames * 4L, count);
+    }
+
+    public PhysicalMemory getPhysicalMemory() {
+        return physicalMemory;
+    }
+
+    /**
+     * 分配一个帧并记录映射关系，帧内容未清零
+     * @return 帧号，没有空闲帧时返回 -1
+     */
+    public int allocateFrame(int asid, int vpn, int pageTableId) {
+        int frame = allocatePages(0, asid);
+        if (frame >= 0) {
+            physicalMemory.setFrameMapping(frame, asid, vpn, pageTableId);
+        }
+        return frame;
+    }
+
+    public void freeFrame(int frame) {
+        physicalMemory.clearFrameMapping(frame);
+        stripeOf(frame).free(frame, 0);
+    }
+
+    /**
+     * 分配 2^order 个连续帧，不记录映射关系
+     * @param hint 优先使用的条带（任意整数，如地址空间号）
+     * @return 第一个帧号，没有足够大的连续空闲块时返回 -1
+     */
+    public int allocatePages(int order, int hint) {
+        if (order < 0 || order > BuddyAllocator.MAX_ORDER) {
+            throw new IllegalArgumentException("阶必须在 0~" + BuddyAllocator.MAX_ORDER + " 之间: " + order);
+        }
+        int n = stripes.length;
+        int start = Math.floorMod(hint, n);
+        // 先跳过正被其他核心占用的条带，都不成功再逐个等锁
+        for (int i = 0; i < n; i++) {
+            int frame = stripes[(start + i) % n].tryAllocate(order);
+            if (frame >= 0) {
+                return frame;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            int frame = stripes[(start + i) % n].allocate(order);
+            if (frame >= 0) {
+                return frame;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 释放 allocatePages 分配的块
+     */
+    public void freePages(int frame, int order) {
+        stripeOf(frame).free(frame, order);
+    }
+
+    public int getFreeFrameCount() {
+        int free = 0;
+        for (BuddyAllocator stripe : stripes) {
+            free += stripe.getFreeFrames();
+        }
+        return free;
+    }
+
+    public int getFrameCount() {
+        return physicalMemory.getFrameCount();
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * 全部条带合计的各阶空闲块数，下标为阶
+     */
+    public int[] getFreeBlocks() {
+        int[] blocks = new int[BuddyAllocator.MAX_ORDER + 1];
+        for (BuddyAllocator stripe : stripes) {
+            int[] stripeBlocks = stripe.getFreeBlocks();
+            for (int order = 0; order < blocks.length; order++) {
+                blocks[order] += stripeBlocks[order];
+            }
+        }
+        return blocks;
+    }
+
+    private BuddyAllocator stripeOf(int frame) {
+        if (frame < 0 || frame >= physicalMemory.getFrameCount()) {
+            throw new IllegalArgumentException("帧号越界: " + frame);
+        }
+        return stripes[frame / stripeSize];
+    }
 }
@@ -0,0 +1,103 @@
+package newOs.kernel.memory.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import newOs.kernel.DiskStorage.MappedBlockDevice;
+import newOs.kernel.memory.model.PhysicalMemory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 交换区：模拟磁盘上单独的一个磁盘镜像（交换分区），每个槽是一个 4KB 块，存放一个被换出的页。
+ * 空闲槽号保存在 int 栈中
+ */
+@Slf4j
+@Component
+public class SwapService {
+
+    private final MappedBlockDevice device;
+    private final int slotCount;
+
+    private final int[] freeSlots;
+    private int freeCount;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public SwapService(@Value("${memory.swap.image-path:swap.img}") String imagePath,
+                       @Value("${memory.swap.blocks:8192}") int blocks) {
+        try {
+            this.device = new MappedBlockDevice(Path.of(imagePath), blocks);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法打开交换区 " + imagePath, e);
+        }
+        // 已有镜像以其超级块中的块数为准
+        this.slotCount = device.getBlockCount();
+        this.freeSlots = new int[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            freeSlots[i] = slotCount - 1 - i;
+        }
+        this.freeCount = slotCount;
+        log.info("交换区: {}，{} 个槽", imagePath, slotCount);
+    }
+
+    /**
+     * @return 槽号，交换区已满时返回 -1
+     */
+    public int allocateSlot() {
+        lock.lock();
+        try {
+            return freeCount == 0 ? -1 : freeSlots[--freeCount];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void freeSlot(int slot) {
+        lock.lock();
+        try {
+            freeSlots[freeCount++] = slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 帧内容写入交换区的槽
+     */
+    public void swapOut(PhysicalMemory physicalMemory, int frame, int slot) {
+        byte[] page = new byte[MappedBlockDevice.BLOCK_SIZE];
+        physicalMemory.readFrame(frame, page);
+        device.writeBlock(slot, page);
+    }
+
+    /**
+     * 槽中的页面读入帧
+     */
+    public void swapIn(PhysicalMemory physicalMemory, int slot, int frame) {
+        physicalMemory.writeFrame(frame, device.readBlock(slot));
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getUsedSlots() {
+        lock.lock();
+        try {
+            return slotCount - freeCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        device.close();
+    }
+}
@@ -0,0 +1,143 @@
+package newOs.kernel.memory.service;
+
+import lombok.extern.slf4j.Slf4j;
+import newOs.dto.resp.MemoryManage.TLBStatRespDTO;
+import newOs.kernel.memory.model.PhysicalMemory;
+import newOs.kernel.memory.model.TLB;
+import newOs.kernel.memory.model.TLBEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static newOs.kernel.memory.util.MemoryUtils.OFFSET_BITS;
+import static newOs.kernel.memory.util.MemoryUtils.offset;
+import static newOs.kernel.memory.util.MemoryUtils.virtualPageNumber;
+
+/**
+ * 各核心的 TLB。表项用进程的地址空间号（PCB.asid，由 VirtualMemoryService 分配，同一时刻不重复）标记，
+ * 进程切换时不清空。pid 可能重复，不能用作地址空间号。
+ *
+ * 页被换出后帧会分给别的页，地址空间号在地址空间释放后也会回收。
+ * 因此命中时再用帧的元数据核对一次帧是否仍属于该地址空间的该页，不一致按未命中处理，
+ * 地址空间释放和页换出时的作废只是为了尽早腾出表项。
+ */
+@Slf4j
+@Component
+public class TLBService {
+
+    private final PhysicalMemory physicalMemory;
+    private final int sets;
+    private final int ways;
+
+    // 下标为核心号（下标0不用），由 CPU 按核心数创建
+    private volatile TLB[] tlbs = new TLB[0];
+
+    @Autowired
+    public TLBService(PhysicalMemoryService physicalMemoryService,
+                      @Value("${memory.tlb.sets:16}") int sets,
+                      @Value("${memory.tlb.ways:4}") int ways) {
+        this.physicalMemory = physicalMemoryService.getPhysicalMemory();
+        this.sets = sets;
+        this.ways = ways;
+    }
+
+    /**
+     * 为核心 1 ~ cores-1 各创建一个 TLB
+     */
+    public void createTLBs(int cores) {
+        TLB[] created = new TLB[cores];
+        for (int coreId = 1; coreId < cores; coreId++) {
+            created[coreId] = new TLB(sets, ways);
+        }
+        tlbs = created;
+        log.info("TLB: {} 个核心，每核心 {} 组 × {} 路", cores - 1, sets, ways);
+    }
+
+    /**
+     * 核心的 TLB，核心号无效时返回 null
+     */
+    public TLB get(int coreId) {
+        TLB[] current = tlbs;
+        return coreId > 0 && coreId < current.length ? current[coreId] : null;
+    }
+
+    /**
+     * 在核心的 TLB 中查找地址转换
+     * @return 物理地址，未命中返回 -1
+     */
+    public int lookup(int coreId, int asid, int logicalAddress, boolean write) {
+        TLB tlb = get(coreId);
+        if (tlb == null || asid < 0 || asid > TLBEntry.MAX_ASID) {
+            return -1;
+        }
+        int vpn = virtualPageNumber(logicalAddress);
+        long entry = tlb.lookup(asid, vpn);
+        if (entry != 0 && (!write || TLBEntry.isDirty(entry))) {
+            int frame = TLBEntry.frame(entry);
+            if (physicalMemory.getFrameOwner(frame) == asid && physicalMemory.getFrameVpn(frame) == vpn) {
+                tlb.recordHit();
+                return (frame << OFFSET_BITS) | offset(logicalAddress);
+            }
+            tlb.invalidate(asid, vpn);
+        }
+        tlb.recordMiss();
+        return -1;
+    }
+
+    /**
+     * 页表遍历后填入核心的 TLB
+     * @param write 本次是否为写访问（页表遍历已置页的 D 位）
+     */
+    public void refill(int coreId, int asid, int logicalAddress, int physicalAddress, boolean write) {
+        TLB tlb = get(coreId);
+        if (tlb == null || asid < 0 || asid > TLBEntry.MAX_ASID) {
+            return;
+        }
+        tlb.insert(asid, virtualPageNumber(logicalAddress), physicalAddress >>> OFFSET_BITS, write);
+    }
+
+    /**
+     * 在所有核心上作废一页的表项
+     */
+    public void invalidate(int asid, int vpn) {
+        for (TLB tlb : tlbs) {
+            if (tlb != null) {
+                tlb.invalidate(asid, vpn);
+            }
+        }
+    }
+
+    /**
+     * 在所有核心上作废一个地址空间的全部表项
+     */
+    public void invalidateAll(int asid) {
+        for (TLB tlb : tlbs) {
+            if (tlb != null) {
+                tlb.invalidateAsid(asid);
+            }
+        }
+    }
+
+    public List<TLBStatRespDTO> getStats() {
+        TLB[] current = tlbs;
+        List<TLBStatRespDTO> stats = new ArrayList<>();
+        for (int coreId = 1; coreId < current.length; coreId++) {
+            TLB tlb = current[coreId];
+            long hits = tlb.getHits();
+            long misses = tlb.getMisses();
+            stats.add(new TLBStatRespDTO()
+                    .setCoreId(coreId)
+                    .setSets(tlb.getSets())
+                    .setWays(tlb.getWays())
+                    .setValidEntries(tlb.getValidEntries())
+                    .setHits(hits)
+                    .setMisses(misses)
+                    .setHitRate(hits + misses == 0 ? 0 : (double) hits / (hits + misses))
+                    .setInvalidations(tlb.getInvalidations()));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,575 @@
+package newOs.kernel.memory.service;
+
+import lombok.extern.slf4j.Slf4j;
+import newOs.component.memory.protected1.PCB;
+import newOs.dto.req.Info.InfoImplDTO.InterruptPageFaultInfo;
+import newOs.dto.req.Info.InfoImplDTO.InterruptPageFaultReturnInfo;
+import newOs.dto.resp.MemoryManage.FrameAllocatorStatRespDTO;
+import newOs.dto.resp.MemoryManage.PagingStatRespDTO;
+import newOs.kernel.interrupt.InterruptController;
+import newOs.kernel.memory.exception.MemoryException;
+import newOs.kernel.memory.exception.PageFaultException;
+import newOs.kernel.memory.model.BuddyAllocator;
+import newOs.kernel.memory.model.PageTable;
+import newOs.kernel.memory.model.PhysicalMemory;
+import newOs.kernel.memory.model.TLBEntry;
+import newOs.kernel.memory.replacement.ReplacementPolicy;
+import newOs.kernel.memory.replacement.ReplacementPolicyFactory;
+import newOs.kernel.memory.replacement.ResidentFrames;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import static newOs.kernel.memory.util.MemoryUtils.*;
+
+/**
+ * 进程地址空间：段表 + 页表两级转换，布局见 MemoryUtils。
+ *
+ * 段表是物理内存中的内核对象（2KB，从 slab 缓存分配），页表是表池中的 int 表：
+ * SBTR              段表的物理地址，-1 表示尚未分配内存
+ * PBTR              第 0 段的页表号
+ * segmentTableSize  已使用的段数
+ * pageTableSize     已分配的页数
+ * 段表项 [s] 为第 s 段的页表号 + 1（0 表示该段无效），[SEGMENTS + s] 为该段的页数。
+ *
+ * 页面在第一次被访问时调入（按需调页），进程开始运行前也可以预先调入开头的若干页；地址转换过程中不创建对象。
+ * 缺页通过中断控制器发出 PAGE_FAULT。有空闲帧时各核心并发地从伙伴系统取帧；
+ * 没有空闲帧时持有置换锁，按置换策略在全部物理帧中选一页换出到交换区。
+ * 页面换出和地址空间释放都持有置换锁，同一时刻只有一个核心在收回帧。
+ * 每个地址空间分配一个唯一的地址空间号（ASID），帧的所属和 TLB 表项都按它记录，不用可能重复的 pid。
+ * 换出页面时还要在帧锁的写锁下解除映射，读写内存的一方用帧锁确认转换得到的帧在访问期间没有被换出。
+ */
+@Slf4j
+@Component
+public class VirtualMemoryService {
+
+    // 段表大小：每段一个页表号和一个页数
+    private static final int SEGMENT_TABLE_BYTES = SEGMENTS * 2 * Integer.BYTES;
+
+    private final PhysicalMemoryService physicalMemoryService;
+    private final KernelMemoryService kernelMemoryService;
+    private final PhysicalMemory physicalMemory;
+    private final TLBService tlbService;
+    private final SwapService swapService;
+    private final InterruptController interruptController;
+    // 地址空间号 -> 进程，地址空间释放后号码回收
+    private final Map<Integer, PCB> addressSpaces = new ConcurrentHashMap<>();
+    private final AtomicInteger nextAsid = new AtomicInteger();
+
+    private final PageTable pageTables = new PageTable(PAGES_PER_SEGMENT);
+
+    private final ReentrantLock replacementLock = new ReentrantLock();
+    private final StampedLock frameLock = new StampedLock();
+    private volatile ReplacementPolicy replacementPolicy;
+    private final ResidentFrames residentFrames = new FrameView();
+
+    private final LongAdder pageFaults = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder swapIns = new LongAdder();
+    private final LongAdder swapOuts = new LongAdder();
+
+    @Autowired
+    public VirtualMemoryService(PhysicalMemoryService physicalMemoryService, KernelMemoryService kernelMemoryService,
+                                TLBService tlbService, SwapService swapService, InterruptController interruptController,
+                                @Value("${memory.replacement-policy:CLOCK}") String policy) {
+        this.physicalMemoryService = physicalMemoryService;
+        this.kernelMemoryService = kernelMemoryService;
+        this.physicalMemory = physicalMemoryService.getPhysicalMemory();
+        this.tlbService = tlbService;
+        this.swapService = swapService;
+        this.interruptController = interruptController;
+        this.replacementPolicy = ReplacementPolicyFactory.create(policy, physicalMemory.getFrameCount());
+        log.info("页面置换策略: {}", replacementPolicy.getName());
+    }
+
+    /**
+     * 为进程建立（或扩大）地址空间，使其至少包含 bytes 字节和进程声明的大小；已足够时不变。
+     * 只建立段表和页表，页面在访问时调入
+     */
+    public void allocate(PCB pcb, long bytes) {
+        int pages = pagesFor(Math.max(bytes, pcb.getSize()));
+        if (pages > MAX_PAGES) {
+            throw new MemoryException("进程 " + pcb.getPid() + " 申请的内存超过地址空间上限: " + bytes + "B", "400");
+        }
+        if (pcb.getSBTR() < 0) {
+            int asid = allocateAsid(pcb);
+            try {
+                pcb.setSBTR(allocateSegmentTable());
+            } catch (RuntimeException e) {
+                addressSpaces.remove(asid);
+                throw e;
+            }
+            pcb.setAsid(asid);
+            pcb.setPBTR(-1);
+            pcb.setSegmentTableSize(0);
+            pcb.setPageTableSize(0);
+            pcb.setSwapInTime(0);
+            pcb.setSwapOutTime(0);
+            pcb.setPageFaultRate(0);
+            pcb.setMemoryAccessCount(0);
+            pcb.setPageFaultCount(0);
+        }
+        int current = pcb.getPageTableSize();
+        if (pages <= current) {
+            return;
+        }
+        int sbtr = pcb.getSBTR();
+        int lastSegment = (pages - 1) / PAGES_PER_SEGMENT;
+        for (int s = current / PAGES_PER_SEGMENT; s <= lastSegment; s++) {
+            if (segmentEntry(sbtr, s) == 0) {
+                setSegmentEntry(sbtr, s, pageTables.allocate() + 1);
+            }
+            setSegmentEntry(sbtr, SEGMENTS + s, Math.min(PAGES_PER_SEGMENT, pages - s * PAGES_PER_SEGMENT));
+        }
+        pcb.setPBTR(segmentEntry(sbtr, 0) - 1);
+        pcb.setSegmentTableSize(lastSegment + 1);
+        pcb.setPageTableSize(pages);
+        pcb.setSize((int) Math.min(Integer.MAX_VALUE, (long) pages * PAGE_SIZE));
+        log.info("进程 {} 地址空间: {} 段 {} 页", pcb.getPid(), lastSegment + 1, pages);
+    }
+
+    // 从上次分配的下一个号开始找未使用的地址空间号
+    private int allocateAsid(PCB pcb) {
+        for (int i = 0; i <= TLBEntry.MAX_ASID; i++) {
+            int asid = Math.floorMod(nextAsid.getAndIncrement(), TLBEntry.MAX_ASID + 1);
+            if (addressSpaces.putIfAbsent(asid, pcb) == null) {
+                return asid;
+            }
+        }
+        throw new MemoryException("地址空间号已用完，无法为进程 " + pcb.getPid() + " 分配内存", "507");
+    }
+
+    // 物理内存已被进程页面占满时，换出一页腾出帧给段表
+    private int allocateSegmentTable() {
+        for (;;) {
+            try {
+                return kernelMemoryService.allocate(SEGMENT_TABLE_BYTES);
+            } catch (MemoryException e) {
+                // 没有可换出的页面时 evict 抛出 PageFaultException
+                replacementLock.lock();
+                try {
+                    physicalMemoryService.freeFrame(evict());
+                } finally {
+                    replacementLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * 逻辑地址转换为物理地址，页不在内存中时发出缺页中断
+     * @param write 是否为写访问（置页的 D 位）
+     * @throws MemoryException 进程未分配内存或地址越界
+     * @throws PageFaultException 缺页且无法取得物理帧
+     */
+    public int translate(PCB pcb, int logicalAddress, boolean write) {
+        int sbtr = pcb.getSBTR();
+        if (sbtr < 0) {
+            throw new MemoryException("进程 " + pcb.getPid() + " 未分配内存，不能访问地址 " + logicalAddress, "403");
+        }
+        int segment = segment(logicalAddress);
+        int page = page(logicalAddress);
+        if (segment >= pcb.getSegmentTableSize() || page >= segmentEntry(sbtr, SEGMENTS + segment)) {
+            throw new MemoryException("进程 " + pcb.getPid() + " 访问越界: " + logicalAddress, "403");
+        }
+        int pageTableId = segmentEntry(sbtr, segment) - 1;
+        int[] pageTable = pageTables.get(pageTableId);
+        int flags = write ? PageTable.REFERENCED | PageTable.DIRTY : PageTable.REFERENCED;
+        for (;;) {
+            int pte = pageTable[page];
+            if (!PageTable.isPresent(pte)) {
+                //缺页中断，页面调入后重新读取页表项
+                interruptController.triggerPageFault(new InterruptPageFaultInfo()
+                        .setPcb(pcb)
+                        .setPageTableId(pageTableId)
+                        .setPage(page)
+                        .setVpn(virtualPageNumber(logicalAddress)));
+                continue;
+            }
+            // 页表项可能同时被页面置换改写，失败时重新读取
+            if ((pte & flags) == flags || PageTable.compareAndSet(pageTable, page, pte, pte | flags)) {
+                return (PageTable.frameOf(pte) << OFFSET_BITS) | offset(logicalAddress);
+            }
+        }
+    }
+
+    /**
+     * 缺页处理：取得一个帧，从交换区读回页面或清零，填写页表项。
+     * 页表项只由所属进程（在一个核心上执行）的缺页处理置为有效，帧填好之前置换策略不会选中它。
+     * 页面正在被换出（E 位）时，等置换锁释放后重新读取页表项：换出完成则从交换区读回，
+     * 交换区已满而恢复了原映射则交还新取得的帧
+     * @throws PageFaultException 没有空闲帧，也没有可以换出的页面
+     */
+    public InterruptPageFaultReturnInfo handlePageFault(PCB pcb, int pageTableId, int page, int vpn) {
+        int[] pageTable = pageTables.get(pageTableId);
+        int pte = pageTable[page];
+        if (PageTable.isPresent(pte)) {
+            return new InterruptPageFaultReturnInfo().setFrame(PageTable.frameOf(pte));
+        }
+        int frame = physicalMemoryService.allocateFrame(pcb.getAsid(), vpn, pageTableId);
+        if (frame < 0) {
+            replacementLock.lock();
+            try {
+                // 等锁期间可能有进程释放了内存
+                frame = physicalMemoryService.allocateFrame(pcb.getAsid(), vpn, pageTableId);
+                if (frame < 0) {
+                    frame = evict();
+                    physicalMemory.setFrameMapping(frame, pcb.getAsid(), vpn, pageTableId);
+                }
+                // 持有置换锁时不会有换出在进行，页表项已是最终状态
+                pte = pageTable[page];
+            } finally {
+                replacementLock.unlock();
+            }
+        } else if ((pte & PageTable.EVICTING) != 0) {
+            // 换出该页的核心持有置换锁，等它结束后再读页表项
+            replacementLock.lock();
+            try {
+                pte = pageTable[page];
+            } finally {
+                replacementLock.unlock();
+            }
+        }
+        if (PageTable.isPresent(pte)) {
+            // 交换区已满，换出被撤销，页面仍在原来的帧中
+            physicalMemoryService.freeFrame(frame);
+            return new InterruptPageFaultReturnInfo().setFrame(PageTable.frameOf(pte));
+        }
+        boolean swappedIn = PageTable.isSwapped(pte);
+        if (swappedIn) {
+            // 交换区中的副本保留到页面被释放为止，未修改的页面再次换出时不必写回
+            int slot = PageTable.slotOf(pte);
+            swapService.swapIn(physicalMemory, slot, frame);
+            physicalMemory.setFrameSwapSlot(frame, slot);
+            pcb.setSwapInTime(pcb.getSwapInTime() + 1);
+            swapIns.increment();
+        } else {
+            physicalMemory.clearFrame(frame);
+        }
+        replacementPolicy.onLoaded(frame);
+        PageTable.setVolatile(pageTable, page, PageTable.PRESENT | frame);
+
+        pageFaults.increment();
+        pcb.setPageFaultCount(pcb.getPageFaultCount() + 1);
+        long accesses = Math.max(1, pcb.getMemoryAccessCount());
+        pcb.setPageFaultRate((int) Math.min(1000, pcb.getPageFaultCount() * 1000 / accesses));
+        return new InterruptPageFaultReturnInfo().setFrame(frame).setSwappedIn(swappedIn);
+    }
+
+    /**
+     * 进程开始运行前预先调入开头的至多 maxPages 页（尚未调入过的页），减少启动时的缺页。
+     * 按伙伴系统的连续块整块申请，逐页填写页表；空闲帧不够时只调入能分到的部分，不换出其他页面。
+     * 与缺页处理一样只能由进程自己的任务调用，页表项不会被并发地置为有效
+     * @return 调入的页数
+     */
+    public int prefault(PCB pcb, int maxPages) {
+        int sbtr = pcb.getSBTR();
+        int pages = Math.min(maxPages, pcb.getPageTableSize());
+        if (sbtr < 0 || pages <= 0) {
+            return 0;
+        }
+        int loaded = 0;
+        int vpn = 0;
+        while (vpn < pages) {
+            // 已调入或已换出的页不再预调，只为连续的未使用页申请帧
+            int run = 0;
+            while (vpn + run < pages && pageTableOf(sbtr, vpn + run)[(vpn + run) & (PAGES_PER_SEGMENT - 1)] == 0) {
+                run++;
+            }
+            if (run == 0) {
+                vpn++;
+                continue;
+            }
+            int order = Math.min(BuddyAllocator.MAX_ORDER, 31 - Integer.numberOfLeadingZeros(run));
+            int first = -1;
+            for (; order >= 0; order--) {
+                first = physicalMemoryService.allocatePages(order, pcb.getAsid());
+                if (first >= 0) {
+                    break;
+                }
+            }
+            if (first < 0) {
+                break;
+            }
+            for (int i = 0; i < 1 << order; i++, vpn++) {
+                int frame = first + i;
+                int pageTableId = segmentEntry(sbtr, vpn / PAGES_PER_SEGMENT) - 1;
+                int[] pageTable = pageTables.get(pageTableId);
+                int page = vpn & (PAGES_PER_SEGMENT - 1);
+                physicalMemory.setFrameMapping(frame, pcb.getAsid(), vpn, pageTableId);
+                physicalMemory.clearFrame(frame);
+                replacementPolicy.onLoaded(frame);
+                PageTable.setVolatile(pageTable, page, PageTable.PRESENT | frame);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private int[] pageTableOf(int sbtr, int vpn) {
+        return pageTables.get(segmentEntry(sbtr, vpn / PAGES_PER_SEGMENT) - 1);
+    }
+
+    // 按置换策略换出一页，返回腾出的帧；调用方持有置换锁
+    private int evict() {
+        int frame = replacementPolicy.selectVictim(residentFrames);
+        if (frame < 0) {
+            throw new PageFaultException("没有可换出的物理帧");
+        }
+        int owner = physicalMemory.getFrameOwner(frame);
+        int vpn = physicalMemory.getFrameVpn(frame);
+        int pageTableId = physicalMemory.getFramePageTable(frame);
+        int slot = physicalMemory.getFrameSwapSlot(frame);
+        int[] pageTable = pageTables.get(pageTableId);
+        int page = vpn & (PAGES_PER_SEGMENT - 1);
+
+        // 先把页表项置为正在换出，并解除帧的映射、作废各核心 TLB 中的表项：
+        // 所属进程再访问该页会进入缺页处理并等待置换锁，此后页面内容不会再变
+        int pte;
+        long stamp = frameLock.writeLock();
+        try {
+            do {
+                pte = pageTable[page];
+            } while (!PageTable.compareAndSet(pageTable, page, pte, PageTable.EVICTING));
+            physicalMemory.clearFrameMapping(frame);
+            tlbService.invalidate(owner, vpn);
+        } finally {
+            frameLock.unlockWrite(stamp);
+        }
+
+        boolean dirty = (pte & PageTable.DIRTY) != 0;
+        int swappedPte = 0;
+        if (dirty || slot >= 0) {
+            if (slot < 0) {
+                slot = swapService.allocateSlot();
+            }
+            if (slot < 0) {
+                // 交换区已满，恢复原来的映射
+                physicalMemory.setFrameMapping(frame, owner, vpn, pageTableId);
+                PageTable.setVolatile(pageTable, page, pte);
+                throw new PageFaultException("交换区已满，无法换出页面");
+            }
+            if (dirty) {
+                swapService.swapOut(physicalMemory, frame, slot);
+                swapOuts.increment();
+                PCB ownerPcb = addressSpaces.get(owner);
+                if (ownerPcb != null) {
+                    ownerPcb.setSwapOutTime(ownerPcb.getSwapOutTime() + 1);
+                }
+            }
+            swappedPte = PageTable.SWAPPED | slot;
+        }
+        // 从未写过的页面不进交换区，再次访问时重新清零
+        PageTable.setVolatile(pageTable, page, swappedPte);
+        evictions.increment();
+        return frame;
+    }
+
+    public PhysicalMemory getPhysicalMemory() {
+        return physicalMemory;
+    }
+
+    /**
+     * 开始一次内存读写：在地址转换之前取得帧锁的乐观读标记
+     */
+    public long beginAccess() {
+        return frameLock.tryOptimisticRead();
+    }
+
+    /**
+     * 读取之后确认期间没有页面被换出，失败时重新转换再读
+     */
+    public boolean validateAccess(long stamp) {
+        return frameLock.validate(stamp);
+    }
+
+    /**
+     * 写入之前把乐观读标记转为读锁，期间页面不会被换出
+     * @return 读锁标记，期间已有页面被换出时返回 0，需要重新转换
+     */
+    public long lockAccess(long stamp) {
+        return frameLock.tryConvertToReadLock(stamp);
+    }
+
+    public void unlockAccess(long stamp) {
+        frameLock.unlockRead(stamp);
+    }
+
+    /**
+     * 释放进程的全部物理帧、交换区槽、页表和段表
+     */
+    public void release(PCB pcb) {
+        int sbtr = pcb.getSBTR();
+        if (sbtr < 0) {
+            return;
+        }
+        int frames = 0;
+        replacementLock.lock();
+        try {
+            for (int s = 0; s < SEGMENTS; s++) {
+                int entry = segmentEntry(sbtr, s);
+                if (entry == 0) {
+                    continue;
+                }
+                int pageTableId = entry - 1;
+                int[] pageTable = pageTables.get(pageTableId);
+                int limit = segmentEntry(sbtr, SEGMENTS + s);
+                for (int p = 0; p < limit; p++) {
+                    int pte = pageTable[p];
+                    if (PageTable.isPresent(pte)) {
+                        int frame = PageTable.frameOf(pte);
+                        // 先清除页表项：帧交还伙伴系统后可能不持锁地分给其他进程，
+                        // 置换策略不能再通过旧页表项认为它可以换出
+                        PageTable.setVolatile(pageTable, p, 0);
+                        int slot = physicalMemory.getFrameSwapSlot(frame);
+                        if (slot >= 0) {
+                            swapService.freeSlot(slot);
+                        }
+                        physicalMemoryService.freeFrame(frame);
+                        frames++;
+                    } else if (PageTable.isSwapped(pte)) {
+                        swapService.freeSlot(PageTable.slotOf(pte));
+                    }
+                }
+                pageTables.free(pageTableId);
+            }
+            kernelMemoryService.free(sbtr);
+        } finally {
+            replacementLock.unlock();
+        }
+        // 先作废 TLB 表项再回收地址空间号，新的地址空间不会命中旧表项
+        tlbService.invalidateAll(pcb.getAsid());
+        addressSpaces.remove(pcb.getAsid(), pcb);
+        pcb.setAsid(-1);
+        pcb.setSBTR(-1);
+        pcb.setPBTR(-1);
+        pcb.setSegmentTableSize(0);
+        pcb.setPageTableSize(0);
+        log.info("进程 {} 释放内存: {} 帧，缺页 {} 次，换入 {} 次，换出 {} 次", pcb.getPid(), frames,
+                pcb.getPageFaultCount(), pcb.getSwapInTime(), pcb.getSwapOutTime());
+    }
+
+    /**
+     * 切换页面置换策略，之后的缺页按新策略选择换出的页面
+     * @throws IllegalArgumentException 未知的策略名称
+     */
+    public void switchReplacementPolicy(String name) {
+        ReplacementPolicy policy = ReplacementPolicyFactory.create(name, physicalMemory.getFrameCount());
+        replacementLock.lock();
+        try {
+            replacementPolicy = policy;
+        } finally {
+            replacementLock.unlock();
+        }
+        log.info("页面置换策略切换为 {}", policy.getName());
+    }
+
+    public long getPageFaultCount() {
+        return pageFaults.sum();
+    }
+
+    public int getPageTablesInUse() {
+        return pageTables.getInUse();
+    }
+
+    /**
+     * 伙伴系统各阶的空闲块、碎片率和 slab 缓存的占用
+     */
+    public FrameAllocatorStatRespDTO getFrameAllocatorStats() {
+        int[] freeBlocks = physicalMemoryService.getFreeBlocks();
+        int freeFrames = 0;
+        int largest = 0;
+        for (int order = 0; order < freeBlocks.length; order++) {
+            freeFrames += freeBlocks[order] << order;
+            if (freeBlocks[order] > 0) {
+                largest = 1 << order;
+            }
+        }
+        return new FrameAllocatorStatRespDTO()
+                .setFrames(physicalMemory.getFrameCount())
+                .setFreeFrames(freeFrames)
+                .setStripes(physicalMemoryService.getStripeCount())
+                .setFreeBlocks(freeBlocks)
+                .setLargestFreeBlock(largest)
+                .setFragmentation(freeFrames == 0 ? 0 : 1 - (double) largest / freeFrames)
+                .setSlabCaches(kernelMemoryService.getSlabStats());
+    }
+
+    public PagingStatRespDTO getPagingStats() {
+        return new PagingStatRespDTO()
+                .setReplacementPolicy(replacementPolicy.getName())
+                .setFrames(physicalMemory.getFrameCount())
+                .setFreeFrames(physicalMemoryService.getFreeFrameCount())
+                .setPageTables(pageTables.getInUse())
+                .setPageFaults(pageFaults.sum())
+                .setEvictions(evictions.sum())
+                .setSwapIns(swapIns.sum())
+                .setSwapOuts(swapOuts.sum())
+                .setSwapSlots(swapService.getSlotCount())
+                .setSwapSlotsUsed(swapService.getUsedSlots());
+    }
+
+    private int segmentEntry(int sbtr, int index) {
+        return physicalMemory.readInt(sbtr + index * Integer.BYTES);
+    }
+
+    private void setSegmentEntry(int sbtr, int index, int value) {
+        physicalMemory.writeInt(sbtr + index * Integer.BYTES, value);
+    }
+
+    // 置换策略通过帧号读写映射该帧的页表项的 R、D 位；只在持有置换锁时使用
+    private final class FrameView implements ResidentFrames {
+
+        @Override
+        public int getFrameCount() {
+            return physicalMemory.getFrameCount();
+        }
+
+        @Override
+        public boolean isEvictable(int frame) {
+            int pageTableId = physicalMemory.getFramePageTable(frame);
+            if (physicalMemory.getFrameOwner(frame) < 0 || pageTableId < 0) {
+                return false;
+            }
+            int pte = pageTables.get(pageTableId)[pageOf(frame)];
+            return PageTable.isPresent(pte) && PageTable.frameOf(pte) == frame;
+        }
+
+        @Override
+        public boolean isReferenced(int frame) {
+            return (pte(frame) & PageTable.REFERENCED) != 0;
+        }
+
+        @Override
+        public boolean isDirty(int frame) {
+            return (pte(frame) & PageTable.DIRTY) != 0;
+        }
+
+        @Override
+        public void clearReferenced(int frame) {
+            int[] pageTable = pageTables.get(physicalMemory.getFramePageTable(frame));
+            int page = pageOf(frame);
+            int pte;
+            do {
+                pte = pageTable[page];
+            } while ((pte & PageTable.REFERENCED) != 0
+                    && !PageTable.compareAndSet(pageTable, page, pte, pte & ~PageTable.REFERENCED));
+            tlbService.invalidate(physicalMemory.getFrameOwner(frame), physicalMemory.getFrameVpn(frame));
+        }
+
+        private int pte(int frame) {
+            return pageTables.get(physicalMemory.getFramePageTable(frame))[pageOf(frame)];
+        }
+
+        private int pageOf(int frame) {
+            return physicalMemory.getFrameVpn(frame) & (PAGES_PER_SEGMENT - 1);
+        }
+    }
+}
@@ -1,4 +1,58 @@
 package newOs.kernel.memory.util;
 
-public class MemoryUtils {
+/**
+ * 逻辑地址布局（与 PCB 注释一致）：8 位段号 | 12 位页号 | 12 位页内偏移，
+ * 即每个进程最多 256 段，每段最多 4096 页，每页 4KB。
+ * 进程的页按顺序排布：第 i 页位于第 i / 4096 段的第 i % 4096 页。
+ */
+public final class MemoryUtils {
+
+    public static final int OFFSET_BITS = 12;
+    public static final int PAGE_BITS = 12;
+    public static final int SEGMENT_BITS = 8;
+
+    // 页大小（字节）
+    public static final int PAGE_SIZE = 1 << OFFSET_BITS;
+    // 每段页数
+    public static final int PAGES_PER_SEGMENT = 1 << PAGE_BITS;
+    // 每个进程的段数
+    public static final int SEGMENTS = 1 << SEGMENT_BITS;
+    // 每个进程最多的页数
+    public static final int MAX_PAGES = SEGMENTS * PAGES_PER_SEGMENT;
+
+    private static final int PAGE_MASK = PAGES_PER_SEGMENT - 1;
+    private static final int OFFSET_MASK = PAGE_SIZE - 1;
+
+    private MemoryUtils() {
+    }
+
+    public static int segment(int logicalAddress) {
+        return logicalAddress >>> (PAGE_BITS + OFFSET_BITS);
+    }
+
+    public static int page(int logicalAddress) {
+        return (logicalAddress >>> OFFSET_BITS) & PAGE_MASK;
+    }
+
+    public static int offset(int logicalAddress) {
+        return logicalAddress & OFFSET_MASK;
+    }
+
+    /**
+     * 虚页号：段号和页号拼成的 20 位数
+     */
+    public static int virtualPageNumber(int logicalAddress) {
+        return logicalAddress >>> OFFSET_BITS;
+    }
+
+    /**
+     * 容纳 bytes 字节需要的页数
+     */
+    public static int pagesFor(long bytes) {
+        if (bytes <= 0) {
+            return 0;
+        }
+        long pages = (bytes + PAGE_SIZE - 1) >>> OFFSET_BITS;
+        return (int) Math.min(pages, Integer.MAX_VALUE);
+    }
 }
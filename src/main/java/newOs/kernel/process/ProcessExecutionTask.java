@@ -1,33 +1,33 @@
 package newOs.kernel.process;
 
 
-import com.alibaba.fastjson.JSONObject;
 import lombok.extern.slf4j.Slf4j;
-import newOs.common.InterruptConstant.InterruptType;
 import newOs.common.InterruptConstant.SystemCallType;
 import newOs.common.fileSystemConstant.DeviceStatusType;
+import newOs.component.cpu.MMU.MMU;
 import newOs.component.cpu.Interrupt.InterruptRequestLine;
 import newOs.component.memory.protected1.PCB;
+import newOs.component.memory.protected1.Program;
 import newOs.component.memory.protected1.ProtectedMemory;
-import newOs.dto.req.Info.InfoImplDTO.DeviceInfoImplDTO;
-import newOs.dto.req.Info.InfoImplDTO.DeviceInfoReturnImplDTO;
+import newOs.component.timer.SimulationClock;
 import newOs.kernel.interrupt.InterruptController;
+import newOs.kernel.filesystem.FileSystem;
 import newOs.kernel.interrupt.hardwareHandler.ISRHandler;
+import newOs.kernel.interrupt.sysCallHandler.SyscallFrame;
+import newOs.kernel.memory.exception.MemoryException;
 import newOs.kernel.process.scheduler.SideScheduler;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
-import static newOs.common.processConstant.InstructionConstant.*;
 import static newOs.common.processConstant.processStateConstant.RUNNING;
 import static newOs.common.processConstant.processStateConstant.TERMINATED;
-import static newOs.kernel.process.scheduler.ProcessScheduler.strategy;
 
 
 @Slf4j
 public class ProcessExecutionTask implements Runnable{
     private final PCB pcb;
-    private final String [] instructions;
+    private final Program program;
 
     private final SideScheduler Sscheduler; // 调度器依赖
 
@@ -45,48 +45,75 @@ public class ProcessExecutionTask implements Runnable{
 
     private final ISRHandler ISRHandler;
     private final InterruptController interruptController;
+    // 计算指令的耗时由模拟时钟计时
+    private final SimulationClock clock;
+    // 访问内存时进行地址转换
+    private final MMU mmu;
+    // 本核心的系统调用帧，任务开始执行时取得
+    private SyscallFrame frame;
+    // 进程第一次上核：开始执行前在本核心上建立地址空间并预调页
+    private final boolean firstDispatch;
 
 
 
-    public ProcessExecutionTask(PCB pcb, ProtectedMemory protectedMemory, ISRHandler ISRHandler, SideScheduler Sscheduler, InterruptController interruptController) {
+    public ProcessExecutionTask(PCB pcb, ProtectedMemory protectedMemory, ISRHandler ISRHandler, SideScheduler Sscheduler, InterruptController interruptController, SimulationClock clock, MMU mmu) {
+        this(pcb, protectedMemory, ISRHandler, Sscheduler, interruptController, clock, mmu, false);
+    }
+
+    public ProcessExecutionTask(PCB pcb, ProtectedMemory protectedMemory, ISRHandler ISRHandler, SideScheduler Sscheduler, InterruptController interruptController, SimulationClock clock, MMU mmu,
+                                boolean firstDispatch) {
         this.pcb = pcb;
+        this.firstDispatch = firstDispatch;
 
         //暂时用pcb的模块进行模拟
         //实际上 pcb中存储 内存映射信息（页表基址）
-        this.instructions = pcb.getInstructions();
+        this.program = pcb.getProgram();
 
         this.irlTable = protectedMemory.getIrlTable();
         this.irlIO = protectedMemory.getIrlIO();
         this.ISRHandler = ISRHandler;
         this.Sscheduler = Sscheduler;
         this.interruptController = interruptController;
+        this.clock = clock;
+        this.mmu = mmu;
     }
 
     @Override
     public void run() {
+        //进程让出CPU后可能被其他核心窃取而改变coreId，这里记下本核心
+        int coreId = pcb.getCoreId();
         try {
             InterruptRequestLine irl = irlTable.get(Thread.currentThread().getId());
+            frame = interruptController.syscallFrame(coreId);
 
             //对于run， coreID = executeservice-i
 
 
-            //0表示未切换，1表示切换后放进就绪队列，2表示切换后放进等待队列
+            //0表示未切换，1表示切换后放进就绪队列，2表示切换后放进等待队列，3表示进程已因内存错误终止
             //模拟流水线切换指令边界
             int isSwitchProcess = 0;
 
+            //建立页表和清零帧放在目标核心上做，不占用入队方（请求线程、中断处理或其他核心）的时间
+            if (firstDispatch) {
+                Sscheduler.allocateMemory(pcb);
+            }
+
             Sscheduler.schedulerProcess(pcb);
 
             //获取当前线程的id
-            for (int ir = pcb.getIr(); ir < instructions.length; ir = pcb.getIr()) {
-                String instruction = instructions[ir];
+            for (int ir = pcb.getIr(); ir < program.length(); ir = pcb.getIr()) {
                 //执行Q退出的时候，不需要检测时间片是否用完
-                if (instruction.equals(Q)) {
-                    executeInstruction(instruction);
+                if (program.opcode(ir) == Program.OP_QUIT) {
+                    executeInstruction(ir);
                     break;
                 } else {
                     // 执行到IO指令，一直获取不到文件资源，都会导致进程切换，ir不会+1
-                    isSwitchProcess = executeInstruction(instruction);
+                    isSwitchProcess = executeInstruction(ir);
 
+                    //3 表示进程已终止并移出队列
+                    if (isSwitchProcess == 3) {
+                        break;
+                    }
                     //2 表示进行IO等待
                     if (isSwitchProcess == 2) {
                         //进程切换等待
@@ -96,9 +123,8 @@ public class ProcessExecutionTask implements Runnable{
                         //执行完一条指令之后
                         //检测时间片
                         pcb.setIr(ir + 1);
-                        String peek = irl.peek();
-                        if (peek != null) {
-                            int i = ISRHandler.handlIsrInterrupt(pcb);
+                        if (irl.hasPending()) {
+                            int i = ISRHandler.handlIsrInterrupt(pcb, irl);
                             if (i != 0) {         //拷贝isSwitchProcess
                                 isSwitchProcess = i; //进行进程的调度切换
                                 //时间片用完,调度到等待队列
@@ -112,123 +138,78 @@ public class ProcessExecutionTask implements Runnable{
                     }
                 }
             }
-            Sscheduler.executeNextProcess(pcb.getCoreId());
         }catch (Exception e){
             e.printStackTrace();
+        }finally {
+            //本核心取下一个进程，没有则置为空闲；异常时也要执行，否则核心一直处于忙状态
+            Sscheduler.executeNextProcess(coreId);
         }
     }
 
-    private int executeInstruction(String instruction) {
+    private int executeInstruction(int ir) {
         int isSwitchProcess = 0;
-        String [] parts = instruction.split(" ");
-        String command = parts[0];
         try{
-            log.info("当前执行指令：" + instruction);
-            switch (command){
-                case "M":
-                    //设置PCB大小信息
-                    !MemoryInfoImplDTO memoryInfoImplDTO = new MemoryInfoImplDTO(pcb);
-                    !//设置memoryInfoImplDTO相关信息
-                    !//调用系统中断
-                    !MemoryInfoReturnImplDTO memoryInfoReturnImplDTO = (MemoryInfoReturnImplDTO) interruptController.triggerSystemCall(memoryInfoImplDTO);
-                    !//执行一些相关操作
-
-
+            log.info("当前执行指令：{}", program.source(ir));
+            switch (program.opcode(ir)){
+                case Program.OP_MEMORY:
+                    //为进程建立地址空间，物理帧在访问时分配
+                    frame.reset().setSystemCallType(SystemCallType.ALLOCATE_MEMORY).setPcb(pcb);
+                    frame.getArgs().put("size", program.operand(ir));
+                    interruptController.triggerSystemCall(frame);
                     break;
-                case "A":       //进行逻辑地址的解析
-                    int logicAddress = Integer.parseInt(parts[1]);
-                    // 8 12 12
-                    if (logicAddress == 8024) {
-                        System.out.println("nihoa");
-                    }
-                    byte[] byteArray = new byte[4];
-                    System.out.println("----------------------testtestetset:   " + pcb.getSBTR());
-                    !MemoryInfoImplDTO memoryInfoImplDTO = new MemoryInfoImplDTO(pcb);
-                    !//设置相关信息
-                    !//调用系统中断
-                    !MemoryInfoReturnImplDTO memoryInfoReturnImplDTO = (MemoryInfoReturnImplDTO) interruptController.triggerSystemCall(memoryInfoImplDTO);
-                    //后续处理 ，比如访问成功
-
-                    //申请资源
+                case Program.OP_ACCESS:       //进行逻辑地址的解析
+                    int logicAddress = program.operand(ir);
+                    // 8 12 12，越界或内存不足时抛出 MemoryException
+                    int physicalAddress = mmu.translate(pcb, logicAddress, false);
+                    log.info("{}：逻辑地址 {} -> 物理地址 {}", pcb.getProcessName(), logicAddress, physicalAddress);
                     break;
-                case "C":
-                    int computeTime = Integer.parseInt(parts[1]);
-                    Thread.sleep(computeTime);
+                case Program.OP_COMPUTE:
+                    int computeTime = program.operand(ir);
+                    clock.sleep(computeTime);
                     pcb.setRemainingTime(pcb.getRemainingTime() - computeTime);
-                    log.info(pcb.getProcessName() + "：" + instruction + "执行完成");
+                    pcb.setExecutedTime(pcb.getExecutedTime() + computeTime);
+                    log.info("{}：{}执行完成", pcb.getProcessName(), program.source(ir));
                     break;
-                case "OPEN":
+                case Program.OP_OPEN:
                     //打开文件- 如果返回是成功，则继续 如果返回失败，则直接抛出错误 -如果等待，则isSwitchProcess = 2
-                    //封装
-                    DeviceInfoImplDTO deviceInfo = new DeviceInfoImplDTO();
-                    deviceInfo.setDeviceName(parts[1]);
-                    deviceInfo.setInterruptType(InterruptType.SYSTEM_CALL);
-                    deviceInfo.setSystemCallType(SystemCallType.OPEN_FILE);
-                    deviceInfo.setPcb(pcb);
-                    DeviceInfoReturnImplDTO deviceInfoReturn = (DeviceInfoReturnImplDTO) interruptController.triggerSystemCall(deviceInfo);
-                    if(deviceInfoReturn.getDeviceStatusType() == DeviceStatusType.FREE){
-                        //继续执行
-                        isSwitchProcess = 0;
-                    }else if(deviceInfoReturn.getDeviceStatusType() == DeviceStatusType.BUSY) {
-                        //等待
-                        isSwitchProcess = 2;
-                    }
+                    //参数填入本核心的系统调用帧
+                    frame.reset().setSystemCallType(SystemCallType.OPEN_FILE).setName(program.device(ir)).setPcb(pcb);
+                    isSwitchProcess = deviceSyscall(frame);
                     break;
-                case "READ":
+                case Program.OP_READ:
                     //读取文件- 如果返回是成功，则继续 如果返回失败，则直接抛出错误 -如果等待，则isSwitchProcess = 2
-                    //封装
-                    DeviceInfoImplDTO deviceInfo2 = new DeviceInfoImplDTO();
-                    deviceInfo2.setDeviceName(parts[1]);
-                    deviceInfo2.setInterruptType(InterruptType.SYSTEM_CALL);
-                    deviceInfo2.setSystemCallType(SystemCallType.READ_FILE);
-                    deviceInfo2.setPcb(pcb);
-                    DeviceInfoReturnImplDTO deviceInfoReturn2 = (DeviceInfoReturnImplDTO) interruptController.triggerSystemCall(deviceInfo2);
-                    if(deviceInfoReturn2.getDeviceStatusType() == DeviceStatusType.FREE){
-                        //继续执行
-                        isSwitchProcess = 0;
-                    }else if(deviceInfoReturn2.getDeviceStatusType() == DeviceStatusType.BUSY) {
-                        //等待
-                        isSwitchProcess = 2;
-                    }
+                    frame.reset().setSystemCallType(SystemCallType.READ_FILE).setName(program.device(ir)).setPcb(pcb);
+                    isSwitchProcess = deviceSyscall(frame);
                     break;
-                case "WRITE":
-                    DeviceInfoImplDTO deviceInfo3 = new DeviceInfoImplDTO();
-                    deviceInfo3.setDeviceName(parts[1]);
-                    //写入文件信息
-                    deviceInfo3.setDeviceInfo(new JSONObject().fluentPut("content", parts[2]));
+                case Program.OP_WRITE:
+                    frame.reset().setSystemCallType(SystemCallType.WRITE_FILE).setName(program.device(ir)).setPcb(pcb);
                     //写入文件信息
-                    deviceInfo3.setInterruptType(InterruptType.SYSTEM_CALL);
-                    deviceInfo3.setSystemCallType(SystemCallType.WRITE_FILE);
-                    deviceInfo3.setPcb(pcb);
-                    DeviceInfoReturnImplDTO deviceInfoReturn3 = (DeviceInfoReturnImplDTO) interruptController.triggerSystemCall(deviceInfo3);
-                    if(deviceInfoReturn3.getDeviceStatusType() == DeviceStatusType.FREE){
-                        //继续执行
-                        isSwitchProcess = 0;
-                    }else if(deviceInfoReturn3.getDeviceStatusType() == DeviceStatusType.BUSY) {
-                        //等待
-                        isSwitchProcess = 2;
-                    }
-                case "CLOSE":
+                    frame.getArgs().put("content", program.content(ir));
+                    isSwitchProcess = deviceSyscall(frame);
+                case Program.OP_CLOSE:
 //                    DeviceInfoImplDTO deviceInfo4 = new DeviceInfoImplDTO();
-//                    deviceInfo4.setDeviceName(parts[1]);
+//                    deviceInfo4.setDeviceName(program.device(ir));
 //                    deviceInfo4.setInterruptType(InterruptType.SYSTEM_CALL);
 //                    deviceInfo4.setSystemCallType(SystemCallType.CLOSE_FILE);
 //                    deviceInfo4.setPcb(pcb);
 
                     break;
 
-                case "Q":
+                case Program.OP_QUIT:
                     pcb.setIr(0);
+                    pcb.setExecutedTime(0);
                     pcb.setState(TERMINATED);
                     pcb.setRemainingTime(-1);
-                    // TODO lyq 释放内存
-//                    mmu.Free(pcb.getRegister());
-//                    pcb.setRegister(-1);
+                    // 释放内存
+                    frame.reset().setSystemCallType(SystemCallType.DEALLOCATE_MEMORY).setPcb(pcb);
+                    interruptController.triggerSystemCall(frame);
+                    // 释放进程的当前目录
+                    FileSystem.releaseWorkingDirectory(pcb.getPid());
                     //移出队列
                     Sscheduler.Finnished(pcb);
                     break;
                 default :
-                    log.info("Unknown command.");
+                    log.info("Unknown command: {}", program.source(ir));
                     break;
 
             }
@@ -236,11 +217,17 @@ public class ProcessExecutionTask implements Runnable{
         }catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.info("Task was interrupted.");
-        }catch !(MemoryException e){
+        }catch (MemoryException e){
             //内存访问错误，直接自然终止
+            log.info("{} 内存错误，进程终止：{}", pcb.getProcessName(), e.getMessage());
             //调用释放内存函数
-            !比如MemoryManegement.allocate释放内存啥的   !!!注意一下依赖----目前是本类（这个进程类获得控制权，所以memoryManegement类不能注入此类）
+            frame.reset().setSystemCallType(SystemCallType.DEALLOCATE_MEMORY).setPcb(pcb);
+            interruptController.triggerSystemCall(frame);
+            pcb.setState(TERMINATED);
+            pcb.setRemainingTime(-1);
+            FileSystem.releaseWorkingDirectory(pcb.getPid());
             Sscheduler.Finnished(pcb); //移出队列
+            isSwitchProcess = 3;
         }
         catch (Exception e){
             e.printStackTrace();
@@ -248,4 +235,15 @@ public class ProcessExecutionTask implements Runnable{
         return isSwitchProcess;
     }
 
+    // 执行设备类系统调用：设备空闲则继续执行，设备忙则进入等待（返回2）
+    private int deviceSyscall(SyscallFrame frame) {
+        interruptController.triggerSystemCall(frame);
+        if (frame.getDeviceStatusType() == DeviceStatusType.BUSY) {
+            //等待
+            return 2;
+        }
+        //继续执行
+        return 0;
+    }
+
 }
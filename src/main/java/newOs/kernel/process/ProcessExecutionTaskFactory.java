@@ -1,8 +1,10 @@
 package newOs.kernel.process;
 
 
+import newOs.component.cpu.MMU.MMU;
 import newOs.component.memory.protected1.PCB;
 import newOs.component.memory.protected1.ProtectedMemory;
+import newOs.component.timer.SimulationClock;
 import newOs.kernel.interrupt.InterruptController;
 import newOs.kernel.interrupt.hardwareHandler.ISRHandler;
 import newOs.kernel.process.scheduler.SideScheduler;
@@ -15,16 +17,20 @@ public class ProcessExecutionTaskFactory {
     private final ProtectedMemory protectedMemory;
     private final SideScheduler sideScheduler;
     private final InterruptController interruptController;
+    private final SimulationClock clock;
+    private final MMU mmu;
 
     @Autowired
-    public ProcessExecutionTaskFactory(ISRHandler handlerISR, ProtectedMemory protectedMemory, SideScheduler sideScheduler, InterruptController interruptController){
+    public ProcessExecutionTaskFactory(ISRHandler handlerISR, ProtectedMemory protectedMemory, SideScheduler sideScheduler, InterruptController interruptController, SimulationClock clock, MMU mmu){
         this.ISRHandler = handlerISR;
         this.protectedMemory = protectedMemory;
         this.sideScheduler = sideScheduler;
         this.interruptController = interruptController;
+        this.clock = clock;
+        this.mmu = mmu;
     }
 
     public ProcessExecutionTask createTask(PCB pcb) {
-        return new ProcessExecutionTask(pcb, protectedMemory, ISRHandler, sideScheduler,interruptController);
+        return new ProcessExecutionTask(pcb, protectedMemory, ISRHandler, sideScheduler,interruptController, clock, mmu);
     }
 }
@@ -5,136 +5,102 @@ import com.alibaba.fastjson.JSONObject;
 import lombok.Data;
 import newOs.component.cpu.X86CPUSimulator;
 import newOs.component.memory.protected1.PCB;
+import newOs.component.memory.protected1.Program;
 import newOs.component.memory.protected1.ProtectedMemory;
+import newOs.component.timer.SimulationClock;
 import newOs.dto.req.Info.InfoImplDTO.ProcessInfoReturnImplDTO;
 import newOs.kernel.process.scheduler.ProcessScheduler;
+import newOs.exception.OSException;
+import newOs.kernel.process.scheduler.SideScheduler;
+import newOs.kernel.process.scheduler.policy.SchedulingPolicy;
+import newOs.kernel.process.scheduler.policy.SchedulingPolicyFactory;
 import newOs.tools.ProcessTool;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.Set;
 
 import static newOs.common.processConstant.processStateConstant.CREATED;
-import static newOs.kernel.process.scheduler.ProcessScheduler.strategy;
 
 @Component
 @Data
 public class ProcessManager{
     //依赖注入:
     private final HashMap<Integer, PCB> pcbTable;
-    private final Queue<PCB> readyQueue;
-    private final Queue<PCB> runningQueue;
-    private final Queue<PCB> waitingQueue;
-    private final Queue<PCB> readySJFQueue;
+    private final Set<PCB> runningTable;
+    private final Set<PCB> waitingTable;
     private final ProtectedMemory protectedMemory;
     private final X86CPUSimulator x86CPUSimulator;
     private final ProcessExecutionTaskFactory processExecutionTaskFactory;
     private final ProcessScheduler processScheduler;
+    private final SideScheduler sideScheduler;
+    private final SimulationClock clock;
     //没有实现中级调度
 
 
 
 
     @Autowired
-    public ProcessManager(ProtectedMemory protectedMemory, X86CPUSimulator x86CPUSimulator, ProcessExecutionTaskFactory processExecutionTaskFactory, ProcessScheduler processScheduler){
+    public ProcessManager(ProtectedMemory protectedMemory, X86CPUSimulator x86CPUSimulator, ProcessExecutionTaskFactory processExecutionTaskFactory, ProcessScheduler processScheduler, SideScheduler sideScheduler, SimulationClock clock){
         this.pcbTable = protectedMemory.getPcbTable();
-        this.readyQueue = protectedMemory.getReadyQueue();
-        this.runningQueue = protectedMemory.getRunningQueue();
-        this.waitingQueue = protectedMemory.getWaitingQueue();
-        this.readySJFQueue = protectedMemory.getReadySJFQueue();
+        this.runningTable = protectedMemory.getRunningTable();
+        this.waitingTable = protectedMemory.getWaitingTable();
 
 
         this.protectedMemory = protectedMemory;
         this.x86CPUSimulator = x86CPUSimulator;
         this.processExecutionTaskFactory = processExecutionTaskFactory;
         this.processScheduler = processScheduler;
+        this.sideScheduler = sideScheduler;
+        this.clock = clock;
     }
 
     public ProcessInfoReturnImplDTO createProcess(String processName, JSONObject args, String[] instructions){
+        // 指令在创建时编译一次，执行时不再解析文本
+        Program program;
+        try {
+            program = Program.compile(instructions);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new OSException("进程 " + processName + " 的指令有误：" + e.getMessage(), "400");
+        }
         // 创建进程
         int pid = ProcessTool.getPid(processName);
         // 创建进程pcb，放进pcbTable
 
-        //创建时间戳
-        long timestamp = System.currentTimeMillis();
-        PCB pcb = new PCB(pid, processName, 0, -1, CREATED, -1, -1, -1, -1, timestamp, -1, -1, 3, null, -1, -1, -1,-1);
+        //创建时间戳（virtual 时钟模式下为虚拟时间）
+        long timestamp = clock.now();
+        PCB pcb = new PCB(pid, processName, 0, -1, CREATED, -1, -1, -1, -1, timestamp, -1, -1, 0, 3, null, -1, -1, -1,-1, 0, 0, -1);
 
-        pcbTable.put(pid, pcb);
-        LinkedList<String> list = new LinkedList<>();
-        long expectedTime = 0;
         //设置pcb的基础内容
-        for (String inst : instructions) {
-            if (inst.charAt(0) == 'M') {
-                pcb.setSize(inst.charAt(2) * 1024);
-            } else {
-                list.add(inst);
-                if (inst.charAt(0) == 'C') {
-                    expectedTime += Long.parseLong(inst.split(" ")[1]);
-                }
-                if (inst.charAt(0) == 'R') {
-                    expectedTime += Long.parseLong(inst.split(" ")[2]);
-                }
-                if (inst.charAt(0) == 'W') {
-                    expectedTime += Long.parseLong(inst.split(" ")[2]);
-                }
-            }
-        }
-        pcb.setInstructions(list.toArray(new String[1]));
-        pcb.setExpectedTime(expectedTime);      //setExpectedtime
+        pcb.setProgram(program);
+        pcb.setSize(program.getMemorySize());
+        pcb.setExpectedTime(program.getExpectedTime());      //setExpectedtime
+        pcbTable.put(pid, pcb);
         // 写进文件系统  --暂时可以不用做
         ProcessInfoReturnImplDTO processRInfo = new ProcessInfoReturnImplDTO();
         return processRInfo;
     }
 
     public void executeProcess(PCB pcb){
-        //
-        try{
     //        int pageTable = mmu.Allocate(pcb.getPid(), pcb.getSize());
     //        pcb.setRegister(pageTable);
-            ExecutorService[] cpuSimulatorExecutors = x86CPUSimulator.getExecutors();
-            int i = 1;
-            for(;i<cpuSimulatorExecutors.length;i++){
-                ThreadPoolExecutor executor = (ThreadPoolExecutor) cpuSimulatorExecutors[i];
-                int idleThreads = executor.getCorePoolSize() - executor.getActiveCount();
-                if(idleThreads > 0) {
-                    //有空闲进程
-                    ProcessExecutionTask processExecutionTask = processExecutionTaskFactory.createTask(pcb);
-                    //设置cordid
-                    pcb.setCoreId(i);
-                    //唤醒调度器
-                    ！//先分配内存
-                    ！分配内存，应该注入一个内存管理器用于memoryallocate
-                    ！
-                    ！
-                    cpuSimulatorExecutors[i].submit(processExecutionTask);
-                    break;
-                }
-            }
-            //循环完都没有
-            if(i == cpuSimulatorExecutors.length) {
-                //加入就绪队列
-                System.out.println("进程" + pcb.getCoreId()+"-"+pcb.getPid() + "进入就绪队列");
-                if(strategy.equals("SJRF")||strategy.equals("SJF")){
-                    readySJFQueue.add(pcb);
-                }else{
-                    readyQueue.add(pcb);
-                }
-
-                x86CPUSimulator.getExecutorServiceReady().get(0).incrementAndGet(); //进行自增
-                System.out.println(x86CPUSimulator.getExecutorServiceReady().get(0).get());
-            }
-        } finally { //延时一段用于 activecount的数值更新
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
+        //加入就绪队列并直接唤醒空闲核心，核心空闲与否由调度器记录，不再依赖 activeCount
+        sideScheduler.addNewProcess(pcb);
+    }
 
+    /**
+     * 切换调度策略，就绪队列中的进程迁移到新策略的队列
+     * @param strategy FCFS、RR、SJF、SRJF、MLFQ
+     */
+    public void switchStrategy(String strategy){
+        SchedulingPolicy policy;
+        try {
+            policy = SchedulingPolicyFactory.create(strategy);
+        } catch (IllegalArgumentException e) {
+            throw new OSException(e.getMessage(), "400");
+        }
+        sideScheduler.switchPolicy(policy);
     }
 
 }
\ No newline at end of file
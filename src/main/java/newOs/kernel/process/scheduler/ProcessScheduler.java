@@ -10,7 +10,6 @@ import newOs.kernel.process.ProcessExecutionTaskFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Semaphore;
@@ -22,7 +21,6 @@ import java.util.concurrent.locks.ReentrantLock;
 @Slf4j
 @Component
 public class ProcessScheduler {
-    private final Queue<PCB> readyQueue;
     private final ConcurrentHashMap<Long, InterruptRequestLine> irlTable;
     private ExecutorService[] cpuSimulatorExecutors;
     private final ProtectedMemory protectedMemory;
@@ -36,15 +34,10 @@ public class ProcessScheduler {
     private final Condition newProcessArrived = lock.newCondition();
 
 
-    public static String strategy = "FCFS"; //不能实现多级反馈队列调度
-
-
-
     //依赖注入
     @Autowired
     public ProcessScheduler(ProtectedMemory protectedMemory, X86CPUSimulator x86CPUSimulator, ProcessExecutionTaskFactory processExecutionTaskFactory, ISRHandler ISRHandler) {
         this.protectedMemory = protectedMemory;
-        this.readyQueue = protectedMemory.getReadyQueue();
         this.irlTable = protectedMemory.getIrlTable();
         this.cpuSimulatorExecutors = x86CPUSimulator.getExecutors();
         this.processExecutionTaskFactory = processExecutionTaskFactory;
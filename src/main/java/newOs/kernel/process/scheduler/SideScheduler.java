@@ -6,50 +6,74 @@ import newOs.component.cpu.Interrupt.InterruptRequestLine;
 import newOs.component.cpu.X86CPUSimulator;
 import newOs.component.memory.protected1.PCB;
 import newOs.component.memory.protected1.ProtectedMemory;
+import newOs.component.timer.SimulationClock;
 import newOs.kernel.interrupt.InterruptController;
 import newOs.kernel.interrupt.hardwareHandler.ISRHandler;
+import newOs.kernel.memory.exception.MemoryException;
+import newOs.kernel.memory.service.VirtualMemoryService;
 import newOs.kernel.process.ProcessExecutionTask;
-import newOs.kernel.process.ProcessExecutionTaskFactory;
-import newOs.kernel.process.ProcessManager;
+import newOs.kernel.process.scheduler.policy.RunQueue;
+import newOs.kernel.process.scheduler.policy.SchedulingPolicy;
+import newOs.kernel.process.scheduler.policy.SchedulingPolicyFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static newOs.common.InterruptConstant.InterruptType.RESCHEDULE;
 import static newOs.common.processConstant.processStateConstant.*;
-import static newOs.kernel.process.scheduler.ProcessScheduler.strategy;
 
 @Component
 @Slf4j
 public class SideScheduler {
-    private final ConcurrentLinkedQueue<PCB> readyQueue;
-    private final ConcurrentLinkedQueue<PCB> runningQueue;
-    private final ConcurrentLinkedQueue<PCB> waitingQueue;
+    // 运行表、等待表：状态转换时增删为 O(1)，按对象身份区分 pid 相同的进程
+    private final Set<PCB> runningTable;
+    private final Set<PCB> waitingTable;
 
-    //mlfq的边缘调度
-    private final ConcurrentLinkedQueue<PCB> highPriorityQueue;
-    private final ConcurrentLinkedQueue<PCB> mediumPriorityQueue;
-    private final ConcurrentLinkedQueue<PCB> lowPriorityQueue;
-
-    private final PriorityBlockingQueue<PCB> readySJFQueue;
     private final X86CPUSimulator x86CPUSimulator;
 
 
     private ExecutorService cpuSimulatorExecutor;
     private final ProtectedMemory protectedMemory;
     private final ConcurrentHashMap<Long, InterruptRequestLine> irlTable;
-    private final ConcurrentLinkedQueue<PCB> irlIO;
+
+    // 各核心是否正在执行进程（下标0不用），核心执行完任务后自己取下一个进程，空闲时由入队方唤醒
+    private final AtomicBoolean[] coreBusy;
+
+    // 当前调度策略及其就绪队列，切换策略时整体替换
+    private volatile RunQueues runQueues;
+    // 就绪队列的读写都持有读锁，切换策略持有写锁，保证迁移时没有进程入队到旧队列
+    private final ReentrantReadWriteLock switchLock = new ReentrantReadWriteLock();
+
+    // 空闲核心从其他核心窃取的进程数、负载均衡迁移的进程数
+    private final AtomicLong stealCount = new AtomicLong();
+    private final AtomicLong migrationCount = new AtomicLong();
+    // 抢占式策略下因更短的作业就绪而发出的重新调度中断数
+    private final AtomicLong preemptCount = new AtomicLong();
 
     private final ISRHandler isrHandler;
 
     private final InterruptController interruptController;
 
+    private final SimulationClock clock;
+
+    // 新进程开始运行前为其建立地址空间，并预先调入开头的若干页
+    private final VirtualMemoryService virtualMemoryService;
+    private final int prefaultPages;
+
+    // 优先级提升周期（毫秒）
+    private static final long BOOST_PERIOD = 13000;
+
     /*
-    * 1实现调度下一个进程 ----放入runningQueue
+    * 1实现调度下一个进程 ----放入runningTable
     * 2实现初始调度进程
     *
      */
@@ -57,261 +81,374 @@ public class SideScheduler {
 
 
     @Autowired
-    public SideScheduler(ProtectedMemory protectedMemory, X86CPUSimulator x86CPUSimulator, ISRHandler isrHandler, InterruptController interruptController){
+    public SideScheduler(ProtectedMemory protectedMemory, X86CPUSimulator x86CPUSimulator, ISRHandler isrHandler, InterruptController interruptController,
+                         SimulationClock clock, VirtualMemoryService virtualMemoryService,
+                         @Value("${scheduler.policy:FCFS}") String policyName,
+                         @Value("${memory.prefault-pages:16}") int prefaultPages){
 
-        ！！！分配内存，应该注入一个内存管理器用于memoryallocate
+        this.virtualMemoryService = virtualMemoryService;
+        this.prefaultPages = prefaultPages;
 
-        this.readyQueue = protectedMemory.getReadyQueue();
-        this.runningQueue = protectedMemory.getRunningQueue();
-        this.waitingQueue = protectedMemory.getWaitingQueue();
-        this.highPriorityQueue = protectedMemory.getHighPriorityQueue();
-        this.mediumPriorityQueue = protectedMemory.getMediumPriorityQueue();
-        this.lowPriorityQueue = protectedMemory.getLowPriorityQueue();
-        this.readySJFQueue = protectedMemory.getReadySJFQueue();
+        this.runningTable = protectedMemory.getRunningTable();
+        this.waitingTable = protectedMemory.getWaitingTable();
 
 
         this.protectedMemory = protectedMemory;
         this.irlTable = protectedMemory.getIrlTable();
-        this.irlIO  = protectedMemory.getIrlIO();
 
         //用于创建进程
         this.x86CPUSimulator = x86CPUSimulator;
+        this.coreBusy = new AtomicBoolean[x86CPUSimulator.getExecutors().length];
+        for (int i = 0; i < coreBusy.length; i++) {
+            coreBusy[i] = new AtomicBoolean(false);
+        }
+        this.runQueues = new RunQueues(SchedulingPolicyFactory.create(policyName), coreBusy.length);
         this.isrHandler = isrHandler;
 
         this.interruptController = interruptController;
+        this.clock = clock;
+        //virtual 时钟模式下优先级提升按虚拟时间触发
+        clock.schedulePeriodic(BOOST_PERIOD, this::doBoostPriority);
     }
 
 
     public void schedulerProcess(PCB pcb){
 
         pcb.setState(RUNNING);
-        //需要实现时间片控制
-        if (strategy.equals("RR")) // 时间片轮转
-            pcb.setRemainingTime(3800L);
-        else if (strategy.equals("MLFQ") && pcb.getRemainingTime() < 0)    // 多级反馈队列
-            pcb.setRemainingTime(3800L);
-            //不需要实现时间片控制
-        else if (strategy.equals("FCFS") || strategy.equals("SJF") || strategy.equals("SRJF"))
-            pcb.setRemainingTime(99999999L);
-        //多级调度
-        if(strategy.equals("MLFQ")) {
-            if (pcb.getPriority() == 1) {
-                lowPriorityQueue.add(pcb);
-            } else if (pcb.getPriority() == 2) {
-                mediumPriorityQueue.add(pcb);
-            } else if (pcb.getPriority() == 3) {
-                highPriorityQueue.add(pcb);
-            }
-        }else{      //单队列调度
-            runningQueue.add(pcb);
+        //时间片由调度策略决定
+        runQueues.policy.assignTimeSlice(pcb);
+        runningTable.add(pcb);
+    }
+    /**
+     * 新进程进入就绪队列，并唤醒一个空闲核心来执行
+     */
+    public void addNewProcess(PCB pcb) {
+        pcb.setState(READY);
+        pcb.setCoreId(-1);
+        System.out.println("进程" + pcb.getCoreId()+"-"+pcb.getPid() + "进入就绪队列");
+        x86CPUSimulator.getExecutorServiceReady().get(0).incrementAndGet(); //进行自增
+        enqueueReady(pcb);
+        if (!wakeIdleCore(-1)) {
+            preemptFor(pcb);
         }
+    }
 
+    /**
+     * 当前调度策略
+     */
+    public SchedulingPolicy getPolicy() {
+        return runQueues.policy;
+    }
 
+    /**
+     * 运行时切换调度策略：按新策略创建就绪队列，把旧队列中的进程按原来的核心迁移过去。
+     * 正在运行的进程下次上核时使用新策略的时间片
+     */
+    public void switchPolicy(SchedulingPolicy policy) {
+        int migrated = 0;
+        switchLock.writeLock().lock();
+        try {
+            RunQueues old = runQueues;
+            RunQueues next = new RunQueues(policy, coreBusy.length);
+            for (PCB pcb : old.shared.drain()) {
+                next.shared.add(pcb);
+                migrated++;
+            }
+            for (int i = 1; i < coreBusy.length; i++) {
+                for (PCB pcb : old.local.get(i).drain()) {
+                    next.local.get(i).add(pcb);
+                    migrated++;
+                }
+            }
+            runQueues = next;
+        } finally {
+            switchLock.writeLock().unlock();
+        }
+        log.info("调度策略切换为 {}，迁移就绪进程 {} 个", policy.getName(), migrated);
+        wakeIdleCore(-1);
     }
+
     // 中转操作-取出pcb
+    // 核心执行完一个任务后调用：取下一个进程在本核心上执行，没有可执行的进程则把核心置为空闲
     public void executeNextProcess(int coreId) {
-        ExecutorService[] cpuSimulatorExecutors = x86CPUSimulator.getExecutors();
-        PCB matchedPcb = null;
-        Iterator<PCB> it;
-        PCB firstCorePcb = null;
-        if(strategy.equals("SJF")||strategy.equals("SRJF")) {
-            it = readySJFQueue.iterator();
-        }else {
-            // 遍历 readyQueue 找到第一个 pcb.coreId == coreId 的进程
-            it = readyQueue.iterator();
+        runNext(coreId);
+    }
+
+    // 返回是否派发了进程；调用方必须已把该核心标记为忙
+    private boolean runNext(int coreId) {
+        while (true) {
+            if (dispatch(coreId)) {
+                return true;
+            }
+            coreBusy[coreId].set(false);
+            // 置为空闲后再检查一次，防止与入队并发时丢失唤醒
+            if (!hasRunnable(coreId) || !coreBusy[coreId].compareAndSet(false, true)) {
+                return false;
+            }
+        }
+    }
+
+    // 唤醒空闲核心：优先唤醒 preferredCoreId（> 0 时），它不空闲则唤醒任一空闲核心来窃取；返回是否唤醒了核心
+    private boolean wakeIdleCore(int preferredCoreId) {
+        if (preferredCoreId > 0 && coreBusy[preferredCoreId].compareAndSet(false, true)) {
+            if (runNext(preferredCoreId)) {
+                return true;
+            }
         }
-        while (it.hasNext()) {
-            PCB pcb = it.next();
-            // 注意空指针判断
-            if (pcb.getCoreId() != null && pcb.getCoreId() == coreId) {
-                matchedPcb = pcb;
-                System.out.println("找到了匹配 coreId=" + coreId + " 的进程: " + pcb.getPid());
-                break;
-            }else if(pcb.getCoreId().equals(-1) && firstCorePcb == null){
-                firstCorePcb  = pcb;
+        for (int i = 1; i < coreBusy.length; i++) {
+            if (coreBusy[i].compareAndSet(false, true) && runNext(i)) {
+                return true;
             }
         }
+        return false;
+    }
 
-        // 如果找到了，就执行
-        if (matchedPcb != null) {
-            Ready2Running(matchedPcb);
-            cpuSimulatorExecutors[coreId].submit(
-                    new ProcessExecutionTask(matchedPcb, protectedMemory, isrHandler, this,interruptController)
-            );
-        } else {
-            System.out.println("队列中没有匹配 coreId=" + coreId + " 的进程。");
-            //如果有-1的，也就是刚进来的进程，也执行
-            if(firstCorePcb != null) {
-                //将这个pcb移除
-                if(strategy.equals("SJF")||strategy.equals("SRJF")) {
-                    readySJFQueue.remove(firstCorePcb);
-                }else{
-                    readyQueue.remove(firstCorePcb);
+    // 没有空闲核心时，若就绪进程比正在运行的进程更短（由抢占式策略判断），向该进程所在核心发出重新调度中断。
+    // 已分配核心的进程只在本地队列中，只与该核心上的进程比较；新进程在共享队列中，任一核心都可以执行，
+    // 抢占剩余时间最长的进程
+    private void preemptFor(PCB pcb) {
+        SchedulingPolicy policy = runQueues.policy;
+        Integer coreId = pcb.getCoreId();
+        PCB victim = null;
+        synchronized (runningTable) {
+            for (PCB running : runningTable) {
+                if (coreId != null && coreId > 0 && !coreId.equals(running.getCoreId())) {
+                    continue;
+                }
+                if (policy.shouldPreempt(running, pcb) && (victim == null || policy.shouldPreempt(running, victim))) {
+                    victim = running;
+                }
+            }
+        }
+        if (victim != null && x86CPUSimulator.raiseInterrupt(victim.getCoreId(), RESCHEDULE)) {
+            preemptCount.incrementAndGet();
+            log.info("进程 {} 抢占 Core[{}] 上的进程 {}", pcb.getPid(), victim.getCoreId(), victim.getPid());
+        }
+    }
+
+    // 是否有本核心可以执行的进程：本地队列、共享队列，或可以从其他核心窃取的进程
+    private boolean hasRunnable(int coreId) {
+        switchLock.readLock().lock();
+        try {
+            RunQueues queues = runQueues;
+            if (!queues.local.get(coreId).isEmpty() || !queues.shared.isEmpty()) {
+                return true;
+            }
+            for (int i = 1; i < coreBusy.length; i++) {
+                if (i != coreId && !queues.local.get(i).isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            switchLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按进程声明的大小建立地址空间并预调开头的页，由进程第一次上核时在目标核心的任务中调用；
+     * 失败时只记录日志，进程执行 M、A 指令时会再次申请并在失败时终止
+     */
+    public void allocateMemory(PCB pcb) {
+        try {
+            virtualMemoryService.allocate(pcb, pcb.getSize());
+            if (prefaultPages > 0) {
+                int loaded = virtualMemoryService.prefault(pcb, prefaultPages);
+                log.info("进程 {} 预调入 {} 页", pcb.getPid(), loaded);
+            }
+        } catch (MemoryException e) {
+            log.warn("进程 {} 分配内存失败: {}", pcb.getPid(), e.getMessage());
+        }
+    }
+
+    // 取出本核心的下一个进程并提交到核心执行，返回是否取到。
+    // 顺序：本地队列 -> 共享队列中的新进程 -> 从负载最重的核心窃取
+    private boolean dispatch(int coreId) {
+        PCB pcb;
+        PCB firstCorePcb = null;
+        switchLock.readLock().lock();
+        try {
+            RunQueues queues = runQueues;
+            pcb = queues.local.get(coreId).poll();
+            // 抢占式策略下，共享队列中更短的新进程优先于本地队列
+            if (pcb != null && preferShared(queues, pcb)) {
+                firstCorePcb = queues.shared.poll();
+                if (firstCorePcb != null) {
+                    queues.local.get(coreId).add(pcb);
+                    pcb = null;
+                }
+            }
+            if (pcb == null && firstCorePcb == null) {
+                firstCorePcb = queues.shared.poll();
+                if (firstCorePcb == null) {
+                    pcb = steal(queues, coreId);
                 }
-                System.out.println("执行刚进来的进程");
-                firstCorePcb.setCoreId(coreId);
-                System.out.println("进程" + firstCorePcb.getCoreId()+"-"+firstCorePcb.getPid() + "进入运行队列");
-                //
-                x86CPUSimulator.getExecutorServiceReady().get(0).decrementAndGet();
-                //
-
-                ！！！！！ 此处分配内存
-                 ！！！！
-
-                cpuSimulatorExecutors[coreId].submit(
-                        new ProcessExecutionTask(firstCorePcb , protectedMemory, isrHandler, this,interruptController)
-                );
             }
+        } finally {
+            switchLock.readLock().unlock();
+        }
+        //共享队列中是刚进来的进程
+        if(firstCorePcb != null) {
+            System.out.println("执行刚进来的进程");
+            firstCorePcb.setCoreId(coreId);
+            System.out.println("进程" + firstCorePcb.getCoreId()+"-"+firstCorePcb.getPid() + "进入运行队列");
+            //
+            x86CPUSimulator.getExecutorServiceReady().get(0).decrementAndGet();
+            //
+
+            //地址空间由任务在目标核心上建立
+            x86CPUSimulator.submit(coreId,
+                    new ProcessExecutionTask(firstCorePcb , protectedMemory, isrHandler, this,interruptController, clock, x86CPUSimulator.getMmu(), true)
+            );
+            return true;
+        }
+        if (pcb != null) {
+            Ready2Running(pcb);
+            x86CPUSimulator.submit(coreId,
+                    new ProcessExecutionTask(pcb, protectedMemory, isrHandler, this,interruptController, clock, x86CPUSimulator.getMmu())
+            );
+            return true;
+        }
+        System.out.println("队列中没有匹配 coreId=" + coreId + " 的进程。");
+        return false;
+    }
 
+    // 共享队列的队首是否应先于本地队列取出的进程执行；调用方需持有读锁
+    private boolean preferShared(RunQueues queues, PCB local) {
+        PCB head = queues.shared.peek();
+        return head != null && queues.policy.shouldPreempt(local, head);
+    }
+
+    // 本地队列和共享队列都为空时，从就绪进程最多的核心窃取一个进程并迁移到本核心；调用方需持有读锁
+    private PCB steal(RunQueues queues, int coreId) {
+        int victim = -1;
+        int maxLoad = 0;
+        for (int i = 1; i < coreBusy.length; i++) {
+            int load = x86CPUSimulator.getExecutorServiceReady().get(i).get();
+            if (i != coreId && load > maxLoad && !queues.local.get(i).isEmpty()) {
+                maxLoad = load;
+                victim = i;
+            }
+        }
+        // 计数可能暂时不准，找不到时依次尝试其他核心
+        PCB pcb = victim > 0 ? queues.local.get(victim).pollTail() : null;
+        for (int i = 1; pcb == null && i < coreBusy.length; i++) {
+            if (i != coreId) {
+                victim = i;
+                pcb = queues.local.get(i).pollTail();
+            }
+        }
+        if (pcb == null) {
+            return null;
+        }
+        migrate(pcb, victim, coreId);
+        stealCount.incrementAndGet();
+        log.info("Core[{}] 从 Core[{}] 窃取进程 {}", coreId, victim, pcb.getPid());
+        return pcb;
+    }
+
+    // 把已从 from 核心队列取出的进程改为归属 to 核心，并更新两个核心的负载计数
+    private void migrate(PCB pcb, int from, int to) {
+        pcb.setCoreId(to);
+        x86CPUSimulator.getExecutorServiceReady().get(from).decrementAndGet();
+        x86CPUSimulator.getExecutorServiceReady().get(to).incrementAndGet();
+    }
+
+    // 进程放回就绪队列：已分配核心的进入该核心的本地队列，否则进入共享队列
+    private void enqueueReady(PCB pcb) {
+        switchLock.readLock().lock();
+        try {
+            RunQueues queues = runQueues;
+            if (pcb.getCoreId() != null && pcb.getCoreId() > 0) {
+                queues.local.get(pcb.getCoreId()).add(pcb);
+            } else {
+                queues.shared.add(pcb);
+            }
+        } finally {
+            switchLock.readLock().unlock();
         }
     }
 
+    public long getStealCount() {
+        return stealCount.get();
+    }
+
+    public long getMigrationCount() {
+        return migrationCount.get();
+    }
 
+    public long getPreemptCount() {
+        return preemptCount.get();
+    }
+
+
+    // 进程已由调用方从就绪队列取出，这里只更新状态和计数；进入运行表由 schedulerProcess 完成
     public void Ready2Running(PCB pcb){
         System.out.println("进程" + pcb.getCoreId()+"-"+pcb.getPid() + "进入运行队列");
         pcb.setState(RUNNING);
-       if(strategy.equals("MLFQ")) {
-           int priority = pcb.getPriority();
-           if (priority == 1) {
-               lowPriorityQueue.remove(pcb);
-           } else if (priority == 2) {
-               mediumPriorityQueue.remove(pcb);
-           } else if (priority == 3) {
-               highPriorityQueue.remove(pcb);
-           }
-           runningQueue.add(pcb);
-       }else if(strategy.equals("SRJF")||strategy.equals("SJF")){
-           readySJFQueue.remove(pcb);
-           runningQueue.add(pcb);
-       }else{  //fcfs,rr
-              readyQueue.remove(pcb);
-              runningQueue.add(pcb);
-       }
-       x86CPUSimulator.getExecutorServiceReady().get(pcb.getCoreId()).decrementAndGet();
+        x86CPUSimulator.getExecutorServiceReady().get(pcb.getCoreId()).decrementAndGet();
     }
     public void Runing2Wait(PCB pcb){
         pcb.setState(WAITING);
-        if(strategy.equals("MLFQ")) {
-            int priority = pcb.getPriority();
-            if (priority == 1) {
-                lowPriorityQueue.remove(pcb);
-            } else if (priority == 2) {
-                mediumPriorityQueue.remove(pcb);
-            } else if (priority == 3) {
-                highPriorityQueue.remove(pcb);
-            }
-            waitingQueue.add(pcb);
-        }else{
-            runningQueue.remove(pcb);
-            waitingQueue.add(pcb);
-        }
+        runningTable.remove(pcb);
+        waitingTable.add(pcb);
     }
     public void Runing2Ready(PCB pcb){
         pcb.setState(READY);
-        if(strategy.equals("MLFQ")) {
-            int priority = pcb.getPriority();
-            if (priority == 1) {
-                lowPriorityQueue.remove(pcb);
-            } else if (priority == 2) {
-                mediumPriorityQueue.remove(pcb);
-            } else if (priority == 3) {
-                highPriorityQueue.remove(pcb);
-            }
-            readyQueue.add(pcb);
-        }else if(strategy.equals("SRJF")){  //SRJF
-            runningQueue.remove(pcb);
-            readySJFQueue.add(pcb);
-        }else{               //rr
-            runningQueue.remove(pcb);
-            readyQueue.add(pcb);
-        }
+        runningTable.remove(pcb);
+        runQueues.policy.onPreempted(pcb);
         x86CPUSimulator.getExecutorServiceReady().get(pcb.getCoreId()).incrementAndGet();
+        enqueueReady(pcb);
+        //本核心随后会自己取下一个进程，这里只唤醒其他空闲核心来窃取
+        wakeIdleCore(-1);
     }
     public void Waiting2Ready(PCB pcb){
 
         pcb.setState(READY);
         pcb.setIr(pcb.getIr()+1);
-        if(strategy.equals("SRJF") || strategy.equals("SJF")) {  //SRJF
-            waitingQueue.remove(pcb);
-            readySJFQueue.add(pcb);
-        }else{
-            waitingQueue.remove(pcb);
-            readyQueue.add(pcb);
-            System.out.println("进程" + pcb.getCoreId() +"-"+pcb.getPid() + "进入就绪队列");
-        }
+        waitingTable.remove(pcb);
         x86CPUSimulator.getExecutorServiceReady().get(pcb.getCoreId()).incrementAndGet();
+        enqueueReady(pcb);
+        System.out.println("进程" + pcb.getCoreId() +"-"+pcb.getPid() + "进入就绪队列");
+        //唤醒进程所在的核心（若空闲），没有空闲核心时由抢占式策略决定是否抢占
+        if (!wakeIdleCore(pcb.getCoreId())) {
+            preemptFor(pcb);
+        }
     }
     public void Finnished(PCB pcb){
-        runningQueue.remove(pcb);
+        runningTable.remove(pcb);
         log.info(pcb.getProcessName() + "：" + "执行完成，***进程结束***");
     }
 
 
-    @Scheduled(fixedRate = 13000) // 每隔 13 秒执行一次
+    @Scheduled(fixedRate = BOOST_PERIOD) // 每隔 13 秒执行一次
     public void boostPriority() {
-        // 将低优先级队列中的进程提升到中优先级
-        List<PCB> toPromote = new ArrayList<>();
-        for (PCB pcb : lowPriorityQueue) {
-            pcb.setPriority(2); // 提升优先级
-            toPromote.add(pcb);
-        }
-        lowPriorityQueue.removeAll(toPromote);
-        mediumPriorityQueue.addAll(toPromote);
-
-        // 将中优先级队列中的进程提升到高优先级
-        toPromote.clear();
-        for (PCB pcb : mediumPriorityQueue) {
-            pcb.setPriority(3);
-            toPromote.add(pcb);
-        }
-        mediumPriorityQueue.removeAll(toPromote);
-        highPriorityQueue.addAll(toPromote);
-    }
-    @Scheduled(fixedRate = 100) // 每隔 0.1 秒执行一次
-    public void checkIOInterrupt(){ //检测IO是否完成
-        //查询
-        if(irlIO.peek() != null){       //说明IO触发
-            //处理IO中断
-            //队列中    存储pid
-            PCB pcb = irlIO.poll();
-            //修改pcb状态
-            Waiting2Ready(pcb);
-            System.out.println("IO中断处理完成");
-            System.out.println("进程" + pcb.getCoreId() +"-"+pcb.getPid() + "完成io等待后进入就绪队列");
+        if (clock.isVirtual()) {
+            return;
         }
+        doBoostPriority();
     }
-    @Scheduled(fixedRate = 10) // 每隔 0.01 秒执行一次
-    public void checkReadyQueue(){
-        //检测就绪队列是否有进程，同时对应的核心是否空闲
-        for(int i = 1; i < x86CPUSimulator.getExecutors().length; i++){
-            ThreadPoolExecutor executor = (ThreadPoolExecutor) x86CPUSimulator.getExecutors()[i];
-            int idleThreads = executor.getCorePoolSize() - executor.getActiveCount();
-            if(idleThreads > 0) {
-                //有空闲进程
-                PCB pcb = null;
-                if(strategy.equals("SJF")||strategy.equals("SRJF")) {
-                    for(PCB pcb1 : readySJFQueue){
-                        if(pcb1.getCoreId() == i || pcb1.getCoreId() == -1){
-                            pcb1.setCoreId(i);
-                            pcb = pcb1;
-                            break;
-                        }
-                    }
-                }else{
-                    for(PCB pcb1 : readyQueue){
-                        if(pcb1.getCoreId() == i || pcb1.getCoreId() == -1){
-                            pcb1.setCoreId(i);
-                            pcb = pcb1;
-                            break;
-                        }
-                    }
-                }
-                if(pcb != null){
-                    executeNextProcess(i);
-                }
+
+    private void doBoostPriority() {
+        // 将低优先级的就绪进程提升到中优先级，中优先级提升到高优先级（只有 MLFQ 的就绪队列有多个级别）
+        switchLock.readLock().lock();
+        try {
+            RunQueues queues = runQueues;
+            queues.shared.boostPriority();
+            for (int i = 1; i < coreBusy.length; i++) {
+                queues.local.get(i).boostPriority();
             }
+        } finally {
+            switchLock.readLock().unlock();
         }
-
+    }
+    /**
+     * IO 完成中断：进程从等待队列回到就绪队列，并唤醒它所在的核心
+     */
+    public void ioCompleted(PCB pcb){
+        Waiting2Ready(pcb);
+        System.out.println("IO中断处理完成");
+        System.out.println("进程" + pcb.getCoreId() +"-"+pcb.getPid() + "完成io等待后进入就绪队列");
     }
 
 
@@ -326,7 +463,8 @@ public class SideScheduler {
         for (int coreId = 0; coreId < numberOfCores; coreId++) {
             loads.add(x86CPUSimulator.getExecutorServiceReady().get(coreId).get());
         }
-        System.out.println("各核心负载：" + loads);
+        System.out.println("各核心负载：" + loads + "，累计窃取 " + stealCount.get() + "，累计迁移 " + migrationCount.get()
+                + "，累计抢占 " + preemptCount.get());
         // 找到最大负载和最小负载的核心
         int maxLoad = -1;
         int maxCoreId = -1;
@@ -354,31 +492,43 @@ public class SideScheduler {
 
             log.info("开始执行负载均衡: 将从Core[{}]转移 {} 个任务到Core[{}]", maxCoreId, moveCount, minCoreId);
 
-            // 需要遍历 readyQueue，或者你的 SJFQueue/MLFQ 中相应的队列
-            // 以找到核心是 maxCoreId 的 PCB，然后重新分配给 minCoreId。
-            // 注意：这里仅演示从 readyQueue 里移动，若你还有 SRJF/MLFQ 等其他队列也类似。
+            // 空闲核心会立即窃取，这里只在忙碌核心之间平衡本地队列的长度
             int moved = 0;
-            if(strategy.equals("SJF")||strategy.equals("SRJF")) {
-                //
-            }else{
-                for (PCB pcb : readyQueue) {
-                    // 如果这个 pcb 的 coreId 正好是 maxCoreId，则把它分给 minCoreId
-                    if (pcb.getCoreId() == maxCoreId) {
-                        pcb.setCoreId(minCoreId);
-                        // 更新计数
-                        x86CPUSimulator.getExecutorServiceReady().get(maxCoreId).decrementAndGet();
-                        x86CPUSimulator.getExecutorServiceReady().get(minCoreId).incrementAndGet();
-
-                        moved++;
-                        if (moved >= moveCount) {
-                            break;
-                        }
-                    }
+            switchLock.readLock().lock();
+            try {
+                RunQueues queues = runQueues;
+                PCB pcb;
+                while (moved < moveCount && (pcb = queues.local.get(maxCoreId).pollTail()) != null) {
+                    migrate(pcb, maxCoreId, minCoreId);
+                    queues.local.get(minCoreId).add(pcb);
+                    migrationCount.incrementAndGet();
+                    moved++;
                 }
+            } finally {
+                switchLock.readLock().unlock();
+            }
+            if (moved > 0) {
+                wakeIdleCore(minCoreId);
             }
         }
     }
 
 
-
+    /**
+     * 调度策略和它的就绪队列：共享队列存放尚未分配核心的新进程，local 为各核心的本地队列（下标0不用）
+     */
+    private static final class RunQueues {
+        private final SchedulingPolicy policy;
+        private final RunQueue shared;
+        private final List<RunQueue> local;
+
+        private RunQueues(SchedulingPolicy policy, int cores) {
+            this.policy = policy;
+            this.shared = policy.newRunQueue();
+            this.local = new ArrayList<>(cores);
+            for (int i = 0; i < cores; i++) {
+                local.add(policy.newRunQueue());
+            }
+        }
+    }
 }
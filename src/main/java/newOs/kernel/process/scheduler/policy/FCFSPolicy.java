@@ -0,0 +1,24 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+/**
+ * 先来先服务：不做时间片控制
+ */
+public class FCFSPolicy implements SchedulingPolicy {
+
+    @Override
+    public String getName() {
+        return "FCFS";
+    }
+
+    @Override
+    public RunQueue newRunQueue() {
+        return new FifoRunQueue();
+    }
+
+    @Override
+    public void assignTimeSlice(PCB pcb) {
+        pcb.setRemainingTime(UNLIMITED_TIME_SLICE);
+    }
+}
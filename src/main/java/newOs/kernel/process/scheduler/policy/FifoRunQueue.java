@@ -0,0 +1,91 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 先进先出就绪队列（FCFS、RR）。本核心从队头取，其他核心从队尾取最晚入队的进程
+ */
+public class FifoRunQueue implements RunQueue {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PCBList list = new PCBList();
+    // 供 isEmpty 无锁读取
+    private volatile int size;
+
+    @Override
+    public void add(PCB pcb) {
+        lock.lock();
+        try {
+            list.addLast(pcb);
+            size = list.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PCB poll() {
+        if (size == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            PCB pcb = list.pollFirst();
+            size = list.size();
+            return pcb;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PCB pollTail() {
+        if (size == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            PCB pcb = list.pollLast();
+            size = list.size();
+            return pcb;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(PCB pcb) {
+        lock.lock();
+        try {
+            boolean removed = list.remove(pcb);
+            size = list.size();
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public List<PCB> drain() {
+        List<PCB> drained = new ArrayList<>();
+        lock.lock();
+        try {
+            PCB pcb;
+            while ((pcb = list.pollFirst()) != null) {
+                drained.add(pcb);
+            }
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,35 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+/**
+ * 多级反馈队列：时间片用完的进程降低一级优先级，因IO让出CPU的进程保留剩余时间片；
+ * 优先级由 SideScheduler 定时提升
+ */
+public class MLFQPolicy implements SchedulingPolicy {
+    public static final long TIME_SLICE = 3800L;
+
+    @Override
+    public String getName() {
+        return "MLFQ";
+    }
+
+    @Override
+    public RunQueue newRunQueue() {
+        return new MultiLevelRunQueue();
+    }
+
+    @Override
+    public void assignTimeSlice(PCB pcb) {
+        if (pcb.getRemainingTime() < 0) {
+            pcb.setRemainingTime(TIME_SLICE);
+        }
+    }
+
+    @Override
+    public void onPreempted(PCB pcb) {
+        if (pcb.getPriority() > MultiLevelRunQueue.LOW) {
+            pcb.setPriority(pcb.getPriority() - 1);
+        }
+    }
+}
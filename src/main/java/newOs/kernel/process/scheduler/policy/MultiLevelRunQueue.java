@@ -0,0 +1,143 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 多级反馈就绪队列：优先级 3（高）、2（中）、1（低）各一个按进程索引的链表。
+ * 本核心从最高的非空级别取，其他核心从最低的非空级别的队尾取；删除指定进程为 O(1)
+ */
+public class MultiLevelRunQueue implements RunQueue {
+    public static final int HIGH = 3;
+    public static final int LOW = 1;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 下标即优先级，0 不用
+    private final List<PCBList> levels = new ArrayList<>(HIGH + 1);
+    // 供 isEmpty 无锁读取
+    private volatile int size;
+
+    public MultiLevelRunQueue() {
+        for (int i = 0; i <= HIGH; i++) {
+            levels.add(new PCBList());
+        }
+    }
+
+    @Override
+    public void add(PCB pcb) {
+        // 从其他策略迁移过来的进程优先级可能不在 1~3 之间
+        int priority = Math.max(LOW, Math.min(HIGH, pcb.getPriority()));
+        pcb.setPriority(priority);
+        lock.lock();
+        try {
+            if (levels.get(priority).addLast(pcb)) {
+                size++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PCB poll() {
+        if (size == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            for (int priority = HIGH; priority >= LOW; priority--) {
+                PCB pcb = levels.get(priority).pollFirst();
+                if (pcb != null) {
+                    size--;
+                    return pcb;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PCB pollTail() {
+        if (size == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            for (int priority = LOW; priority <= HIGH; priority++) {
+                PCB pcb = levels.get(priority).pollLast();
+                if (pcb != null) {
+                    size--;
+                    return pcb;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(PCB pcb) {
+        lock.lock();
+        try {
+            for (int priority = LOW; priority <= HIGH; priority++) {
+                if (levels.get(priority).remove(pcb)) {
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public List<PCB> drain() {
+        List<PCB> drained = new ArrayList<>();
+        lock.lock();
+        try {
+            for (int priority = HIGH; priority >= LOW; priority--) {
+                PCB pcb;
+                while ((pcb = levels.get(priority).pollFirst()) != null) {
+                    drained.add(pcb);
+                }
+            }
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+        return drained;
+    }
+
+    /**
+     * 中优先级提升到高优先级，低优先级提升到中优先级；在锁内完成，进程不会短暂脱离队列
+     */
+    @Override
+    public void boostPriority() {
+        lock.lock();
+        try {
+            for (int priority = HIGH - 1; priority >= LOW; priority--) {
+                PCBList from = levels.get(priority);
+                PCBList to = levels.get(priority + 1);
+                PCB pcb;
+                while ((pcb = from.pollFirst()) != null) {
+                    pcb.setPriority(priority + 1);
+                    to.addLast(pcb);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * 按 PCB 对象索引的二叉小顶堆：入堆、出堆和删除指定进程都是 O(log n)。
+ * 与 PCBList 一样按对象身份索引，pid 相同的不同进程互不影响。
+ * 排序键在入堆时记下，进程在堆中时修改排序所用的字段不会破坏堆序；键相同时先入堆的先出。
+ * 非线程安全，由所属的就绪队列加锁
+ */
+class PCBHeap {
+    private PCB[] pcbs = new PCB[16];
+    private long[] keys = new long[16];
+    private long[] seqs = new long[16];
+    private int size;
+    private long nextSeq;
+    // PCB -> 堆中下标
+    private final IdentityHashMap<PCB, Integer> index = new IdentityHashMap<>();
+
+    /**
+     * 入堆，同一进程已在堆中时不重复加入
+     */
+    boolean add(PCB pcb, long key) {
+        if (index.containsKey(pcb)) {
+            return false;
+        }
+        if (size == pcbs.length) {
+            pcbs = Arrays.copyOf(pcbs, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            seqs = Arrays.copyOf(seqs, size * 2);
+        }
+        set(size, pcb, key, nextSeq++);
+        siftUp(size++);
+        return true;
+    }
+
+    /**
+     * 取出键最小的进程
+     */
+    PCB poll() {
+        return size == 0 ? null : removeAt(0);
+    }
+
+    /**
+     * 键最小的进程，不取出
+     */
+    PCB peek() {
+        return size == 0 ? null : pcbs[0];
+    }
+
+    boolean remove(PCB pcb) {
+        Integer i = index.get(pcb);
+        if (i == null) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private PCB removeAt(int i) {
+        PCB removed = pcbs[i];
+        index.remove(removed);
+        int last = --size;
+        if (i != last) {
+            set(i, pcbs[last], keys[last], seqs[last]);
+            pcbs[last] = null;
+            siftDown(i);
+            siftUp(i);
+        } else {
+            pcbs[last] = null;
+        }
+        return removed;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int child = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+            if (!less(child, i)) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private boolean less(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && seqs[a] < seqs[b]);
+    }
+
+    private void swap(int a, int b) {
+        PCB pcb = pcbs[a];
+        long key = keys[a];
+        long seq = seqs[a];
+        set(a, pcbs[b], keys[b], seqs[b]);
+        set(b, pcb, key, seq);
+    }
+
+    private void set(int i, PCB pcb, long key, long seq) {
+        pcbs[i] = pcb;
+        keys[i] = key;
+        seqs[i] = seq;
+        index.put(pcb, i);
+    }
+}
@@ -0,0 +1,86 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+import java.util.IdentityHashMap;
+
+/**
+ * 按 PCB 对象索引的双向链表：两端增删和删除指定进程都是 O(1)。
+ * PCB 由 Lombok 生成全参构造器，不能直接加链表指针，这里用 PCB -> 结点的索引代替侵入式链表。
+ * pid 由进程名哈希得到，不同进程可能相同；PCB 的 equals 又按可变字段比较，所以索引按对象身份。
+ * 非线程安全，由所属的就绪队列加锁
+ */
+class PCBList {
+    private final IdentityHashMap<PCB, Node> index = new IdentityHashMap<>();
+    private Node head;
+    private Node tail;
+
+    /**
+     * 加到表尾，同一进程已在表中时不重复加入
+     */
+    boolean addLast(PCB pcb) {
+        if (index.containsKey(pcb)) {
+            return false;
+        }
+        Node node = new Node(pcb);
+        node.prev = tail;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        index.put(pcb, node);
+        return true;
+    }
+
+    PCB pollFirst() {
+        return head == null ? null : unlink(head);
+    }
+
+    PCB pollLast() {
+        return tail == null ? null : unlink(tail);
+    }
+
+    boolean remove(PCB pcb) {
+        Node node = index.get(pcb);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    private PCB unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        index.remove(node.pcb);
+        return node.pcb;
+    }
+
+    private static final class Node {
+        private final PCB pcb;
+        private Node prev;
+        private Node next;
+
+        private Node(PCB pcb) {
+            this.pcb = pcb;
+        }
+    }
+}
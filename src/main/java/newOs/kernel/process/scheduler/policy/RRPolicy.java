@@ -0,0 +1,25 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+/**
+ * 时间片轮转：每次上核重新分配一个完整的时间片
+ */
+public class RRPolicy implements SchedulingPolicy {
+    public static final long TIME_SLICE = 3800L;
+
+    @Override
+    public String getName() {
+        return "RR";
+    }
+
+    @Override
+    public RunQueue newRunQueue() {
+        return new FifoRunQueue();
+    }
+
+    @Override
+    public void assignTimeSlice(PCB pcb) {
+        pcb.setRemainingTime(TIME_SLICE);
+    }
+}
@@ -0,0 +1,49 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+import java.util.List;
+
+/**
+ * 就绪队列。每个调度策略提供自己的实现，调度器为共享队列和每个核心的本地队列各创建一个。
+ * 本核心从 poll 取进程，其他核心窃取时从 pollTail 取
+ */
+public interface RunQueue {
+
+    void add(PCB pcb);
+
+    /**
+     * 取出下一个应执行的进程，队列为空返回 null
+     */
+    PCB poll();
+
+    /**
+     * 查看下一个应执行的进程但不取出，只有抢占式策略的就绪队列需要，其余返回 null
+     */
+    default PCB peek() {
+        return null;
+    }
+
+    /**
+     * 取出一个进程给其他核心（窃取或负载均衡），队列为空返回 null
+     */
+    PCB pollTail();
+
+    /**
+     * 删除指定进程（O(1) 或 O(log n)），按对象身份查找，进程不在队列中返回 false
+     */
+    boolean remove(PCB pcb);
+
+    boolean isEmpty();
+
+    /**
+     * 取出队列中的全部进程，用于切换调度策略时迁移
+     */
+    List<PCB> drain();
+
+    /**
+     * 定时的优先级提升，只有多级反馈队列需要
+     */
+    default void boostPriority() {
+    }
+}
@@ -0,0 +1,24 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+/**
+ * 短作业优先（非抢占）：按预计执行时间排序，不做时间片控制
+ */
+public class SJFPolicy implements SchedulingPolicy {
+
+    @Override
+    public String getName() {
+        return "SJF";
+    }
+
+    @Override
+    public RunQueue newRunQueue() {
+        return new ShortestJobRunQueue();
+    }
+
+    @Override
+    public void assignTimeSlice(PCB pcb) {
+        pcb.setRemainingTime(UNLIMITED_TIME_SLICE);
+    }
+}
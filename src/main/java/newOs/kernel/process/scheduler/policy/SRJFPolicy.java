@@ -0,0 +1,33 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+/**
+ * 最短剩余作业优先（抢占式）：就绪队列按剩余执行时间（预计执行时间 - 已执行时间）排序，
+ * 新进程到达或进程从等待中被唤醒时，若比正在运行的进程剩余时间更短，则抢占该进程；
+ * 被抢占的进程按新的剩余时间回到就绪队列
+ */
+public class SRJFPolicy extends SJFPolicy {
+
+    @Override
+    public String getName() {
+        return "SRJF";
+    }
+
+    @Override
+    public RunQueue newRunQueue() {
+        return new ShortestJobRunQueue(SRJFPolicy::remainingWork);
+    }
+
+    @Override
+    public boolean shouldPreempt(PCB running, PCB ready) {
+        return remainingWork(ready) < remainingWork(running);
+    }
+
+    /**
+     * 剩余执行时间，实际执行超过预计时间的按 0 计
+     */
+    public static long remainingWork(PCB pcb) {
+        return Math.max(0, pcb.getExpectedTime() - pcb.getExecutedTime());
+    }
+}
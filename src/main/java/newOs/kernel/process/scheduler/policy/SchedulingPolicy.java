@@ -0,0 +1,42 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+/**
+ * 调度策略。每个策略决定就绪队列的组织方式和进程上核时的时间片，
+ * SideScheduler 只通过该接口调度，不再比较策略名称
+ */
+public interface SchedulingPolicy {
+
+    // 不做时间片控制的策略使用的时间片
+    long UNLIMITED_TIME_SLICE = 99999999L;
+
+    /**
+     * 策略名称（FCFS、RR、SJF、SRJF、MLFQ）
+     */
+    String getName();
+
+    /**
+     * 创建该策略使用的就绪队列
+     */
+    RunQueue newRunQueue();
+
+    /**
+     * 进程被调度到核心上时设置剩余时间片
+     */
+    void assignTimeSlice(PCB pcb);
+
+    /**
+     * 进程被抢占（时间片用完或有更短的作业就绪）、回到就绪队列之前调用
+     */
+    default void onPreempted(PCB pcb) {
+    }
+
+    /**
+     * 就绪进程 ready 是否应抢占正在运行的 running，只有抢占式策略（SRJF）返回 true；
+     * 也用于核心取进程时在本地队列和共享队列的队首之间选择
+     */
+    default boolean shouldPreempt(PCB running, PCB ready) {
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package newOs.kernel.process.scheduler.policy;
+
+import java.util.List;
+
+/**
+ * 按名称创建调度策略
+ */
+public class SchedulingPolicyFactory {
+
+    public static final List<String> NAMES = List.of("FCFS", "RR", "SJF", "SRJF", "MLFQ");
+
+    private SchedulingPolicyFactory() {
+    }
+
+    /**
+     * @param name 策略名称，不区分大小写
+     * @throws IllegalArgumentException 未知的策略名称
+     */
+    public static SchedulingPolicy create(String name) {
+        switch (name == null ? "" : name.trim().toUpperCase()) {
+            case "FCFS":
+                return new FCFSPolicy();
+            case "RR":
+                return new RRPolicy();
+            case "SJF":
+                return new SJFPolicy();
+            case "SRJF":
+                return new SRJFPolicy();
+            case "MLFQ":
+                return new MLFQPolicy();
+            default:
+                throw new IllegalArgumentException("未知的调度策略: " + name + "，可选 " + NAMES);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * 按作业长度排序的就绪队列，最短作业先出；窃取时同样取最短作业。
+ * SJF 按预计执行时间排序，SRJF 按剩余执行时间排序，排序键在入队时计算。
+ * 基于按进程索引的堆，入队、出队和删除都是 O(log n)
+ */
+public class ShortestJobRunQueue implements RunQueue {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PCBHeap heap = new PCBHeap();
+    private final ToLongFunction<PCB> jobLength;
+    // 供 isEmpty 无锁读取
+    private volatile int size;
+
+    public ShortestJobRunQueue() {
+        this(PCB::getExpectedTime);
+    }
+
+    public ShortestJobRunQueue(ToLongFunction<PCB> jobLength) {
+        this.jobLength = jobLength;
+    }
+
+    @Override
+    public void add(PCB pcb) {
+        lock.lock();
+        try {
+            heap.add(pcb, jobLength.applyAsLong(pcb));
+            size = heap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PCB poll() {
+        if (size == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            PCB pcb = heap.poll();
+            size = heap.size();
+            return pcb;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PCB peek() {
+        if (size == 0) {
+            return null;
+        }
+        lock.lock();
+        try {
+            return heap.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PCB pollTail() {
+        return poll();
+    }
+
+    @Override
+    public boolean remove(PCB pcb) {
+        lock.lock();
+        try {
+            boolean removed = heap.remove(pcb);
+            size = heap.size();
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public List<PCB> drain() {
+        List<PCB> drained = new ArrayList<>();
+        lock.lock();
+        try {
+            PCB pcb;
+            while ((pcb = heap.poll()) != null) {
+                drained.add(pcb);
+            }
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+        return drained;
+    }
+}
@@ -1,11 +1,13 @@
 package newOs.service.ServiaceImpl;
 
+import com.alibaba.fastjson.JSONObject;
 
 import newOs.dto.req.Info.InfoImplDTO.ProcessInfoImplDTO;
 import newOs.dto.req.Info.InterruptSysCallInfo;
 import newOs.dto.req.ProcessManage.ProcessCreateReqDTO;
 import newOs.dto.req.Info.InfoImplDTO.ProcessInfoReturnImplDTO;
 import newOs.dto.resp.ProcessManage.ProcessQueryAllRespDTO;
+import newOs.dto.resp.SysCallManage.SyscallStatRespDTO;
 import newOs.exception.Dispatch_Dismatch_Exception;
 import newOs.exception.OSException;
 import newOs.kernel.interrupt.InterruptController;
@@ -13,9 +15,12 @@ import newOs.service.ServiceInterface.ProcessManageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 import static newOs.common.InterruptConstant.InterruptType.SYSTEM_CALL;
 import static newOs.common.InterruptConstant.SystemCallType.CREATE_PROCESS;
 import static newOs.common.InterruptConstant.SystemCallType.EXECUTE_PROCESS;
+import static newOs.common.InterruptConstant.SystemCallType.SWITCH_STRATEGY;
 
 @Service
 public class ProcessManageServiceImpl implements ProcessManageService {
@@ -76,6 +81,14 @@ public class ProcessManageServiceImpl implements ProcessManageService {
         return new ProcessQueryAllRespDTO();
     }
     @Override
-    public void switchStrategy(String strategy) {    //切换调度策略，转发给kernel的syscall
+    public void switchStrategy(String strategy) throws OSException{    //切换调度策略，转发给kernel的syscall
+        ProcessInfoImplDTO processInfo = new ProcessInfoImplDTO().setSystemCallType(SWITCH_STRATEGY).setInterruptType(SYSTEM_CALL)
+                .setArgs(new JSONObject().fluentPut("strategy", strategy));
+        interruptController.triggerSystemCall(processInfo);
+    }
+
+    @Override
+    public List<SyscallStatRespDTO> querySyscallStats() {    //查询各系统调用的调用次数和耗时
+        return interruptController.getSyscallStats();
     }
 }
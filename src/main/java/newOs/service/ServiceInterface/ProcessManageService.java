@@ -7,6 +7,9 @@ package newOs.service.ServiceInterface;
 import newOs.dto.req.ProcessManage.ProcessCreateReqDTO;
 import newOs.dto.req.Info.InfoImplDTO.ProcessInfoReturnImplDTO;
 import newOs.dto.resp.ProcessManage.ProcessQueryAllRespDTO;
+import newOs.dto.resp.SysCallManage.SyscallStatRespDTO;
+
+import java.util.List;
 
 
 /*
@@ -15,6 +18,7 @@ import newOs.dto.resp.ProcessManage.ProcessQueryAllRespDTO;
 * 2. 执行进程
 * 3. 查询所有进程信息
 * 4. 切换调度策略
+* 5. 查询系统调用耗时统计
  */
 
 public interface ProcessManageService {
@@ -25,4 +29,6 @@ public interface ProcessManageService {
     ProcessQueryAllRespDTO queryAllProcessInfo();
 
     void switchStrategy(String strategy);
+
+    List<SyscallStatRespDTO> querySyscallStats();
 }
\ No newline at end of file
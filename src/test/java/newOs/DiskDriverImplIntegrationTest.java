@@ -137,3 +137,4 @@ class DiskDriverImplIntegrationTest {
         assertEquals(1, diskDriver.getDeviceWaitingQueue().size());
     }
 }
+*/
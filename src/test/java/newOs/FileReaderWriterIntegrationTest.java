@@ -73,3 +73,4 @@ class FileReaderWriterIntegrationTest {
         assertTrue(result.contains("not found"));
     }
 }
+*/
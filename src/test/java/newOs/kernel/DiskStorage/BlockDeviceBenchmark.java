@@ -0,0 +1,122 @@
+package newOs.kernel.DiskStorage;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两种块设备的吞吐量对比（次/秒）：
+ * sqlite  BlockStorageManager，连接池 + 预编译语句，WAL 模式
+ * mmap    MappedBlockDevice，内存映射的磁盘镜像
+ * commitChain 模拟一次追加写结束时的落盘：CHAIN 个块的数据、块链和使用状态一起提交。
+ *
+ * 运行：mvn -Pbenchmark test -Dbenchmark=BlockDeviceBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockDeviceBenchmark {
+
+    private static final int BLOCKS = 1024;
+    private static final int CHAIN = 8;
+
+    @Param({"sqlite", "mmap"})
+    private String device;
+
+    private Path directory;
+    private SQLiteConnectionPool pool;
+    private MappedBlockDevice image;
+    private BlockDevice blockDevice;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("block-device-bench");
+        payload = new byte[BlockDevice.BLOCK_SIZE];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        if ("mmap".equals(device)) {
+            image = new MappedBlockDevice(directory.resolve("disk.img"), BLOCKS);
+            blockDevice = image;
+        } else {
+            String url = "jdbc:sqlite:" + directory.resolve("disk.db");
+            BlockStorageBenchmark.createBlocks(url, BLOCKS);
+            pool = new SQLiteConnectionPool(url, 4);
+            blockDevice = new BlockStorageManager(pool);
+        }
+        // 先写一遍，读操作读到的是满块
+        for (int i = 0; i < BLOCKS; i++) {
+            blockDevice.writeBlock(i, payload);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (image != null) {
+            image.close();
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * 每个线程按顺序轮流访问全部块
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int nextBlock() {
+            next = (next + 1) % BLOCKS;
+            return next;
+        }
+
+        // 下一段 CHAIN 个连续块的起始块号
+        int nextChain() {
+            next = (next + CHAIN) % (BLOCKS - BLOCKS % CHAIN);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public byte[] readBlock(Cursor cursor) throws SQLException {
+        return blockDevice.readBlock(cursor.nextBlock());
+    }
+
+    @Benchmark
+    public void writeBlock(Cursor cursor) throws SQLException {
+        blockDevice.writeBlock(cursor.nextBlock(), payload);
+    }
+
+    @Benchmark
+    public void commitChain(Cursor cursor) throws SQLException {
+        int first = cursor.nextChain();
+        Map<Integer, Integer> nextBlocks = new HashMap<>();
+        Map<Integer, Boolean> usage = new HashMap<>();
+        Map<Integer, byte[]> data = new HashMap<>();
+        for (int i = 0; i < CHAIN; i++) {
+            int block = first + i;
+            nextBlocks.put(block, i == CHAIN - 1 ? -1 : block + 1);
+            usage.put(block, true);
+            data.put(block, payload);
+        }
+        blockDevice.commitBlockChain(nextBlocks, usage, data);
+    }
+}
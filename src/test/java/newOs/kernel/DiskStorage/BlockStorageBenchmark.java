@@ -0,0 +1,129 @@
+package newOs.kernel.DiskStorage;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 块读写吞吐量（次/秒）：改造前每次操作都 DriverManager.getConnection 并重新编译 SQL，
+ * 改造后由 BlockStorageManager 从连接池借出连接、复用预编译语句，连接运行在 WAL 模式。
+ * 两组各用一个临时数据库文件，互不影响日志模式。
+ *
+ * 运行：mvn -Pbenchmark test -Dbenchmark=BlockStorageBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockStorageBenchmark {
+
+    private static final int BLOCKS = 256;
+
+    private static final String READ_SQL = "SELECT data FROM blocks WHERE block_number = ?";
+    private static final String WRITE_SQL = "UPDATE blocks SET data = ? WHERE block_number = ?";
+
+    private Path directory;
+    private String perOpUrl;
+    private SQLiteConnectionPool pool;
+    private BlockStorageManager manager;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("block-bench");
+        perOpUrl = "jdbc:sqlite:" + directory.resolve("per-op.db");
+        String pooledUrl = "jdbc:sqlite:" + directory.resolve("pooled.db");
+        payload = new byte[BlockDevice.BLOCK_SIZE];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        createBlocks(perOpUrl, BLOCKS);
+        createBlocks(pooledUrl, BLOCKS);
+
+        pool = new SQLiteConnectionPool(pooledUrl, 4);
+        manager = new BlockStorageManager(pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * 每个线程按顺序轮流访问全部块
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int nextBlock() {
+            next = (next + 1) % BLOCKS;
+            return next;
+        }
+    }
+
+    // 改造前：每次读块都新建连接并编译语句
+    @Benchmark
+    public byte[] readBlockPerOpConnection(Cursor cursor) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(perOpUrl);
+             PreparedStatement pstmt = conn.prepareStatement(READ_SQL)) {
+            pstmt.setInt(1, cursor.nextBlock());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getBytes("data") : null;
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] readBlockPooled(Cursor cursor) throws SQLException {
+        return manager.readBlock(cursor.nextBlock());
+    }
+
+    // 改造前：每次写块都新建连接并编译语句
+    @Benchmark
+    public int writeBlockPerOpConnection(Cursor cursor) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(perOpUrl);
+             PreparedStatement pstmt = conn.prepareStatement(WRITE_SQL)) {
+            pstmt.setBytes(1, payload);
+            pstmt.setInt(2, cursor.nextBlock());
+            return pstmt.executeUpdate();
+        }
+    }
+
+    @Benchmark
+    public void writeBlockPooled(Cursor cursor) throws SQLException {
+        manager.writeBlock(cursor.nextBlock(), payload);
+    }
+
+    // 建表并插入 count 个空闲块
+    static void createBlocks(String url, int count) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE blocks (block_number INTEGER PRIMARY KEY, data BLOB, "
+                        + "is_used BOOLEAN, next_block INTEGER)");
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO blocks(block_number, data, is_used, next_block) VALUES(?, X'', false, -1)")) {
+                for (int i = 0; i < count; i++) {
+                    pstmt.setInt(1, i);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package newOs.kernel.filesystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static newOs.kernel.filesystem.FileNode.FileType.DIRECTORY;
+
+/**
+ * 路径解析吞吐量（次/秒）：目录树深 depth 层，每层 FANOUT 个兄弟目录，
+ * 最深一层下有 HOT_PATHS 个目录，反复解析这些热点路径以及它们下面不存在的路径。
+ * uncached 为改造前的 NameToNode：split 拆分路径、分配 List、从根结点逐级查找；
+ * cached 走 FileSystem.NameToNode（目录项缓存，不存在的路径命中负缓存项）。
+ *
+ * 运行：mvn -Pbenchmark test -Dbenchmark=DentryCacheBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DentryCacheBenchmark {
+
+    private static final int FANOUT = 4;
+    private static final int HOT_PATHS = 64;
+
+    @Param({"4", "16"})
+    private int depth;
+
+    private FileNode root;
+    private String[] hotPaths;
+    private String[] missingPaths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 目录树操作不涉及块设备和缓存，其余依赖传 null
+        FileSystem fileSystem = new FileSystem(null, null, null, null, null, null, 4096);
+        StringBuilder spine = new StringBuilder();
+        for (int level = 0; level < depth; level++) {
+            for (int i = FANOUT - 1; i >= 0; i--) {
+                fileSystem.makedir(spine + "/d" + level + "_" + i);
+            }
+            spine.append("/d").append(level).append("_0");
+        }
+        hotPaths = new String[HOT_PATHS];
+        missingPaths = new String[HOT_PATHS];
+        for (int i = 0; i < HOT_PATHS; i++) {
+            hotPaths[i] = spine + "/hot" + i;
+            missingPaths[i] = hotPaths[i] + "/missing";
+            fileSystem.makedir(hotPaths[i]);
+        }
+        root = FileSystem.NameToNode("/");
+    }
+
+    /**
+     * 每个线程按顺序轮流访问全部热点路径
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int nextIndex() {
+            next = (next + 1) % HOT_PATHS;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public FileNode hotPathUncached(Cursor cursor) {
+        return walkFromRoot(hotPaths[cursor.nextIndex()]);
+    }
+
+    @Benchmark
+    public FileNode hotPathCached(Cursor cursor) {
+        return FileSystem.NameToNode(hotPaths[cursor.nextIndex()]);
+    }
+
+    @Benchmark
+    public FileNode missingPathUncached(Cursor cursor) {
+        return walkFromRoot(missingPaths[cursor.nextIndex()]);
+    }
+
+    @Benchmark
+    public FileNode missingPathCached(Cursor cursor) {
+        return FileSystem.NameToNode(missingPaths[cursor.nextIndex()]);
+    }
+
+    // 改造前 NameToNode 对绝对路径的查找方式
+    private FileNode walkFromRoot(String filePath) {
+        List<String> parts = new ArrayList<>();
+        for (String seg : filePath.split("/")) {
+            if (seg.equals(".") || seg.isEmpty()) {
+                continue;
+            }
+            parts.add(seg);
+        }
+        FileNode currentNode = root;
+        for (String part : parts) {
+            if (currentNode.getFileType() != DIRECTORY) {
+                return null;
+            }
+            FileNode child = currentNode.getChild(part);
+            if (child == null) {
+                return null;
+            }
+            currentNode = child;
+        }
+        return currentNode;
+    }
+}
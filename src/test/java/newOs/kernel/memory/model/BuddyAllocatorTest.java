@@ -0,0 +1,125 @@
+package newOs.kernel.memory.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuddyAllocatorTest {
+
+    @Test
+    void allocate_WhenFresh_ShouldSplitTopBlockDownToRequestedOrder() {
+        BuddyAllocator allocator = new BuddyAllocator(0, 1024);
+
+        assertEquals(0, allocator.allocate(0));
+
+        // 拆分留下的后一半在每个低阶各有一块
+        int[] freeBlocks = allocator.getFreeBlocks();
+        for (int order = 0; order < BuddyAllocator.MAX_ORDER; order++) {
+            assertEquals(1, freeBlocks[order], "阶 " + order);
+        }
+        assertEquals(0, freeBlocks[BuddyAllocator.MAX_ORDER]);
+        assertEquals(1023, allocator.getFreeFrames());
+        // 下一次分配直接用拆出的伙伴
+        assertEquals(1, allocator.allocate(0));
+        assertEquals(4, allocator.allocate(2));
+    }
+
+    @Test
+    void free_WhenBuddiesAreFree_ShouldMergeBackToTopOrder() {
+        BuddyAllocator allocator = new BuddyAllocator(0, 1024);
+        int a = allocator.allocate(0);
+        int b = allocator.allocate(0);
+        int c = allocator.allocate(1);
+
+        allocator.free(a, 0);
+        // b 仍在使用，a 不能向上合并
+        assertEquals(1, allocator.getFreeBlocks()[0]);
+        allocator.free(b, 0);
+        allocator.free(c, 1);
+
+        int[] freeBlocks = allocator.getFreeBlocks();
+        assertEquals(1, freeBlocks[BuddyAllocator.MAX_ORDER]);
+        for (int order = 0; order < BuddyAllocator.MAX_ORDER; order++) {
+            assertEquals(0, freeBlocks[order], "阶 " + order);
+        }
+        assertEquals(1024, allocator.getFreeFrames());
+    }
+
+    @Test
+    void free_WhenBlockIsFreedFrameByFrame_ShouldMerge() {
+        BuddyAllocator allocator = new BuddyAllocator(0, 1024);
+        int first = allocator.allocate(3);
+
+        for (int i = 0; i < 8; i++) {
+            allocator.free(first + i, 0);
+        }
+
+        assertEquals(1, allocator.getFreeBlocks()[BuddyAllocator.MAX_ORDER]);
+        assertEquals(1024, allocator.getFreeFrames());
+    }
+
+    @Test
+    void free_WhenStripeTailIsOddSized_ShouldMergeOnlyWithinTheStripe() {
+        // 1000 = 512 + 256 + 128 + 64 + 32 + 8，末尾的 8 帧块没有伙伴
+        BuddyAllocator allocator = new BuddyAllocator(3072, 1000);
+        int[] initial = allocator.getFreeBlocks();
+        assertArrayEquals(new int[]{0, 0, 0, 1, 0, 1, 1, 1, 1, 1, 0}, initial);
+
+        List<Integer> frames = new ArrayList<>();
+        for (int frame; (frame = allocator.allocate(0)) >= 0; ) {
+            assertTrue(allocator.contains(frame), "帧越界: " + frame);
+            frames.add(frame);
+        }
+        assertEquals(1000, frames.size());
+        assertEquals(0, allocator.getFreeFrames());
+
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            allocator.free(frames.get(i), 0);
+        }
+        assertArrayEquals(initial, allocator.getFreeBlocks());
+        assertEquals(1000, allocator.getFreeFrames());
+    }
+
+    @Test
+    void allocate_WhenNoBlockIsLargeEnough_ShouldReturnMinusOne() {
+        BuddyAllocator allocator = new BuddyAllocator(0, 1000);
+
+        assertEquals(-1, allocator.allocate(BuddyAllocator.MAX_ORDER));
+        assertEquals(0, allocator.allocate(9));
+        assertEquals(-1, allocator.allocate(9));
+    }
+
+    @Test
+    void free_WhenEverythingIsFreedAfterRandomTraffic_ShouldLeaveOnlyTopOrderBlocks() {
+        BuddyAllocator allocator = new BuddyAllocator(0, 4096);
+        SplittableRandom random = new SplittableRandom(7);
+        List<int[]> live = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            if (live.isEmpty() || random.nextBoolean()) {
+                int order = random.nextInt(5);
+                int frame = allocator.allocate(order);
+                if (frame >= 0) {
+                    live.add(new int[]{frame, order});
+                }
+            } else {
+                int[] block = live.remove(random.nextInt(live.size()));
+                allocator.free(block[0], block[1]);
+            }
+        }
+
+        for (int[] block : live) {
+            allocator.free(block[0], block[1]);
+        }
+
+        int[] freeBlocks = allocator.getFreeBlocks();
+        assertEquals(4096, allocator.getFreeFrames());
+        assertEquals(4096 >> BuddyAllocator.MAX_ORDER, freeBlocks[BuddyAllocator.MAX_ORDER]);
+        for (int order = 0; order < BuddyAllocator.MAX_ORDER; order++) {
+            assertEquals(0, freeBlocks[order], "阶 " + order);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package newOs.kernel.memory.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 物理帧分配器的吞吐量（次/秒）：4 个线程模拟 4 个核心，每次操作释放最早的一个分配并重新分配，
+ * 页按 0~3 阶随机大小从伙伴系统分配，内核对象按 32B~2KB 随机大小从 slab 缓存分配；
+ * 分别用 1 个条带（相当于一把全局锁）和 4 个条带运行。碎片率见 FrameFragmentationBenchmark。
+ *
+ * 运行：mvn -Pbenchmark test -Dbenchmark=FrameAllocatorBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class FrameAllocatorBenchmark {
+
+    private static final int FRAMES = 4096;
+    // 每个线程同时持有的分配数
+    private static final int LIVE = 32;
+    static final int MAX_PAGE_ORDER = 3;
+
+    @Param({"1", "4"})
+    private int stripes;
+
+    private PhysicalMemoryService physicalMemoryService;
+    private KernelMemoryService kernelMemoryService;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        physicalMemoryService = new PhysicalMemoryService(FRAMES, stripes);
+        kernelMemoryService = new KernelMemoryService(physicalMemoryService);
+    }
+
+    /**
+     * 每个线程的分配记录，环形覆盖最早的一个
+     */
+    @State(Scope.Thread)
+    public static class Core {
+        private int id;
+        private SplittableRandom random;
+        private final int[] frames = new int[LIVE];
+        private final int[] orders = new int[LIVE];
+        private final int[] objects = new int[LIVE];
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(FrameAllocatorBenchmark benchmark) {
+            if (random == null) {
+                id = benchmark.threads.getAndIncrement();
+                random = new SplittableRandom(id);
+            }
+            for (int i = 0; i < LIVE; i++) {
+                frames[i] = -1;
+                objects[i] = -1;
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(FrameAllocatorBenchmark benchmark) {
+            for (int i = 0; i < LIVE; i++) {
+                if (frames[i] >= 0) {
+                    benchmark.physicalMemoryService.freePages(frames[i], orders[i]);
+                    frames[i] = -1;
+                }
+                if (objects[i] >= 0) {
+                    benchmark.kernelMemoryService.free(objects[i]);
+                    objects[i] = -1;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int allocatePages(Core core) {
+        int slot = core.next;
+        core.next = (slot + 1) % LIVE;
+        if (core.frames[slot] >= 0) {
+            physicalMemoryService.freePages(core.frames[slot], core.orders[slot]);
+        }
+        int order = core.random.nextInt(MAX_PAGE_ORDER + 1);
+        core.frames[slot] = physicalMemoryService.allocatePages(order, core.id);
+        core.orders[slot] = order;
+        return core.frames[slot];
+    }
+
+    @Benchmark
+    public int allocateKernelObject(Core core) {
+        int slot = core.next;
+        core.next = (slot + 1) % LIVE;
+        if (core.objects[slot] >= 0) {
+            kernelMemoryService.free(core.objects[slot]);
+        }
+        core.objects[slot] = kernelMemoryService.allocate(32 << core.random.nextInt(7));
+        return core.objects[slot];
+    }
+}
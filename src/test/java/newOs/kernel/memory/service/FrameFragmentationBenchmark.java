@@ -0,0 +1,105 @@
+package newOs.kernel.memory.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static newOs.kernel.memory.service.FrameAllocatorBenchmark.MAX_PAGE_ORDER;
+
+/**
+ * 物理帧分配器的碎片率：每轮从空的分配器开始随机分配释放 STEPS 次，占用保持在一半左右，
+ * 页按 0~3 阶随机大小分配，随机释放任意一个已分配的块；分别用 1 个和 4 个条带运行。
+ * 每轮结束打印：碎片率（1 - 最大空闲块 / 空闲帧数）的终值和过程中的最大值，
+ * 以及空闲帧中还能满足最大一次请求（MAX_PAGE_ORDER 阶）的比例。
+ * JMH 报告的耗时是一轮的总时间。
+ *
+ * 运行：mvn -Pbenchmark test -Dbenchmark=FrameFragmentationBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class FrameFragmentationBenchmark {
+
+    private static final int FRAMES = 4096;
+    private static final int STEPS = 200_000;
+    // 每隔多少步采样一次碎片率
+    private static final int SAMPLE = 1000;
+
+    @Param({"1", "4"})
+    private int stripes;
+
+    private PhysicalMemoryService service;
+    private SplittableRandom random;
+    private List<int[]> live;
+    private double worst;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        service = new PhysicalMemoryService(FRAMES, stripes);
+        random = new SplittableRandom(42);
+        live = new ArrayList<>();
+        worst = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        int[] churned = service.getFreeBlocks();
+        System.out.printf("%nstripes=%d live=%d free=%d fragmentation=%.3f worst=%.3f usable=%.3f%n",
+                stripes, live.size(), service.getFreeFrameCount(),
+                fragmentation(churned), worst, usable(churned));
+    }
+
+    @Benchmark
+    public int churn() {
+        for (int step = 0; step < STEPS; step++) {
+            boolean allocate = live.isEmpty()
+                    || (service.getFreeFrameCount() > FRAMES / 2 && random.nextBoolean());
+            if (allocate) {
+                int order = random.nextInt(MAX_PAGE_ORDER + 1);
+                int frame = service.allocatePages(order, random.nextInt(stripes));
+                if (frame >= 0) {
+                    live.add(new int[]{frame, order});
+                }
+            } else {
+                int[] block = live.remove(random.nextInt(live.size()));
+                service.freePages(block[0], block[1]);
+            }
+            if (step % SAMPLE == SAMPLE - 1) {
+                worst = Math.max(worst, fragmentation(service.getFreeBlocks()));
+            }
+        }
+        return live.size();
+    }
+
+    // 与 VirtualMemoryService.getFrameAllocatorStats 相同：1 - 最大空闲块 / 空闲帧数
+    private static double fragmentation(int[] freeBlocks) {
+        int freeFrames = 0;
+        int largest = 0;
+        for (int order = 0; order < freeBlocks.length; order++) {
+            freeFrames += freeBlocks[order] << order;
+            if (freeBlocks[order] > 0) {
+                largest = 1 << order;
+            }
+        }
+        return freeFrames == 0 ? 0 : 1 - (double) largest / freeFrames;
+    }
+
+    // 空闲帧中位于 MAX_PAGE_ORDER 阶及以上空闲块的比例
+    private static double usable(int[] freeBlocks) {
+        int freeFrames = 0;
+        int usableFrames = 0;
+        for (int order = 0; order < freeBlocks.length; order++) {
+            freeFrames += freeBlocks[order] << order;
+            if (order >= MAX_PAGE_ORDER) {
+                usableFrames += freeBlocks[order] << order;
+            }
+        }
+        return freeFrames == 0 ? 0 : (double) usableFrames / freeFrames;
+    }
+}
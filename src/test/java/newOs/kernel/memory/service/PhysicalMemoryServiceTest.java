@@ -0,0 +1,74 @@
+package newOs.kernel.memory.service;
+
+import newOs.kernel.memory.model.BuddyAllocator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhysicalMemoryServiceTest {
+
+    @Test
+    void allocatePages_ShouldStartFromTheHintedStripe() {
+        PhysicalMemoryService service = new PhysicalMemoryService(4096, 4);
+
+        assertEquals(4, service.getStripeCount());
+        assertEquals(0, service.allocatePages(0, 0));
+        assertEquals(2048, service.allocatePages(0, 2));
+        // 负数提示按取模选择条带
+        assertEquals(3072, service.allocatePages(0, -1));
+    }
+
+    @Test
+    void allocatePages_WhenHintedStripeIsExhausted_ShouldFallBackToOtherStripes() {
+        PhysicalMemoryService service = new PhysicalMemoryService(4096, 4);
+        int whole = service.allocatePages(BuddyAllocator.MAX_ORDER, 1);
+        assertEquals(1024, whole);
+
+        // 条带 1 已无空闲帧，依次尝试后面的条带
+        assertEquals(2048, service.allocatePages(0, 1));
+        assertEquals(4096 - 1024 - 1, service.getFreeFrameCount());
+    }
+
+    @Test
+    void allocatePages_WhenAllStripesAreExhausted_ShouldReturnMinusOne() {
+        PhysicalMemoryService service = new PhysicalMemoryService(4096, 4);
+        for (int hint = 0; hint < 4; hint++) {
+            assertTrue(service.allocatePages(BuddyAllocator.MAX_ORDER, hint) >= 0);
+        }
+
+        assertEquals(-1, service.allocatePages(0, 0));
+        assertEquals(0, service.getFreeFrameCount());
+    }
+
+    @Test
+    void freePages_ShouldReturnFramesToTheOwningStripe() {
+        // 3000 帧分成 4 条，每条 750 帧
+        PhysicalMemoryService service = new PhysicalMemoryService(3000, 4);
+        int[] initial = service.getFreeBlocks();
+        int fromLast = service.allocatePages(0, 3);
+        int fallback = -1;
+        for (int i = 0; i < 750; i++) {
+            fallback = service.allocatePages(0, 3);
+        }
+        assertTrue(fromLast >= 2250);
+        assertTrue(fallback < 750, "第 4 条带用完后应回到第 1 条带: " + fallback);
+
+        service.freePages(fallback, 0);
+        service.freePages(fromLast, 0);
+        for (int frame = 2250; frame < 3000; frame++) {
+            if (frame != fromLast) {
+                service.freePages(frame, 0);
+            }
+        }
+
+        assertArrayEquals(initial, service.getFreeBlocks());
+        assertEquals(3000, service.getFreeFrameCount());
+    }
+
+    @Test
+    void freePages_WhenFrameIsOutOfRange_ShouldThrow() {
+        PhysicalMemoryService service = new PhysicalMemoryService(1024, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> service.freePages(1024, 0));
+    }
+}
@@ -0,0 +1,66 @@
+package newOs.kernel.process.scheduler.policy;
+
+import newOs.component.memory.protected1.PCB;
+import org.junit.jupiter.api.Test;
+
+import static newOs.common.processConstant.processStateConstant.CREATED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SRJFPolicyTest {
+
+    private final SRJFPolicy policy = new SRJFPolicy();
+
+    @Test
+    void runQueue_ShouldOrderByRemainingWork() {
+        RunQueue queue = policy.newRunQueue();
+        PCB longJob = pcb(1, 10_000, 8_000);
+        PCB shortJob = pcb(2, 4_000, 0);
+        PCB middleJob = pcb(3, 3_000, 0);
+
+        queue.add(shortJob);
+        queue.add(longJob);
+        queue.add(middleJob);
+
+        // 剩余时间：longJob 2000，middleJob 3000，shortJob 4000
+        assertSame(longJob, queue.peek());
+        assertSame(longJob, queue.poll());
+        assertSame(middleJob, queue.poll());
+        assertSame(shortJob, queue.poll());
+        assertNull(queue.peek());
+    }
+
+    @Test
+    void runQueue_WhenPreemptedJobIsRequeued_ShouldUseUpdatedRemainingWork() {
+        RunQueue queue = policy.newRunQueue();
+        PCB running = pcb(1, 5_000, 0);
+        PCB waiting = pcb(2, 3_000, 0);
+        queue.add(waiting);
+
+        // 运行了 3000 后被抢占，剩余 2000，排到 waiting 前面
+        running.setExecutedTime(3_000);
+        queue.add(running);
+
+        assertSame(running, queue.poll());
+        assertSame(waiting, queue.poll());
+    }
+
+    @Test
+    void shouldPreempt_ShouldCompareRemainingWork() {
+        PCB running = pcb(1, 10_000, 6_000);
+
+        assertTrue(policy.shouldPreempt(running, pcb(2, 3_000, 0)));
+        assertFalse(policy.shouldPreempt(running, pcb(3, 4_000, 0)));
+        assertFalse(policy.shouldPreempt(running, pcb(4, 5_000, 0)));
+        assertFalse(new SJFPolicy().shouldPreempt(running, pcb(5, 1, 0)));
+    }
+
+    @Test
+    void remainingWork_WhenJobOverrunsItsEstimate_ShouldBeZero() {
+        assertEquals(0, SRJFPolicy.remainingWork(pcb(1, 1_000, 1_500)));
+    }
+
+    private static PCB pcb(int pid, long expectedTime, long executedTime) {
+        return new PCB(pid, "process" + pid, 0, -1, CREATED, -1, -1, -1, -1, 0,
+                -1, expectedTime, executedTime, 3, null, -1, -1, -1, -1, 0, 0, -1);
+    }
+}